@@ -0,0 +1,102 @@
+package org.example.eventsourcing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.configuration.AppConfig;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.example.eventsourcing.infrastructure.util.JsonEventCodec;
+import org.example.eventsourcing.infrastructure.util.SmileEventCodec;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие объекты для бенчмарков, собранные без контекста Spring.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Создает ObjectMapper с настройками приложения.
+     *
+     * @return объект ObjectMapper
+     */
+    static ObjectMapper objectMapper() {
+        return new AppConfig().objectMapper();
+    }
+
+    /**
+     * Создает сериализатор событий с указанным кодеком по умолчанию.
+     *
+     * @param codec имя кодека
+     * @return сериализатор событий
+     */
+    static EventSerializer eventSerializer(String codec) {
+        ObjectMapper objectMapper = objectMapper();
+        return new EventSerializer(objectMapper, List.of(new JsonEventCodec(objectMapper), new SmileEventCodec(objectMapper)), codec,
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Создает реестр типов событий.
+     *
+     * @return реестр типов событий
+     */
+    static EventTypeRegistry eventTypeRegistry() {
+        EventTypeRegistry registry = new EventTypeRegistry();
+        registry.registerEvents();
+        return registry;
+    }
+
+    /**
+     * Создает пример события указанного типа.
+     *
+     * @param eventType простое имя класса события
+     * @param orderId идентификатор заказа
+     * @return событие домена
+     */
+    static OrderEvent sampleEvent(String eventType, OrderId orderId) {
+        return switch (eventType) {
+            case "OrderCreatedEvent" -> new OrderCreatedEvent(orderId, "customer-42");
+            case "ItemAddedEvent" -> new ItemAddedEvent(orderId, sampleProduct(0));
+            case "OrderConfirmedEvent" -> new OrderConfirmedEvent(orderId);
+            default -> throw new IllegalArgumentException("Неизвестный тип события: " + eventType);
+        };
+    }
+
+    /**
+     * Создает поток событий заказа: создание и добавление товаров.
+     *
+     * @param orderId идентификатор заказа
+     * @param size общее количество событий
+     * @return список событий
+     */
+    static List<OrderEvent> orderStream(OrderId orderId, int size) {
+        List<OrderEvent> events = new ArrayList<>(size);
+        events.add(new OrderCreatedEvent(orderId, "customer-42"));
+        for (int i = 1; i < size; i++) {
+            events.add(new ItemAddedEvent(orderId, sampleProduct(i)));
+        }
+        return events;
+    }
+
+    /**
+     * Создает пример товара.
+     *
+     * @param index порядковый номер товара
+     * @return товар
+     */
+    static Product sampleProduct(int index) {
+        return new Product("product-" + index, "Товар " + index, new BigDecimal("199.90"), 1 + index % 5);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.eventsourcing.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.application.command.AddProductCommand;
+import org.example.eventsourcing.application.command.CreateOrderCommand;
+import org.example.eventsourcing.application.command.OrderAggregateCache;
+import org.example.eventsourcing.application.command.OrderCommandHandler;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.EventRepository;
+import org.example.eventsourcing.infrastructure.event.MongoEventStore;
+import org.example.eventsourcing.infrastructure.event.MongoEventStoreMigration;
+import org.example.eventsourcing.infrastructure.snapshot.InMemorySnapshotStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность и задержки командного пути на платформенных
+ * и виртуальных потоках при числе одновременных клиентов больше пула Tomcat.
+ * <p>
+ * Каждый поток JMH — клиент со своим заказом, отправляющий команду добавления
+ * товара исполнителю и ожидающий ответа. Команда проходит настоящий путь
+ * {@link OrderCommandHandler}: кэш заказов, дочитывание событий и запись
+ * через {@link MongoEventStore} с групповой фиксацией драйвером MongoDB.
+ * Kafka в командный путь не входит: события публикует планировщик исходящего буфера.
+ * Режим SampleTime дает распределение задержек, включая p99.
+ * <p>
+ * Вариант {@code virtual} требует JDK 21+ и на более старой JVM завершается
+ * ошибкой при подготовке. Закрепления носителей в драйвере MongoDB печатаются
+ * JVM благодаря {@code -Djdk.tracePinnedThreads=short}.
+ * Требует запущенный MongoDB (docker-compose); адрес задается свойством benchmark.mongo.uri.
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="CommandThreadingBenchmark -t 1000"},
+ * на JDK 17 — с {@code -p threads=platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(1000)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class CommandThreadingBenchmark {
+
+    private static final String DATABASE = "order-service-command-benchmark";
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int VIRTUAL_THREADS_JDK = 21;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoEventStore eventStore;
+    private OrderCommandHandler commandHandler;
+    private Executor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(threads) && Runtime.version().feature() < VIRTUAL_THREADS_JDK) {
+            throw new IllegalStateException("Виртуальные потоки требуют JDK " + VIRTUAL_THREADS_JDK
+                    + "+, текущая JVM — " + Runtime.version().feature() + "; запустите с -p threads=platform");
+        }
+
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+        new MongoEventStoreMigration(mongoTemplate, true).migrate();
+        eventStore = new MongoEventStore(new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class),
+                BenchmarkFixtures.eventSerializer("smile"), BenchmarkFixtures.eventTypeRegistry(), mongoTemplate,
+                256, 256, Duration.ofMillis(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        commandHandler = new OrderCommandHandler(eventStore, new InMemorySnapshotStore(),
+                new OrderAggregateCache(10_000, Duration.ofMinutes(10), meterRegistry),
+                50, 3, ReplayMode.STATE_ONLY, meterRegistry);
+        executor = "virtual".equals(threads)
+                ? new VirtualThreadTaskExecutor("command-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        if (eventStore != null) {
+            eventStore.close();
+            mongoTemplate.getDb().drop();
+            client.close();
+        }
+    }
+
+    /**
+     * Клиент с собственным заказом, чтобы параллельные команды не конфликтовали по версии.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private OrderId orderId;
+        private Product product;
+
+        @Setup(Level.Trial)
+        public void setUp(CommandThreadingBenchmark benchmark) {
+            orderId = benchmark.commandHandler.handle(new CreateOrderCommand("customer-42"));
+            product = BenchmarkFixtures.sampleProduct(0);
+        }
+    }
+
+    /**
+     * Добавляет товар в заказ клиента на исполнителе и ждет завершения команды.
+     *
+     * @param client клиент
+     */
+    @Benchmark
+    public void handleCommand(Client client) {
+        AddProductCommand command = new AddProductCommand(client.orderId, client.product);
+        CompletableFuture.runAsync(() -> commandHandler.handle(command), executor).join();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.eventsourcing.benchmark;
+
+import org.example.eventsourcing.application.query.EventHandler;
+import org.example.eventsourcing.application.query.EventHandlerRegistry;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выбор обработчика проекции для событий разных типов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventHandlerRegistryBenchmark {
+
+    private EventHandlerRegistry registry;
+    private OrderEvent[] events;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = new EventHandlerRegistry();
+        registry.registerHandlers();
+        OrderId orderId = OrderId.generate();
+        events = new OrderEvent[]{
+                BenchmarkFixtures.sampleEvent("OrderCreatedEvent", orderId),
+                BenchmarkFixtures.sampleEvent("ItemAddedEvent", orderId),
+                BenchmarkFixtures.sampleEvent("OrderConfirmedEvent", orderId)
+        };
+    }
+
+    @Benchmark
+    public EventHandler<OrderEvent> getHandler() {
+        OrderEvent event = events[next++ % events.length];
+        return registry.getHandler(event);
+    }
+}
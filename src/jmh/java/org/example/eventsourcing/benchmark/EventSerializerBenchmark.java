@@ -0,0 +1,59 @@
+package org.example.eventsourcing.benchmark;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и десериализация событий каждого типа каждым кодеком.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializerBenchmark {
+
+    @Param({"OrderCreatedEvent", "ItemAddedEvent", "OrderConfirmedEvent"})
+    private String eventType;
+
+    @Param({"json", "smile"})
+    private String codec;
+
+    private EventSerializer serializer;
+    private OrderEvent event;
+    private Class<? extends OrderEvent> eventClass;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = BenchmarkFixtures.eventSerializer(codec);
+        event = BenchmarkFixtures.sampleEvent(eventType, OrderId.generate());
+        eventClass = event.getClass();
+        encoded = serializer.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.encode(event);
+    }
+
+    @Benchmark
+    public OrderEvent decode() {
+        return serializer.decode(codec, encoded, eventClass);
+    }
+}
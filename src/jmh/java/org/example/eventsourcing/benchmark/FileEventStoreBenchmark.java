@@ -0,0 +1,105 @@
+package org.example.eventsourcing.benchmark;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.FileEventStore;
+import org.example.eventsourcing.infrastructure.event.FsyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Запись и чтение потоков событий через FileEventStore; операции те же,
+ * что в {@link MongoEventStoreBenchmark}, для сравнения хранилищ.
+ * Журнал пишется во временный каталог и удаляется после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileEventStoreBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int streamLength;
+
+    @Param({"ALWAYS", "GROUP", "PERIODIC"})
+    private FsyncPolicy fsync;
+
+    private Path directory;
+    private FileEventStore eventStore;
+    private OrderId loadedOrderId;
+    private OrderEvent appendedEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("event-store-benchmark");
+        eventStore = new FileEventStore(BenchmarkFixtures.eventSerializer("smile"), BenchmarkFixtures.eventTypeRegistry(),
+                directory.toString(), DataSize.ofMegabytes(64), fsync, Duration.ofSeconds(1));
+
+        loadedOrderId = OrderId.generate();
+        List<OrderEvent> stream = BenchmarkFixtures.orderStream(loadedOrderId, streamLength);
+        eventStore.saveEvents(loadedOrderId, 0, stream);
+        appendedEvent = BenchmarkFixtures.sampleEvent("OrderCreatedEvent", OrderId.generate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        eventStore.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void saveNewStream() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    /**
+     * Одиночные записи от многих параллельных команд: при групповом сбросе
+     * один вызов force покрывает записи всех ожидающих потоков.
+     */
+    @Benchmark
+    @Threads(64)
+    public void saveNewStreamConcurrently() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    @Benchmark
+    public List<OrderEvent> loadStream() {
+        return eventStore.loadEvents(loadedOrderId);
+    }
+
+    /**
+     * Поток файлового хранилища знает свой размер, поэтому count() не декодирует
+     * события; они передаются в Blackhole.
+     */
+    @Benchmark
+    public void streamStream(Blackhole blackhole) {
+        try (Stream<OrderEvent> events = eventStore.streamEvents(loadedOrderId, 0)) {
+            events.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.eventsourcing.benchmark;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.InMemoryEventStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение потоков событий через InMemoryEventStore; операции те же,
+ * что в {@link MongoEventStoreBenchmark}. Параметр stripes = 1 сводит запись
+ * к одной общей блокировке для сравнения с полосатыми блокировками.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryEventStoreBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int streamLength;
+
+    @Param({"1", "0"})
+    private int stripes;
+
+    private InMemoryEventStore eventStore;
+    private OrderId loadedOrderId;
+    private OrderEvent appendedEvent;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        eventStore = new InMemoryEventStore(stripes);
+        loadedOrderId = OrderId.generate();
+        eventStore.saveEvents(loadedOrderId, 0, BenchmarkFixtures.orderStream(loadedOrderId, streamLength));
+        appendedEvent = BenchmarkFixtures.sampleEvent("OrderCreatedEvent", OrderId.generate());
+    }
+
+    @Benchmark
+    public void saveNewStream() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    /**
+     * Одиночные записи в разные заказы от многих потоков.
+     */
+    @Benchmark
+    @Threads(8)
+    public void saveNewStreamConcurrently() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    @Benchmark
+    public List<OrderEvent> loadStream() {
+        return eventStore.loadEvents(loadedOrderId);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.eventsourcing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventDeserializer;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и десериализация записей Kafka с событиями: обобщенные
+ * {@link JsonSerializer}/{@link JsonDeserializer} с типом по имени класса
+ * против {@link OrderEventSerializer}/{@link OrderEventDeserializer} с типом
+ * в заголовке. Метод {@code deserializeIgnored} измеряет пропуск события,
+ * тип которого потребителю не нужен.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaSerdeBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    @Param({"OrderCreatedEvent", "ItemAddedEvent", "OrderConfirmedEvent"})
+    private String eventType;
+
+    @Param({"spring-json", "header"})
+    private String serde;
+
+    private Serializer<OrderEvent> serializer;
+    private Deserializer<OrderEvent> deserializer;
+    private Deserializer<OrderEvent> selectiveDeserializer;
+    private OrderEvent event;
+    private RecordHeaders headers;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        EventTypeRegistry registry = BenchmarkFixtures.eventTypeRegistry();
+        if ("header".equals(serde)) {
+            serializer = new OrderEventSerializer(objectMapper, registry);
+            deserializer = new OrderEventDeserializer(objectMapper, registry);
+            selectiveDeserializer = new OrderEventDeserializer(objectMapper, registry,
+                    Set.of(OrderCreatedEvent.class, OrderConfirmedEvent.class));
+        } else {
+            serializer = new JsonSerializer<>(objectMapper);
+            JsonDeserializer<OrderEvent> jsonDeserializer = new JsonDeserializer<>(objectMapper);
+            jsonDeserializer.configure(Map.of(
+                    JsonDeserializer.TRUSTED_PACKAGES, "org.example.eventsourcing.domain.event",
+                    JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+            deserializer = jsonDeserializer;
+            selectiveDeserializer = jsonDeserializer;
+        }
+        event = BenchmarkFixtures.sampleEvent(eventType, OrderId.generate());
+        headers = new RecordHeaders();
+        encoded = serializer.serialize(TOPIC, headers, event);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public OrderEvent deserialize() {
+        return deserializer.deserialize(TOPIC, headers, encoded);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeIgnored() {
+        return selectiveDeserializer.deserialize(TOPIC, headers, encoded);
+    }
+}
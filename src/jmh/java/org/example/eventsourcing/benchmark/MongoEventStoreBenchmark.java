@@ -0,0 +1,113 @@
+package org.example.eventsourcing.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.EventRepository;
+import org.example.eventsourcing.infrastructure.event.MongoEventStore;
+import org.example.eventsourcing.infrastructure.event.StoredEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Запись и чтение потоков событий через MongoEventStore.
+ * Требует запущенный MongoDB (docker-compose); адрес задается свойством
+ * benchmark.mongo.uri, данные пишутся в отдельную базу и удаляются после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MongoEventStoreBenchmark {
+
+    private static final String DATABASE = "order-service-benchmark";
+
+    @Param({"10", "100", "1000"})
+    private int streamLength;
+
+    @Param({"0", "256"})
+    private int groupCommitBatchSize;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoEventStore eventStore;
+    private OrderId loadedOrderId;
+    private OrderEvent appendedEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(StoredEvent.class);
+        mongoTemplate.indexOps(StoredEvent.class)
+                .ensureIndex(new Index().on("aggregateId", Sort.Direction.ASC).on("version", Sort.Direction.ASC).unique());
+
+        EventRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class);
+        eventStore = new MongoEventStore(repository, BenchmarkFixtures.eventSerializer("smile"),
+                BenchmarkFixtures.eventTypeRegistry(), mongoTemplate, 256,
+                groupCommitBatchSize, Duration.ofMillis(1));
+
+        loadedOrderId = OrderId.generate();
+        List<OrderEvent> stream = BenchmarkFixtures.orderStream(loadedOrderId, streamLength);
+        eventStore.saveEvents(loadedOrderId, 0, stream);
+        appendedEvent = BenchmarkFixtures.sampleEvent("OrderCreatedEvent", OrderId.generate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventStore.close();
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public void saveNewStream() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    /**
+     * Одиночные записи от многих параллельных команд: при групповой фиксации
+     * они сливаются в общие массовые вставки.
+     */
+    @Benchmark
+    @Threads(64)
+    public void saveNewStreamConcurrently() {
+        eventStore.saveEvents(OrderId.generate(), 0, List.of(appendedEvent));
+    }
+
+    @Benchmark
+    public List<OrderEvent> loadStream() {
+        return eventStore.loadEvents(loadedOrderId);
+    }
+
+    @Benchmark
+    public long streamStream() {
+        try (Stream<OrderEvent> events = eventStore.streamEvents(loadedOrderId, 0)) {
+            return events.count();
+        }
+    }
+}
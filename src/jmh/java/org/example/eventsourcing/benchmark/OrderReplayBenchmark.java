@@ -0,0 +1,54 @@
+package org.example.eventsourcing.benchmark;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Восстановление агрегата Order из уже десериализованного потока событий.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderReplayBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int streamLength;
+
+    @Param({"FULL", "STATE_ONLY"})
+    private ReplayMode mode;
+
+    private List<OrderEvent> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkFixtures.orderStream(OrderId.generate(), streamLength);
+    }
+
+    @Benchmark
+    public Order replay() {
+        Order order = new Order(mode);
+        for (OrderEvent event : events) {
+            order.apply(event);
+        }
+        return order;
+    }
+}
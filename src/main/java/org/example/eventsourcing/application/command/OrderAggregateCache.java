@@ -0,0 +1,82 @@
+package org.example.eventsourcing.application.command;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Кэш восстановленных агрегатов заказов в памяти процесса.
+ * Хранит копии заказов вместе с версией, до которой они восстановлены;
+ * наружу всегда отдаются копии, чтобы неудачная команда не портила кэш.
+ */
+@Component
+public class OrderAggregateCache {
+    private final Cache<OrderId, Order> cache; // Заказы по идентификатору
+
+    /**
+     * Создает новый кэш агрегатов.
+     *
+     * @param maximumSize максимальное количество заказов в кэше
+     * @param expireAfterAccess время жизни заказа без обращений
+     * @param meterRegistry реестр метрик
+     */
+    public OrderAggregateCache(@Value("${app.aggregate-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${app.aggregate-cache.expire-after-access:10m}") Duration expireAfterAccess,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderAggregates");
+    }
+
+    /**
+     * Возвращает копию закэшированного заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return копия заказа или пустой Optional при промахе
+     */
+    public Optional<Order> get(OrderId orderId) {
+        return Optional.ofNullable(cache.getIfPresent(orderId))
+                .map(order -> copy(order, order.getVersion()));
+    }
+
+    /**
+     * Сохраняет в кэш копию заказа.
+     *
+     * @param order заказ
+     * @param version версия, до которой восстановлен заказ
+     */
+    public void put(Order order, int version) {
+        cache.put(order.getOrderId(), copy(order, version));
+    }
+
+    /**
+     * Удаляет заказ из кэша.
+     *
+     * @param orderId идентификатор заказа
+     */
+    public void invalidate(OrderId orderId) {
+        cache.invalidate(orderId);
+    }
+
+    /**
+     * Создает копию заказа с указанной версией.
+     *
+     * @param order заказ
+     * @param version версия заказа
+     * @return копия заказа
+     */
+    private Order copy(Order order, int version) {
+        return Order.restore(order.getOrderId(), order.getCustomerId(), order.getLines(), order.isConfirmed(), version);
+    }
+}
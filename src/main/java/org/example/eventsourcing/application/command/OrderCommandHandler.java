@@ -1,13 +1,24 @@
 package org.example.eventsourcing.application.command;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
 import org.example.eventsourcing.domain.event.OrderEvent;
 import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.ConcurrencyException;
 import org.example.eventsourcing.infrastructure.event.EventStore;
-import org.example.eventsourcing.infrastructure.messaging.OrderEventProducer;
+import org.example.eventsourcing.infrastructure.snapshot.SnapshotStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Обработчик команд для управления заказами.
@@ -15,17 +26,45 @@ import java.util.List;
 @Component
 public class OrderCommandHandler {
     private final EventStore eventStore;           // Хранилище событий
-    private final OrderEventProducer eventProducer; // Публикатор событий
+    private final SnapshotStore snapshotStore;     // Хранилище снимков
+    private final OrderAggregateCache aggregateCache; // Кэш восстановленных заказов
+    private final int snapshotFrequency;           // Снимок через каждые N событий
+    private final int maxAttempts;                 // Попыток при конфликте версий
+    private final ReplayMode replayMode;           // Режим восстановления заказов
+    private final MeterProvider<Timer> commandTimer; // Время выполнения команд
+    private final DistributionSummary rehydrationEvents; // Событий, дочитанных при восстановлении
+    private final MeterRegistry meterRegistry;     // Реестр метрик
 
     /**
      * Создает новый обработчик команд.
      *
      * @param eventStore хранилище событий
-     * @param eventProducer публикатор событий
+     * @param snapshotStore хранилище снимков
+     * @param aggregateCache кэш восстановленных заказов
+     * @param snapshotFrequency количество событий между снимками
+     * @param maxAttempts количество попыток выполнения команды при конфликте версий
+     * @param replayMode режим восстановления заказов
+     * @param meterRegistry реестр метрик
      */
-    public OrderCommandHandler(EventStore eventStore, OrderEventProducer eventProducer) {
+    public OrderCommandHandler(EventStore eventStore, SnapshotStore snapshotStore,
+                               OrderAggregateCache aggregateCache,
+                               @Value("${app.snapshot.frequency:50}") int snapshotFrequency,
+                               @Value("${app.command.max-attempts:3}") int maxAttempts,
+                               @Value("${app.aggregate.replay-mode:state-only}") ReplayMode replayMode,
+                               MeterRegistry meterRegistry) {
         this.eventStore = eventStore;
-        this.eventProducer = eventProducer;
+        this.snapshotStore = snapshotStore;
+        this.aggregateCache = aggregateCache;
+        this.snapshotFrequency = snapshotFrequency;
+        this.maxAttempts = maxAttempts;
+        this.replayMode = replayMode;
+        this.meterRegistry = meterRegistry;
+        this.commandTimer = Timer.builder("orders.commands")
+                .description("Время выполнения команды, включая повторы при конфликте версий")
+                .withRegistry(meterRegistry);
+        this.rehydrationEvents = DistributionSummary.builder("orders.rehydration.events")
+                .description("Количество событий, дочитанных из хранилища при восстановлении заказа")
+                .register(meterRegistry);
     }
 
     /**
@@ -35,11 +74,13 @@ public class OrderCommandHandler {
      * @return идентификатор созданного заказа
      */
     public OrderId handle(CreateOrderCommand command) {
-        OrderId orderId = OrderId.generate();
-        Order order = Order.create(orderId, command.getCustomerId());
-        saveEvents(order);
+        return timed(command, () -> {
+            OrderId orderId = OrderId.generate();
+            Order order = Order.create(orderId, command.getCustomerId(), replayMode);
+            saveEvents(order);
 
-        return orderId;
+            return orderId;
+        });
     }
 
     /**
@@ -48,9 +89,7 @@ public class OrderCommandHandler {
      * @param command команда добавления товара
      */
     public void handle(AddProductCommand command) {
-        Order order = loadOrder(command.getOrderId());
-        order.addItem(command.getProduct());
-        saveEvents(order);
+        timed(command, () -> execute(command.getOrderId(), order -> order.addItem(command.getProduct())));
     }
 
     /**
@@ -59,33 +98,103 @@ public class OrderCommandHandler {
      * @param command команда подтверждения заказа
      */
     public void handle(ConfirmOrderCommand command) {
-        Order order = loadOrder(command.getOrderId());
-        order.confirm();
-        saveEvents(order);
+        timed(command, () -> execute(command.getOrderId(), Order::confirm));
     }
 
     /**
-     * Загружает заказ из хранилища событий.
+     * Выполняет команду, измеряя время с тегами типа команды и исхода.
+     *
+     * @param command команда
+     * @param action выполнение команды
+     */
+    private void timed(Object command, Runnable action) {
+        timed(command, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет команду, измеряя время с тегами типа команды и исхода.
+     *
+     * @param command команда
+     * @param action выполнение команды
+     * @return результат команды
+     */
+    private <T> T timed(Object command, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(commandTimer.withTags("command", command.getClass().getSimpleName(), "outcome", outcome));
+        }
+    }
+
+    /**
+     * Выполняет команду над заказом, повторяя ее при конфликте версий.
+     *
+     * @param orderId идентификатор заказа
+     * @param action действие над заказом
+     * @throws ConcurrencyException если конфликт сохраняется после всех попыток
+     */
+    private void execute(OrderId orderId, Consumer<Order> action) {
+        for (int attempt = 1; ; attempt++) {
+            Order order = loadOrder(orderId);
+            action.accept(order);
+            try {
+                saveEvents(order);
+                return;
+            } catch (ConcurrencyException e) {
+                aggregateCache.invalidate(orderId);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Загружает заказ из кэша или из последнего снимка и дочитывает
+     * события, сохраненные после него, применяя их по одному.
      *
      * @param orderId идентификатор заказа
      * @return объект заказа
      */
     private Order loadOrder(OrderId orderId) {
-        List<OrderEvent> events = eventStore.loadEvents(orderId);
-        Order order = new Order();
-        events.forEach(order::apply);
+        Order order = aggregateCache.get(orderId)
+                .or(() -> snapshotStore.loadSnapshot(orderId, replayMode))
+                .orElseGet(() -> new Order(replayMode));
+        int loaded = 0;
+        try (Stream<OrderEvent> events = eventStore.streamEvents(orderId, order.getVersion())) {
+            Iterator<OrderEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                order.apply(iterator.next());
+                loaded++;
+            }
+        }
+        rehydrationEvents.record(loaded);
 
         return order;
     }
 
     /**
-     * Сохраняет события заказа и публикует их.
+     * Сохраняет события заказа и при необходимости делает снимок.
+     * Публикация в Kafka выполняется асинхронно из исходящего буфера хранилища.
      *
      * @param order объект заказа
      */
     private void saveEvents(Order order) {
+        int previousVersion = order.getVersion();
         List<OrderEvent> events = order.getUncommittedEvents();
-        eventStore.saveEvents(order.getOrderId(), events);
-        events.forEach(event -> eventProducer.publish(order.getOrderId(), event));
+        eventStore.saveEvents(order.getOrderId(), previousVersion, events);
+
+        int version = previousVersion + events.size();
+        aggregateCache.put(order, version);
+        if (snapshotFrequency > 0 && version / snapshotFrequency > previousVersion / snapshotFrequency) {
+            snapshotStore.saveSnapshot(order, version);
+        }
     }
 }
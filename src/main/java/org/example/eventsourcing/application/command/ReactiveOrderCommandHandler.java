@@ -0,0 +1,152 @@
+package org.example.eventsourcing.application.command;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.ConcurrencyException;
+import org.example.eventsourcing.infrastructure.event.ReactiveEventStore;
+import org.example.eventsourcing.infrastructure.snapshot.SnapshotStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Неблокирующий обработчик команд для управления заказами.
+ * Повторяет логику {@link OrderCommandHandler}: кэш заказов, снимки,
+ * дочитывание событий и повтор команды при конфликте версий.
+ * Снимки редки и читаются блокирующим хранилищем на отдельном планировщике,
+ * чтобы не занимать потоки цикла событий.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveOrderCommandHandler {
+    private final ReactiveEventStore eventStore;     // Неблокирующее хранилище событий
+    private final SnapshotStore snapshotStore;       // Хранилище снимков
+    private final OrderAggregateCache aggregateCache; // Кэш восстановленных заказов
+    private final int snapshotFrequency;             // Снимок через каждые N событий
+    private final int maxAttempts;                   // Попыток при конфликте версий
+    private final ReplayMode replayMode;             // Режим восстановления заказов
+
+    /**
+     * Создает новый неблокирующий обработчик команд.
+     *
+     * @param eventStore неблокирующее хранилище событий
+     * @param snapshotStore хранилище снимков
+     * @param aggregateCache кэш восстановленных заказов
+     * @param snapshotFrequency количество событий между снимками
+     * @param maxAttempts количество попыток выполнения команды при конфликте версий
+     * @param replayMode режим восстановления заказов
+     */
+    public ReactiveOrderCommandHandler(ReactiveEventStore eventStore, SnapshotStore snapshotStore,
+                                       OrderAggregateCache aggregateCache,
+                                       @Value("${app.snapshot.frequency:50}") int snapshotFrequency,
+                                       @Value("${app.command.max-attempts:3}") int maxAttempts,
+                                       @Value("${app.aggregate.replay-mode:state-only}") ReplayMode replayMode) {
+        this.eventStore = eventStore;
+        this.snapshotStore = snapshotStore;
+        this.aggregateCache = aggregateCache;
+        this.snapshotFrequency = snapshotFrequency;
+        this.maxAttempts = maxAttempts;
+        this.replayMode = replayMode;
+    }
+
+    /**
+     * Обрабатывает команду создания заказа.
+     *
+     * @param command команда создания заказа
+     * @return идентификатор созданного заказа
+     */
+    public Mono<OrderId> handle(CreateOrderCommand command) {
+        return Mono.defer(() -> {
+            OrderId orderId = OrderId.generate();
+            Order order = Order.create(orderId, command.getCustomerId(), replayMode);
+            return saveEvents(order).thenReturn(orderId);
+        });
+    }
+
+    /**
+     * Обрабатывает команду добавления товара.
+     *
+     * @param command команда добавления товара
+     * @return завершение команды
+     */
+    public Mono<Void> handle(AddProductCommand command) {
+        return execute(command.getOrderId(), order -> order.addItem(command.getProduct()));
+    }
+
+    /**
+     * Обрабатывает команду подтверждения заказа.
+     *
+     * @param command команда подтверждения заказа
+     * @return завершение команды
+     */
+    public Mono<Void> handle(ConfirmOrderCommand command) {
+        return execute(command.getOrderId(), Order::confirm);
+    }
+
+    /**
+     * Выполняет команду над заказом, повторяя ее при конфликте версий.
+     *
+     * @param orderId идентификатор заказа
+     * @param action действие над заказом
+     * @return завершение команды или {@link ConcurrencyException}, если конфликт сохраняется после всех попыток
+     */
+    private Mono<Void> execute(OrderId orderId, Consumer<Order> action) {
+        return loadOrder(orderId)
+                .flatMap(order -> {
+                    action.accept(order);
+                    return saveEvents(order);
+                })
+                .doOnError(ConcurrencyException.class, e -> aggregateCache.invalidate(orderId))
+                .retryWhen(Retry.max(maxAttempts - 1L)
+                        .filter(ConcurrencyException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Загружает заказ из кэша или из последнего снимка и дочитывает
+     * события, сохраненные после него.
+     *
+     * @param orderId идентификатор заказа
+     * @return объект заказа
+     */
+    private Mono<Order> loadOrder(OrderId orderId) {
+        return Mono.defer(() -> Mono.justOrEmpty(aggregateCache.get(orderId)))
+                .switchIfEmpty(Mono.fromCallable(() -> snapshotStore.loadSnapshot(orderId, replayMode))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(Mono::justOrEmpty))
+                .switchIfEmpty(Mono.fromSupplier(() -> new Order(replayMode)))
+                .flatMap(order -> eventStore.loadEvents(orderId, order.getVersion())
+                        .doOnNext(order::apply)
+                        .then(Mono.just(order)));
+    }
+
+    /**
+     * Сохраняет события заказа и при необходимости делает снимок.
+     *
+     * @param order объект заказа
+     * @return завершение записи
+     */
+    private Mono<Void> saveEvents(Order order) {
+        int previousVersion = order.getVersion();
+        List<OrderEvent> events = order.getUncommittedEvents();
+        int version = previousVersion + events.size();
+        return eventStore.saveEvents(order.getOrderId(), previousVersion, events)
+                .then(Mono.defer(() -> {
+                    aggregateCache.put(order, version);
+                    if (snapshotFrequency > 0 && version / snapshotFrequency > previousVersion / snapshotFrequency) {
+                        return Mono.fromRunnable(() -> snapshotStore.saveSnapshot(order, version))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then();
+                    }
+                    return Mono.empty();
+                }));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.dto.CustomerOrdersResponse;
+import org.example.eventsourcing.application.mapper.OrderMapper;
+import org.example.eventsourcing.application.query.CustomerOrderRepository;
+import org.example.eventsourcing.application.query.CustomerOrderRepository.Page;
+import org.example.eventsourcing.application.query.OrderViewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для получения заказов клиента.
+ */
+@RestController
+@RequestMapping("/customers")
+@Profile("!reactive")
+public class CustomerController {
+    private final CustomerOrderRepository customerOrderRepository; // Индекс заказов клиента
+    private final OrderViewRepository viewRepository;              // Репозиторий проекций
+    private final OrderMapper orderMapper;                         // Маппер
+    private final int maxPageSize;                                 // Максимальный размер страницы
+
+    /**
+     * Создает новый REST-контроллер заказов клиента.
+     *
+     * @param customerOrderRepository индекс заказов клиента
+     * @param viewRepository репозиторий проекций
+     * @param orderMapper маппер
+     * @param maxPageSize максимальный размер страницы
+     */
+    public CustomerController(CustomerOrderRepository customerOrderRepository, OrderViewRepository viewRepository, OrderMapper orderMapper,
+                              @Value("${app.customers.max-page-size:100}") int maxPageSize) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.viewRepository = viewRepository;
+        this.orderMapper = orderMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Получает страницу заказов клиента, начиная с самых новых.
+     *
+     * @param customerId идентификатор клиента
+     * @param page номер страницы, начиная с нуля
+     * @param size размер страницы
+     * @param confirmed только подтвержденные заказы
+     * @return страница заказов или 400 при некорректных параметрах страницы
+     */
+    @GetMapping("/{customerId}/orders")
+    public ResponseEntity<CustomerOrdersResponse> getOrders(@PathVariable String customerId,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam(defaultValue = "false") boolean confirmed) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Page orderPage = customerOrderRepository.findPage(customerId, confirmed, page, size);
+        CustomerOrdersResponse response = new CustomerOrdersResponse();
+        response.setCustomerId(customerId);
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotal(orderPage.total());
+        response.setOrders(viewRepository.findAllById(orderPage.orderIds()).values().stream()
+                .map(orderMapper::toResponse)
+                .toList());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -12,14 +12,19 @@ import org.example.eventsourcing.application.mapper.OrderMapper;
 import org.example.eventsourcing.application.query.OrderViewRepository;
 import org.example.eventsourcing.domain.model.OrderId;
 import org.example.eventsourcing.domain.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,10 +32,12 @@ import java.util.Optional;
  */
 @RestController
 @RequestMapping("/orders")
+@Profile("!reactive")
 public class OrderController {
     private final OrderCommandHandler commandHandler;  // Обработчик команд
     private final OrderViewRepository viewRepository; // Репозиторий проекций
     private final OrderMapper orderMapper;            // Маппер
+    private final int maxBatchIds;                    // Максимум заказов в одном запросе
 
     /**
      * Создает новый REST-контроллер.
@@ -38,11 +45,14 @@ public class OrderController {
      * @param commandHandler обработчик команд
      * @param viewRepository репозиторий проекций
      * @param orderMapper маппер
+     * @param maxBatchIds максимум заказов в одном запросе
      */
-    public OrderController(OrderCommandHandler commandHandler, OrderViewRepository viewRepository, OrderMapper orderMapper) {
+    public OrderController(OrderCommandHandler commandHandler, OrderViewRepository viewRepository, OrderMapper orderMapper,
+                           @Value("${app.orders.max-batch-ids:100}") int maxBatchIds) {
         this.commandHandler = commandHandler;
         this.viewRepository = viewRepository;
         this.orderMapper = orderMapper;
+        this.maxBatchIds = maxBatchIds;
     }
 
     /**
@@ -100,4 +110,37 @@ public class OrderController {
         return response.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    /**
+     * Получает информацию о нескольких заказах за один запрос.
+     * Ненайденные заказы в ответ не попадают.
+     *
+     * @param ids идентификаторы заказов
+     * @return найденные заказы в порядке запроса или 400, если идентификаторов слишком много,
+     *         среди них есть пустые или повторяющиеся
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<OrderResponse>> getOrders(@RequestParam List<String> ids) {
+        if (!isValidBatch(ids, maxBatchIds)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<OrderResponse> responses = viewRepository.findAllById(ids).values().stream()
+                .map(orderMapper::toResponse)
+                .toList();
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Проверяет идентификаторы пакетного запроса заказов.
+     *
+     * @param ids идентификаторы заказов
+     * @param maxBatchIds максимум заказов в одном запросе
+     * @return true, если идентификаторов не больше максимума и среди них нет пустых и повторяющихся
+     */
+    static boolean isValidBatch(List<String> ids, int maxBatchIds) {
+        return ids.size() <= maxBatchIds
+                && ids.stream().noneMatch(String::isBlank)
+                && new HashSet<>(ids).size() == ids.size();
+    }
 }
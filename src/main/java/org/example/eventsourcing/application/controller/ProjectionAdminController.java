@@ -0,0 +1,74 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.query.OrderProjectionHandler;
+import org.example.eventsourcing.application.query.ProjectionRebuilder;
+import org.example.eventsourcing.application.query.ProjectionRebuilder.RebuildResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для административных операций над проекциями.
+ */
+@RestController
+@RequestMapping("/admin/projections")
+public class ProjectionAdminController {
+    private final ProjectionRebuilder rebuilder; // Механизм перестройки проекций
+    private final OrderProjectionHandler projectionHandler; // Обработчик проекций
+
+    /**
+     * Создает новый административный контроллер.
+     *
+     * @param rebuilder механизм перестройки проекций
+     * @param projectionHandler обработчик проекций
+     */
+    public ProjectionAdminController(ProjectionRebuilder rebuilder, OrderProjectionHandler projectionHandler) {
+        this.rebuilder = rebuilder;
+        this.projectionHandler = projectionHandler;
+    }
+
+    /**
+     * Запускает перестройку проекций.
+     *
+     * @return 202, если перестройка запущена, или 409, если она уже выполняется
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        try {
+            rebuilder.rebuildAsync();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Получает результат последней перестройки проекций.
+     *
+     * @return результат, 202, если перестройка выполняется, или 404, если она не выполнялась
+     */
+    @GetMapping("/rebuild")
+    public ResponseEntity<RebuildResult> getRebuildStatus() {
+        if (rebuilder.isRunning()) {
+            return ResponseEntity.accepted().build();
+        }
+        return rebuilder.getLastResult()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Удаляет устаревшие ключи идемпотентности событий, замененные версиями проекций.
+     *
+     * @return количество удаленных ключей
+     */
+    @DeleteMapping("/legacy-event-keys")
+    public ResponseEntity<Long> deleteLegacyEventKeys() {
+        return ResponseEntity.ok(projectionHandler.deleteLegacyKeys());
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.dto.CustomerOrdersResponse;
+import org.example.eventsourcing.application.mapper.OrderMapper;
+import org.example.eventsourcing.application.query.CustomerOrderRepository;
+import org.example.eventsourcing.application.query.ReactiveOrderViewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Неблокирующий REST-контроллер для получения заказов клиента на WebFlux.
+ * Повторяет API {@link CustomerController}; чтение индекса выполняется
+ * на пуле для блокирующих операций.
+ */
+@RestController
+@RequestMapping("/customers")
+@Profile("reactive")
+public class ReactiveCustomerController {
+    private final CustomerOrderRepository customerOrderRepository; // Индекс заказов клиента
+    private final ReactiveOrderViewRepository viewRepository;      // Репозиторий проекций
+    private final OrderMapper orderMapper;                         // Маппер
+    private final int maxPageSize;                                 // Максимальный размер страницы
+
+    /**
+     * Создает новый неблокирующий REST-контроллер заказов клиента.
+     *
+     * @param customerOrderRepository индекс заказов клиента
+     * @param viewRepository репозиторий проекций
+     * @param orderMapper маппер
+     * @param maxPageSize максимальный размер страницы
+     */
+    public ReactiveCustomerController(CustomerOrderRepository customerOrderRepository, ReactiveOrderViewRepository viewRepository,
+                                      OrderMapper orderMapper, @Value("${app.customers.max-page-size:100}") int maxPageSize) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.viewRepository = viewRepository;
+        this.orderMapper = orderMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Получает страницу заказов клиента, начиная с самых новых.
+     *
+     * @param customerId идентификатор клиента
+     * @param page номер страницы, начиная с нуля
+     * @param size размер страницы
+     * @param confirmed только подтвержденные заказы
+     * @return страница заказов или 400 при некорректных параметрах страницы
+     */
+    @GetMapping("/{customerId}/orders")
+    public Mono<ResponseEntity<CustomerOrdersResponse>> getOrders(@PathVariable String customerId,
+                                                                  @RequestParam(defaultValue = "0") int page,
+                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(defaultValue = "false") boolean confirmed) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return Mono.fromCallable(() -> customerOrderRepository.findPage(customerId, confirmed, page, size))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(orderPage -> viewRepository.findAllById(orderPage.orderIds())
+                        .map(orderMapper::toResponse)
+                        .collectList()
+                        .map(orders -> {
+                            CustomerOrdersResponse response = new CustomerOrdersResponse();
+                            response.setCustomerId(customerId);
+                            response.setPage(page);
+                            response.setSize(size);
+                            response.setTotal(orderPage.total());
+                            response.setOrders(orders);
+                            return ResponseEntity.ok(response);
+                        }));
+    }
+}
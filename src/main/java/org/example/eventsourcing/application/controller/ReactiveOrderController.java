@@ -0,0 +1,129 @@
+package org.example.eventsourcing.application.controller;
+
+import jakarta.validation.Valid;
+import org.example.eventsourcing.application.command.AddProductCommand;
+import org.example.eventsourcing.application.command.ConfirmOrderCommand;
+import org.example.eventsourcing.application.command.CreateOrderCommand;
+import org.example.eventsourcing.application.command.ReactiveOrderCommandHandler;
+import org.example.eventsourcing.application.dto.AddItemRequest;
+import org.example.eventsourcing.application.dto.CreateOrderRequest;
+import org.example.eventsourcing.application.dto.OrderResponse;
+import org.example.eventsourcing.application.mapper.OrderMapper;
+import org.example.eventsourcing.application.query.ReactiveOrderViewRepository;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Неблокирующий REST-контроллер для управления заказами на WebFlux.
+ * Повторяет API {@link OrderController}.
+ */
+@RestController
+@RequestMapping("/orders")
+@Profile("reactive")
+public class ReactiveOrderController {
+    private final ReactiveOrderCommandHandler commandHandler;  // Обработчик команд
+    private final ReactiveOrderViewRepository viewRepository; // Репозиторий проекций
+    private final OrderMapper orderMapper;                    // Маппер
+    private final int maxBatchIds;                            // Максимум заказов в одном запросе
+
+    /**
+     * Создает новый неблокирующий REST-контроллер.
+     *
+     * @param commandHandler обработчик команд
+     * @param viewRepository репозиторий проекций
+     * @param orderMapper маппер
+     * @param maxBatchIds максимум заказов в одном запросе
+     */
+    public ReactiveOrderController(ReactiveOrderCommandHandler commandHandler, ReactiveOrderViewRepository viewRepository, OrderMapper orderMapper,
+                                   @Value("${app.orders.max-batch-ids:100}") int maxBatchIds) {
+        this.commandHandler = commandHandler;
+        this.viewRepository = viewRepository;
+        this.orderMapper = orderMapper;
+        this.maxBatchIds = maxBatchIds;
+    }
+
+    /**
+     * Создает новый заказ.
+     *
+     * @param request запрос на создание заказа
+     * @return идентификатор созданного заказа
+     */
+    @PostMapping
+    public Mono<ResponseEntity<String>> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+        return commandHandler.handle(new CreateOrderCommand(request.getCustomerId()))
+                .map(orderId -> ResponseEntity.ok(orderId.getValue()));
+    }
+
+    /**
+     * Добавляет товар в заказ.
+     *
+     * @param orderId идентификатор заказа
+     * @param request запрос на добавление товара
+     * @return пустой ответ
+     */
+    @PostMapping("/{orderId}/items")
+    public Mono<ResponseEntity<Void>> addItem(@PathVariable String orderId, @Valid @RequestBody AddItemRequest request) {
+        Product item = new Product(request.getProductId(), request.getName(), request.getPrice(), request.getQuantity());
+        return commandHandler.handle(new AddProductCommand(new OrderId(orderId), item))
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    /**
+     * Подтверждает заказ.
+     *
+     * @param orderId идентификатор заказа
+     * @return пустой ответ
+     */
+    @PostMapping("/{orderId}/confirm")
+    public Mono<ResponseEntity<Void>> confirmOrder(@PathVariable String orderId) {
+        return commandHandler.handle(new ConfirmOrderCommand(new OrderId(orderId)))
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    /**
+     * Получает информацию о заказе.
+     *
+     * @param orderId идентификатор заказа
+     * @return информация о заказе или 404, если заказ не найден
+     */
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<OrderResponse>> getOrder(@PathVariable String orderId) {
+        return viewRepository.findById(orderId)
+                .map(orderMapper::toResponse)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Получает информацию о нескольких заказах за один запрос.
+     * Ненайденные заказы в ответ не попадают.
+     *
+     * @param ids идентификаторы заказов
+     * @return найденные заказы в порядке запроса или 400, если идентификаторов слишком много,
+     *         среди них есть пустые или повторяющиеся
+     */
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<List<OrderResponse>>> getOrders(@RequestParam List<String> ids) {
+        if (!OrderController.isValidBatch(ids, maxBatchIds)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return viewRepository.findAllById(ids)
+                .map(orderMapper::toResponse)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+}
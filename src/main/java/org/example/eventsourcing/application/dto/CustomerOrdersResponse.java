@@ -0,0 +1,17 @@
+package org.example.eventsourcing.application.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO для ответа со страницей заказов клиента.
+ */
+@Data
+public class CustomerOrdersResponse {
+    private String customerId;          // Идентификатор клиента
+    private int page;                   // Номер страницы
+    private int size;                   // Размер страницы
+    private long total;                 // Общее количество заказов
+    private List<OrderResponse> orders; // Заказы страницы, начиная с самых новых
+}
@@ -0,0 +1,97 @@
+package org.example.eventsourcing.application.query;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.eventsourcing.application.query.CustomerOrderRepository.CustomerOrder;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Обработчик проекции заказов клиента.
+ * <p>
+ * Читает тот же топик, что и {@link OrderProjectionHandler}, в отдельной группе
+ * потребителей и поддерживает {@link CustomerOrderRepository}. Записи индекса
+ * идемпотентны, поэтому повторная доставка событий не требует отметок обработки.
+ */
+@Component
+public class CustomerOrderProjectionHandler {
+
+    public static final String LISTENER_ID = "customerOrderProjection"; // Идентификатор слушателя Kafka
+    private final CustomerOrderRepository repository; // Индекс заказов клиента
+    private final ProjectionMetrics metrics;          // Метрики проекций
+
+    /**
+     * Создает новый обработчик проекции заказов клиента.
+     *
+     * @param repository индекс заказов клиента
+     * @param metrics метрики проекций
+     */
+    public CustomerOrderProjectionHandler(CustomerOrderRepository repository, ProjectionMetrics metrics) {
+        this.repository = repository;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Обрабатывает пакет событий из Kafka.
+     * Потребитель разбирает только события создания и подтверждения заказа,
+     * остальные записи приходят без события и пропускаются.
+     *
+     * @param records записи Kafka с событиями
+     */
+    @KafkaListener(id = LISTENER_ID, topics = "${app.kafka.topic}", groupId = "${app.projection.customer-orders.group-id:order-service-customer-orders}",
+            containerFactory = "customerOrderListenerContainerFactory")
+    public void handle(List<ConsumerRecord<String, OrderEvent>> records) {
+        Timer.Sample sample = metrics.start();
+        List<OrderEvent> events = new ArrayList<>(records.size());
+        records.forEach(record -> {
+            if (record.value() != null) {
+                events.add(record.value());
+            }
+        });
+        index(events);
+        metrics.record("customer-order", sample, events);
+    }
+
+    /**
+     * Добавляет созданные и подтвержденные заказы пакета в индекс.
+     * Владельцы подтвержденных заказов, созданных в предыдущих пакетах,
+     * читаются одним конвейерным запросом; весь пакет записывается другим.
+     *
+     * @param events список событий
+     */
+    private void index(List<OrderEvent> events) {
+        Map<String, CustomerOrder> created = new HashMap<>();
+        List<String> confirmedIds = new ArrayList<>();
+        for (OrderEvent event : events) {
+            if (event instanceof OrderCreatedEvent createdEvent) {
+                String orderId = createdEvent.getOrderId().getValue();
+                created.put(orderId, new CustomerOrder(orderId, createdEvent.getCustomerId(), createdEvent.getTimestamp().toEpochMilli()));
+            } else if (event instanceof OrderConfirmedEvent) {
+                confirmedIds.add(event.getOrderId().getValue());
+            }
+        }
+        if (created.isEmpty() && confirmedIds.isEmpty()) {
+            return;
+        }
+
+        List<String> unknownIds = confirmedIds.stream().filter(orderId -> !created.containsKey(orderId)).toList();
+        Map<String, CustomerOrder> known = unknownIds.isEmpty() ? Map.of() : repository.findByOrderIds(unknownIds);
+        List<CustomerOrder> confirmed = new ArrayList<>(confirmedIds.size());
+        confirmedIds.forEach(orderId -> {
+            CustomerOrder order = created.getOrDefault(orderId, known.get(orderId));
+            if (order != null) {
+                confirmed.add(order);
+            }
+        });
+
+        repository.save(created.values(), confirmed);
+    }
+}
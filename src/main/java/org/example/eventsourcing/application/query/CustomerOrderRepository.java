@@ -0,0 +1,142 @@
+package org.example.eventsourcing.application.query;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Индекс заказов клиента в Redis.
+ * <p>
+ * Заказы клиента хранятся в сортированных множествах {@code customer:<id>:orders}
+ * и {@code customer:<id>:orders:confirmed} с временем создания заказа в качестве
+ * веса, поэтому страница заказов читается за O(log n + размер страницы).
+ * Владелец и время создания каждого заказа хранятся в хэше {@code order-customer:<orderId>},
+ * чтобы событие подтверждения без идентификатора клиента можно было отнести к индексу.
+ * Все операции записи идемпотентны. Значения пишутся и читаются строками UTF-8,
+ * без сериализатора значений шаблона.
+ */
+@Component
+public class CustomerOrderRepository {
+    private static final String PREFIX = "customer:";             // Префикс ключа индекса клиента
+    private static final String ORDERS_SUFFIX = ":orders";        // Суффикс индекса всех заказов
+    private static final String CONFIRMED_SUFFIX = ":orders:confirmed"; // Суффикс индекса подтвержденных заказов
+    private static final String OWNER_PREFIX = "order-customer:"; // Префикс ключа владельца заказа
+    private final RedisTemplate<String, String> redisTemplate;    // Клиент Redis
+
+    /**
+     * Создает новый репозиторий индекса заказов клиента.
+     *
+     * @param redisTemplate клиент Redis
+     */
+    public CustomerOrderRepository(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Добавляет заказы в индексы одним конвейерным запросом.
+     *
+     * @param created созданные заказы
+     * @param confirmed подтвержденные заказы
+     */
+    public void save(Collection<CustomerOrder> created, Collection<CustomerOrder> confirmed) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            created.forEach(order -> {
+                byte[] owner = serialize(OWNER_PREFIX + order.orderId());
+                connection.hashCommands().hSet(owner, serialize("customerId"), serialize(order.customerId()));
+                connection.hashCommands().hSet(owner, serialize("createdAt"), serialize(String.valueOf(order.createdAt())));
+                connection.zSetCommands().zAdd(serialize(PREFIX + order.customerId() + ORDERS_SUFFIX),
+                        order.createdAt(), serialize(order.orderId()));
+            });
+            confirmed.forEach(order -> connection.zSetCommands().zAdd(
+                    serialize(PREFIX + order.customerId() + CONFIRMED_SUFFIX), order.createdAt(), serialize(order.orderId())));
+            return null;
+        });
+    }
+
+    /**
+     * Находит владельцев и время создания заказов одним конвейерным запросом.
+     *
+     * @param orderIds идентификаторы заказов
+     * @return найденные заказы по идентификатору
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, CustomerOrder> findByOrderIds(Collection<String> orderIds) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            orderIds.forEach(orderId -> connection.hashCommands().hMGet(serialize(OWNER_PREFIX + orderId),
+                    serialize("customerId"), serialize("createdAt")));
+            return null;
+        }, RedisSerializer.string());
+
+        Map<String, CustomerOrder> orders = new HashMap<>();
+        Iterator<Object> result = results.iterator();
+        for (String orderId : orderIds) {
+            List<Object> fields = (List<Object>) result.next();
+            if (fields != null && fields.get(0) != null && fields.get(1) != null) {
+                orders.put(orderId, new CustomerOrder(orderId, (String) fields.get(0), Long.parseLong((String) fields.get(1))));
+            }
+        }
+
+        return orders;
+    }
+
+    /**
+     * Находит страницу заказов клиента, начиная с самых новых, вместе с их общим количеством.
+     *
+     * @param customerId идентификатор клиента
+     * @param confirmedOnly только подтвержденные заказы
+     * @param page номер страницы, начиная с нуля
+     * @param size размер страницы
+     * @return страница идентификаторов заказов
+     */
+    @SuppressWarnings("unchecked")
+    public Page findPage(String customerId, boolean confirmedOnly, int page, int size) {
+        byte[] key = serialize(PREFIX + customerId + (confirmedOnly ? CONFIRMED_SUFFIX : ORDERS_SUFFIX));
+        long start = (long) page * size;
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zCard(key);
+            connection.zSetCommands().zRevRange(key, start, start + size - 1);
+            return null;
+        }, RedisSerializer.string());
+
+        return new Page(new ArrayList<>((Set<String>) results.get(1)), (Long) results.get(0));
+    }
+
+    /**
+     * Сериализует строку в байты для команд Redis.
+     *
+     * @param value строка
+     * @return байты в UTF-8
+     */
+    private static byte[] serialize(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+
+    /**
+     * Заказ клиента в индексе.
+     *
+     * @param orderId идентификатор заказа
+     * @param customerId идентификатор клиента
+     * @param createdAt время создания заказа в миллисекундах
+     */
+    public record CustomerOrder(String orderId, String customerId, long createdAt) {
+    }
+
+    /**
+     * Страница заказов клиента.
+     *
+     * @param orderIds идентификаторы заказов, начиная с самых новых
+     * @param total общее количество заказов в индексе
+     */
+    public record Page(List<String> orderIds, long total) {
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.eventsourcing.application.query;
+
+import org.example.eventsourcing.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Компактное строковое представление товара заказа для списка товаров в Redis.
+ * <p>
+ * Запись начинается с маркера формата U+001E, за которым идут поля
+ * productId, quantity, price, name. Каждое поле записывается как длина,
+ * двоеточие и текст поля, а отсутствующее значение — символом '~', поэтому
+ * поля могут содержать любые символы, а null отличается от пустой строки.
+ * Декодирование разбирает строку без JSON и промежуточных коллекций.
+ */
+final class OrderItemCodec {
+    private static final char MARKER = '\u001E';           // Маркер формата с длинами полей
+    private static final char NULL = '~';                   // Отсутствующее значение поля
+    private static final char LENGTH_END = ':';             // Конец длины поля
+
+    /**
+     * Закрытый конструктор утилитного класса.
+     */
+    private OrderItemCodec() {
+    }
+
+    /**
+     * Кодирует товар.
+     *
+     * @param product товар
+     * @return строковое представление
+     */
+    static String encode(Product product) {
+        StringBuilder builder = new StringBuilder(64).append(MARKER);
+        appendField(builder, product.getProductId());
+        appendField(builder, Integer.toString(product.getQuantity()));
+        appendField(builder, product.getPrice() != null ? product.getPrice().toPlainString() : null);
+        appendField(builder, product.getName());
+
+        return builder.toString();
+    }
+
+    /**
+     * Декодирует товар.
+     *
+     * @param value строковое представление
+     * @return товар
+     * @throws IllegalArgumentException если запись повреждена
+     */
+    static Product decode(String value) {
+        if (value.isEmpty() || value.charAt(0) != MARKER) {
+            throw new IllegalArgumentException("Некорректная запись товара: " + value);
+        }
+        try {
+            FieldReader reader = new FieldReader(value);
+            String productId = reader.next();
+            String quantity = reader.next();
+            String price = reader.next();
+            String name = reader.next();
+            if (quantity == null || reader.hasRemaining()) {
+                throw new IllegalArgumentException("Некорректная запись товара: " + value);
+            }
+            return new Product(productId, name, price != null ? new BigDecimal(price) : null, Integer.parseInt(quantity));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректная запись товара: " + value, e);
+        }
+    }
+
+    /**
+     * Кодирует товары.
+     *
+     * @param products товары
+     * @return строковые представления
+     */
+    static List<String> encodeAll(List<Product> products) {
+        List<String> values = new ArrayList<>(products.size());
+        products.forEach(product -> values.add(encode(product)));
+        return values;
+    }
+
+    /**
+     * Декодирует товары.
+     *
+     * @param values строковые представления
+     * @return товары
+     */
+    static List<Product> decodeAll(List<?> values) {
+        List<Product> products = new ArrayList<>(values.size());
+        values.forEach(value -> products.add(decode((String) value)));
+        return products;
+    }
+
+    /**
+     * Дописывает поле: длину и текст или маркер отсутствующего значения.
+     *
+     * @param builder построитель строки
+     * @param field значение поля или null
+     */
+    private static void appendField(StringBuilder builder, String field) {
+        if (field == null) {
+            builder.append(NULL);
+        } else {
+            builder.append(field.length()).append(LENGTH_END).append(field);
+        }
+    }
+
+    /**
+     * Последовательное чтение полей записи после маркера формата.
+     */
+    private static final class FieldReader {
+        private final String value; // Строковое представление
+        private int position = 1;   // Позиция следующего поля
+
+        /**
+         * Создает чтение полей записи.
+         *
+         * @param value строковое представление
+         */
+        FieldReader(String value) {
+            this.value = value;
+        }
+
+        /**
+         * Читает следующее поле.
+         *
+         * @return значение поля или null
+         * @throws IndexOutOfBoundsException если запись обрывается
+         * @throws NumberFormatException если длина поля повреждена
+         */
+        String next() {
+            if (value.charAt(position) == NULL) {
+                position++;
+                return null;
+            }
+            int lengthEnd = value.indexOf(LENGTH_END, position);
+            if (lengthEnd < 0) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            int length = Integer.parseInt(value, position, lengthEnd, 10);
+            int start = lengthEnd + 1;
+            if (length < 0 || length > value.length() - start) {
+                throw new IndexOutOfBoundsException(start + length);
+            }
+            position = start + length;
+            return value.substring(start, position);
+        }
+
+        /**
+         * Проверяет, остались ли непрочитанные символы.
+         *
+         * @return true, если запись длиннее прочитанных полей
+         */
+        boolean hasRemaining() {
+            return position < value.length();
+        }
+    }
+}
@@ -1,52 +1,403 @@
 package org.example.eventsourcing.application.query;
 
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.EventStore;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+/**
+ * Обработчик проекций заказов из Kafka.
+ * <p>
+ * Идемпотентность обеспечивается версией последнего примененного события,
+ * которая хранится в хэше проекции и продвигается атомарно вместе с ее
+ * обновлением: повторно доставленные события с версией не больше сохраненной
+ * пропускаются. Версия события передается в заголовке записи Kafka.
+ * Если версия события больше следующей за сохраненной, предыдущие события
+ * заказа еще не применены: тогда события заказа после сохраненной версии
+ * читаются из хранилища событий, а не применяются с пропуском.
+ */
+@Slf4j
 @Component
 public class OrderProjectionHandler {
 
-    private static final String EVENT_PREFIX = "event:"; // Префикс для идемпотентности
+    public static final String LISTENER_ID = "orderProjection"; // Идентификатор слушателя Kafka
+    static final String LEGACY_EVENT_PREFIX = "event:";  // Префикс устаревших ключей идемпотентности
+    private static final int LEGACY_SCAN_BATCH = 1000;   // Ключей за один шаг SCAN при удалении
+    private static final int MAX_ATTEMPTS = 3;           // Попыток записи при изменении версии проекции
     private final OrderViewRepository repository;       // Репозиторий проекций
+    private final EventStore eventStore;                 // Хранилище событий для восполнения пропусков
     private final EventHandlerRegistry handlerRegistry;  // Реестр обработчиков
     private final RedisTemplate<String, String> redisTemplate; // Клиент Redis
+    private final OrderViewCache viewCache;              // Ближний кэш проекций
+    private final ProjectionMetrics metrics;             // Метрики проекций
+    private final int lanes;                             // Количество параллельных дорожек
+    private final Executor laneExecutor;                 // Исполнитель дорожек
 
     /**
      * Создает новый обработчик проекций.
      * @param repository репозиторий проекций
+     * @param eventStore хранилище событий для восполнения пропусков версий
      * @param handlerRegistry реестр обработчиков
      * @param redisTemplate клиент Redis
+     * @param viewCache ближний кэш проекций
+     * @param metrics метрики проекций
+     * @param lanes количество параллельных дорожек обработки пакета
+     * @param environment окружение приложения
      */
-    public OrderProjectionHandler(OrderViewRepository repository, EventHandlerRegistry handlerRegistry, RedisTemplate<String, String> redisTemplate) {
+    public OrderProjectionHandler(OrderViewRepository repository, EventStore eventStore, EventHandlerRegistry handlerRegistry,
+                                  RedisTemplate<String, String> redisTemplate, OrderViewCache viewCache, ProjectionMetrics metrics,
+                                  @Value("${app.projection.consumer.lanes:1}") int lanes, Environment environment) {
         this.repository = repository;
+        this.eventStore = eventStore;
         this.handlerRegistry = handlerRegistry;
         this.redisTemplate = redisTemplate;
+        this.viewCache = viewCache;
+        this.metrics = metrics;
+        this.lanes = Math.max(lanes, 1);
+        this.laneExecutor = this.lanes > 1 ? laneExecutor(this.lanes, environment) : null;
     }
 
     /**
      * Обрабатывает пакет событий из Kafka.
+     * События группируются по заказу, а проекции (без товаров — новые товары
+     * только дописываются) читаются конвейерным запросом на весь пакет.
+     * Затем заказы распределяются по дорожкам по хэшу идентификатора:
+     * дорожки применяют события и записывают проекции параллельно, а события
+     * одного заказа всегда обрабатываются одной дорожкой в исходном порядке.
+     * Метод возвращает управление только после завершения всех дорожек,
+     * поэтому смещения фиксируются лишь для полностью обработанного пакета.
      *
-     * @param events список событий
+     * @param records записи Kafka с событиями; записи неизвестных типов приходят без события
      */
-    @KafkaListener(topics = "${app.kafka.topic}", groupId = "${spring.kafka.consumer.group-id}", containerFactory = "kafkaListenerContainerFactory")
-    public void handle(List<OrderEvent> events) {
-        for (OrderEvent event : events) {
-            String eventKey = EVENT_PREFIX + event.getEventId();
-            if (Boolean.TRUE.equals(redisTemplate.hasKey(eventKey))) {
-                continue; // Пропускаем уже обработанное событие
+    @KafkaListener(id = LISTENER_ID, topics = "${app.kafka.topic}", groupId = "${spring.kafka.consumer.group-id}", containerFactory = "kafkaListenerContainerFactory")
+    public void handle(List<ConsumerRecord<String, OrderEvent>> records) {
+        Timer.Sample sample = metrics.start();
+        List<VersionedEvent> events = new ArrayList<>(records.size());
+        records.forEach(record -> {
+            if (record.value() != null) {
+                events.add(new VersionedEvent(record.value(), OrderEventHeaders.version(record.headers())));
             }
+        });
+        apply(events);
+        metrics.record("order", sample, events.stream().map(VersionedEvent::event).toList());
+    }
+
+    /**
+     * Применяет пакет событий к проекциям.
+     *
+     * @param events события с версиями
+     */
+    private void apply(List<VersionedEvent> events) {
+        Map<String, List<VersionedEvent>> eventsByOrder = groupByOrder(filterLegacyProcessed(events));
+        if (eventsByOrder.isEmpty()) {
+            return;
+        }
+
+        Map<String, OrderView> views = repository.findHeadersById(eventsByOrder.keySet());
+        if (laneExecutor == null || eventsByOrder.size() == 1) {
+            project(eventsByOrder, views);
+            return;
+        }
+
+        List<Map<String, List<VersionedEvent>>> laneEvents = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            laneEvents.add(new LinkedHashMap<>());
+        }
+        eventsByOrder.forEach((orderId, orderEvents) ->
+                laneEvents.get(Math.floorMod(orderId.hashCode(), lanes)).put(orderId, orderEvents));
+
+        CompletableFuture.allOf(laneEvents.stream()
+                .filter(lane -> !lane.isEmpty())
+                .map(lane -> CompletableFuture.runAsync(() -> project(lane, views), laneExecutor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    /**
+     * Применяет к проекциям события с версией больше сохраненной и записывает
+     * проекции с проверкой версии. При пропуске версий события заказа
+     * читаются из хранилища. Проекции, версия которых изменилась
+     * с момента чтения, перечитываются и обрабатываются повторно.
+     * Затем одним конвейерным запросом публикуется инвалидация ближнего кэша
+     * и отмечаются примененные события без версии.
+     *
+     * @param eventsByOrder события по идентификатору заказа
+     * @param views текущие проекции по идентификатору заказа
+     * @throws IllegalStateException если версии продолжают меняться после всех попыток
+     */
+    private void project(Map<String, List<VersionedEvent>> eventsByOrder, Map<String, OrderView> views) {
+        Map<String, List<VersionedEvent>> pending = eventsByOrder;
+        Map<String, OrderView> current = views;
+        Set<String> updatedOrders = new HashSet<>();
+        List<String> legacyEventIds = new ArrayList<>();
+        for (int attempt = 1; ; attempt++) {
+            List<OrderView> updatedViews = new ArrayList<>(pending.size());
+            Map<String, Integer> expectedVersions = new HashMap<>();
+            Map<String, List<String>> appliedLegacyIds = new HashMap<>();
+            for (Map.Entry<String, List<VersionedEvent>> entry : pending.entrySet()) {
+                OrderView view = current.get(entry.getKey());
+                List<VersionedEvent> orderEvents = entry.getValue();
+                if (view == null) {
+                    view = new OrderView();
+                    view.setOrderId(entry.getKey());
+                    orderEvents = withoutGaps(entry.getKey(), 0, orderEvents);
+                } else if (view.getVersion() > 0) {
+                    orderEvents = withoutGaps(entry.getKey(), view.getVersion(), orderEvents);
+                }
+                int storedVersion = view.getVersion();
+                boolean changed = false;
+                for (VersionedEvent versioned : orderEvents) {
+                    if (versioned.version() != OrderEventHeaders.UNVERSIONED && versioned.version() <= view.getVersion()) {
+                        continue;
+                    }
+                    EventHandler<OrderEvent> handler = handlerRegistry.getHandler(versioned.event());
+                    handler.handle(versioned.event(), view);
+                    if (versioned.version() == OrderEventHeaders.UNVERSIONED) {
+                        appliedLegacyIds.computeIfAbsent(entry.getKey(), orderId -> new ArrayList<>())
+                                .add(versioned.event().getEventId());
+                    } else {
+                        view.setVersion(versioned.version());
+                    }
+                    changed = true;
+                }
+                if (changed) {
+                    updatedViews.add(view);
+                    expectedVersions.put(entry.getKey(), storedVersion);
+                }
+            }
+
+            Set<String> conflicts = repository.saveIfVersion(updatedViews, expectedVersions);
+            updatedViews.forEach(view -> {
+                if (!conflicts.contains(view.getOrderId())) {
+                    updatedOrders.add(view.getOrderId());
+                    legacyEventIds.addAll(appliedLegacyIds.getOrDefault(view.getOrderId(), List.of()));
+                }
+            });
+            if (conflicts.isEmpty()) {
+                break;
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new IllegalStateException("Версии проекций заказов продолжают меняться: " + conflicts);
+            }
+
+            Map<String, List<VersionedEvent>> retry = new LinkedHashMap<>();
+            conflicts.forEach(orderId -> retry.put(orderId, eventsByOrder.get(orderId)));
+            pending = retry;
+            current = repository.findHeadersById(conflicts);
+        }
+
+        if (updatedOrders.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                legacyEventIds.forEach(eventId -> stringOperations.opsForValue().set(LEGACY_EVENT_PREFIX + eventId, "processed"));
+                viewCache.publishInvalidation(updatedOrders);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Возвращает события заказа, которые можно применить к проекции с указанной
+     * версией. Если среди событий с версией есть пропуск после сохраненной версии,
+     * вместо них возвращаются все события заказа после нее из хранилища событий.
+     * Проекции, построенные событиями без версии (версия 0), не проверяются:
+     * их версии нельзя сопоставить с потоком заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @param storedVersion сохраненная версия проекции
+     * @param events события заказа из пакета в исходном порядке
+     * @return события для применения
+     */
+    private List<VersionedEvent> withoutGaps(String orderId, int storedVersion, List<VersionedEvent> events) {
+        int expected = storedVersion + 1;
+        for (VersionedEvent versioned : events) {
+            if (versioned.version() == OrderEventHeaders.UNVERSIONED || versioned.version() < expected) {
+                continue;
+            }
+            if (versioned.version() > expected) {
+                log.warn("Пропуск версий проекции заказа {}: ожидалась версия {}, получена {}; события читаются из хранилища",
+                        orderId, expected, versioned.version());
+                List<OrderEvent> stored = eventStore.loadEvents(new OrderId(orderId), storedVersion);
+                return IntStream.range(0, stored.size())
+                        .mapToObj(i -> new VersionedEvent(stored.get(i), storedVersion + i + 1))
+                        .toList();
+            }
+            expected++;
+        }
+
+        return events;
+    }
+
+    /**
+     * Останавливает пул потоков дорожек.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (laneExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
 
-            OrderView view = repository.findById(event.getOrderId().getValue())
-                    .orElse(new OrderView());
+    /**
+     * Удаляет устаревшие ключи идемпотентности {@code event:<eventId>},
+     * проходя пространство ключей курсором SCAN и удаляя ключи пакетами.
+     * Запускать после того, как потребители обработали все события,
+     * опубликованные без версии.
+     *
+     * @return количество удаленных ключей
+     */
+    public long deleteLegacyKeys() {
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_EVENT_PREFIX + "*").count(LEGACY_SCAN_BATCH).build();
+        long deleted = 0;
+        List<String> keys = new ArrayList<>(LEGACY_SCAN_BATCH);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == LEGACY_SCAN_BATCH) {
+                    deleted += unlink(keys);
+                }
+            }
+        }
+
+        return deleted + unlink(keys);
+    }
+
+    /**
+     * Удаляет ключи без блокировки Redis и очищает список.
+     *
+     * @param keys ключи
+     * @return количество удаленных ключей
+     */
+    private long unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.unlink(keys);
+        keys.clear();
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * Отбрасывает уже обработанные события без версии и их повторы внутри пакета.
+     * Такие события опубликованы до появления версий и проверяются по ключам
+     * {@code event:<eventId>}; события с версией проверяются при применении.
+     *
+     * @param events события с версиями
+     * @return необработанные события в исходном порядке
+     */
+    private List<VersionedEvent> filterLegacyProcessed(List<VersionedEvent> events) {
+        Map<String, VersionedEvent> legacy = new LinkedHashMap<>();
+        events.forEach(event -> {
+            if (event.version() == OrderEventHeaders.UNVERSIONED) {
+                legacy.putIfAbsent(event.event().getEventId(), event);
+            }
+        });
+        if (legacy.isEmpty()) {
+            return events;
+        }
+
+        List<Object> processed = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            legacy.keySet().forEach(eventId -> connection.keyCommands().exists(StringRedisSerializer.UTF_8.serialize(LEGACY_EVENT_PREFIX + eventId)));
+            return null;
+        });
+        Set<VersionedEvent> pendingLegacy = Collections.newSetFromMap(new IdentityHashMap<>());
+        Iterator<Object> flags = processed.iterator();
+        for (VersionedEvent event : legacy.values()) {
+            if (!Boolean.TRUE.equals(flags.next())) {
+                pendingLegacy.add(event);
+            }
+        }
+
+        List<VersionedEvent> pending = new ArrayList<>(events.size());
+        events.forEach(event -> {
+            if (event.version() != OrderEventHeaders.UNVERSIONED || pendingLegacy.contains(event)) {
+                pending.add(event);
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Группирует события по заказу, сохраняя порядок внутри заказа.
+     *
+     * @param events события с версиями
+     * @return события по идентификатору заказа
+     */
+    private Map<String, List<VersionedEvent>> groupByOrder(List<VersionedEvent> events) {
+        Map<String, List<VersionedEvent>> eventsByOrder = new LinkedHashMap<>();
+        events.forEach(event -> eventsByOrder
+                .computeIfAbsent(event.event().getOrderId().getValue(), orderId -> new ArrayList<>())
+                .add(event));
+
+        return eventsByOrder;
+    }
 
-            EventHandler<OrderEvent> handler = handlerRegistry.getHandler(event);
-            handler.handle(event, view);
-            repository.save(view);
-            redisTemplate.opsForValue().set(eventKey, "processed");
+    /**
+     * Создает исполнитель дорожек: виртуальные потоки в режиме виртуальных
+     * потоков, иначе фиксированный пул именованных потоков.
+     *
+     * @param lanes количество дорожек
+     * @param environment окружение приложения
+     * @return исполнитель дорожек
+     */
+    private static Executor laneExecutor(int lanes, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("projection-lane-");
         }
+
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(lanes, task -> {
+            Thread thread = new Thread(task, "projection-lane-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Событие вместе с его версией в потоке заказа.
+     *
+     * @param event событие домена
+     * @param version версия события или {@link OrderEventHeaders#UNVERSIONED}
+     */
+    private record VersionedEvent(OrderEvent event, int version) {
     }
 }
@@ -7,6 +7,13 @@ import java.util.List;
 
 /**
  * Проекция, представляющая текущее состояние заказа.
+ * <p>
+ * Товары хранятся в Redis отдельным списком и дописываются по одному;
+ * storedItemCount — сколько первых элементов items уже записано в Redis.
+ * Для обработки событий проекция может загружаться без товаров: тогда
+ * items содержит только добавленные после загрузки товары.
+ * version — версия последнего примененного события заказа; события
+ * с меньшей или равной версией уже отражены в проекции.
  */
 @Data
 public class OrderView {
@@ -14,4 +21,6 @@ public class OrderView {
     private String customerId;   // Идентификатор клиента
     private List<Product> items;    // Список товаров
     private boolean confirmed;   // Статус подтверждения
+    private int storedItemCount; // Количество товаров, уже записанных в Redis
+    private int version;         // Версия последнего примененного события
 }
@@ -0,0 +1,152 @@
+package org.example.eventsourcing.application.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ближний кэш декодированных проекций заказов в памяти процесса.
+ * <p>
+ * Обработчик проекций после записи в Redis публикует идентификаторы измененных
+ * заказов в канал pub/sub, и каждый узел, включая отправителя, удаляет их из своего
+ * кэша. Сообщения pub/sub не гарантируют доставку, поэтому срок жизни записи
+ * ограничивает устаревание сверху. Проекции из кэша разделяются между запросами
+ * и не должны изменяться.
+ */
+@Component
+public class OrderViewCache implements MessageListener {
+    private static final String ALL = "*"; // Сообщение о сбросе всего кэша
+    private final Cache<String, OrderView> cache;              // Проекции по идентификатору заказа
+    private final RedisTemplate<String, String> redisTemplate; // Клиент Redis
+    private final String channel;                              // Канал инвалидации
+    private final AtomicLong epoch = new AtomicLong();          // Счетчик инвалидаций
+
+    /**
+     * Создает новый ближний кэш проекций.
+     *
+     * @param redisTemplate клиент Redis
+     * @param maximumSize максимальное количество проекций в кэше
+     * @param expireAfterWrite максимальное время устаревания проекции
+     * @param channel канал инвалидации
+     * @param meterRegistry реестр метрик
+     */
+    public OrderViewCache(RedisTemplate<String, String> redisTemplate,
+                          @Value("${app.view-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${app.view-cache.expire-after-write:5s}") Duration expireAfterWrite,
+                          @Value("${app.view-cache.channel:order-view-invalidation}") String channel,
+                          MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderViews");
+    }
+
+    /**
+     * Возвращает закэшированную проекцию заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return проекция или пустой Optional при промахе
+     */
+    public Optional<OrderView> get(String orderId) {
+        return Optional.ofNullable(cache.getIfPresent(orderId));
+    }
+
+    /**
+     * Возвращает текущее значение счетчика инвалидаций.
+     * Его нужно прочитать до чтения проекции из Redis и передать в {@link #put}.
+     *
+     * @return значение счетчика
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Сохраняет проекцию, если с момента ее чтения не было инвалидаций:
+     * иначе в кэш могла бы попасть проекция, прочитанная до изменения.
+     *
+     * @param view проекция заказа
+     * @param readEpoch значение счетчика инвалидаций до чтения проекции
+     */
+    public void put(OrderView view, long readEpoch) {
+        if (epoch.get() == readEpoch) {
+            cache.put(view.getOrderId(), view);
+        }
+    }
+
+    /**
+     * Публикует инвалидацию измененных заказов для всех узлов.
+     * Внутри конвейерного запроса публикация уходит вместе с ним.
+     *
+     * @param orderIds идентификаторы заказов
+     */
+    public void publishInvalidation(Collection<String> orderIds) {
+        if (!orderIds.isEmpty()) {
+            publish(String.join(",", orderIds));
+        }
+    }
+
+    /**
+     * Публикует сброс кэша на всех узлах.
+     */
+    public void publishInvalidateAll() {
+        publish(ALL);
+    }
+
+    /**
+     * Публикует сообщение в канал инвалидации строкой UTF-8, в том же виде,
+     * в каком его разбирает {@link #onMessage}. Сериализатор значений шаблона
+     * не используется.
+     *
+     * @param payload текст сообщения
+     */
+    private void publish(String payload) {
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channelBytes, body));
+    }
+
+    /**
+     * Обрабатывает сообщение инвалидации из канала pub/sub.
+     *
+     * @param message сообщение
+     * @param pattern шаблон подписки
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        epoch.incrementAndGet();
+        if (ALL.equals(body)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(Arrays.asList(body.split(",")));
+        }
+    }
+
+    /**
+     * Возвращает канал инвалидации.
+     *
+     * @return имя канала
+     */
+    public String getChannel() {
+        return channel;
+    }
+}
@@ -1,79 +1,398 @@
 package org.example.eventsourcing.application.query;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.eventsourcing.domain.event.OrderCreatedEvent;
-import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.example.eventsourcing.domain.model.Product;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Репозиторий для хранения и получения проекций заказов в Redis.
+ * <p>
+ * Скалярные поля заказа хранятся в хэше {@code order:<id>}, товары — в списке
+ * {@code order:<id>:items} в компактном представлении {@link OrderItemCodec}.
+ * Все значения хранятся как строки UTF-8 без сериализации Java.
+ * Сохранение дописывает в список только новые товары, поэтому объем записи
+ * не зависит от размера заказа. Хэши старого формата с полем {@code items}
+ * в JSON читаются и переносятся в список при первом сохранении.
+ * Поле {@code version} хэша хранит версию последнего примененного события
+ * и служит для идемпотентной обработки событий.
  */
 @Component
 public class OrderViewRepository {
-    private static final String PREFIX = "order:"; // Префикс ключа в Redis
+    private static final String PREFIX = "order:";                // Префикс ключа в Redis
+    private static final String SHADOW_PREFIX = "rebuild:order:"; // Префикс ключа перестраиваемой проекции
+    private static final String ITEMS_SUFFIX = ":items";          // Суффикс ключа списка товаров
+    private static final String LEGACY_ITEMS = "items";           // Поле товаров в JSON старого формата
+    private static final String VERSION = "version";              // Поле версии последнего примененного события
+    private static final byte[] SAVE_IF_VERSION = serialize("""
+            local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')
+            if current ~= tonumber(ARGV[1]) then
+                return 0
+            end
+            local fields = tonumber(ARGV[2])
+            redis.call('HSET', KEYS[1], unpack(ARGV, 3, 2 + fields * 2))
+            redis.call('HDEL', KEYS[1], 'items')
+            for i = 3 + fields * 2, #ARGV do
+                redis.call('RPUSH', KEYS[2], ARGV[i])
+            end
+            return 1
+            """); // Скрипт сохранения проекции с проверкой версии
+    private static final int PARALLEL_DECODE_THRESHOLD = 32;       // Размер пакета для параллельного декодирования
+    private static final TypeReference<List<Product>> PRODUCTS = new TypeReference<>() {
+    };
     private final RedisTemplate<String, String> redisTemplate; // Клиент Redis
-    private final EventSerializer eventSerializer; // Сериализатор
-    private final ObjectMapper mapper;
+    private final ObjectMapper mapper;                         // Разбор товаров старого формата
+    private final OrderViewCache viewCache; // Ближний кэш проекций
 
     /**
      * Создает новый репозиторий проекций.
      *
      * @param redisTemplate клиент Redis
-     * @param eventSerializer сериализатор
+     * @param mapper разбор товаров старого формата
+     * @param viewCache ближний кэш проекций
      */
-    public OrderViewRepository(RedisTemplate<String, String> redisTemplate, EventSerializer eventSerializer, ObjectMapper mapper) {
+    public OrderViewRepository(RedisTemplate<String, String> redisTemplate, ObjectMapper mapper, OrderViewCache viewCache) {
         this.redisTemplate = redisTemplate;
-        this.eventSerializer = eventSerializer;
         this.mapper = mapper;
+        this.viewCache = viewCache;
     }
 
     /**
-     * Сохраняет проекцию заказа в Redis.
+     * Сохраняет изменения проекций одним конвейерным запросом: скалярные поля
+     * и товары, еще не записанные в список. Каждая проекция записывается
+     * скриптом Lua атомарно и только если сохраненная версия в Redis
+     * все еще равна ожидаемой, то есть проверка и продвижение версии
+     * происходят вместе с обновлением проекции.
      *
-     * @param view проекция заказа
+     * @param views проекции заказов с новой версией
+     * @param expectedVersions ожидаемые сохраненные версии по идентификатору заказа
+     * @return идентификаторы заказов, проекции которых не записаны из-за изменившейся версии
      */
-    public void save(OrderView view) {
-        String key = PREFIX + view.getOrderId();
-        Map<String, String> hash = new HashMap<>();
-        hash.put("orderId", view.getOrderId());
-        hash.put("customerId", view.getCustomerId());
-        hash.put("items", eventSerializer.serialize(view.getItems()));
-        hash.put("confirmed", String.valueOf(view.isConfirmed()));
-        redisTemplate.opsForHash().putAll(key, hash);
+    public Set<String> saveIfVersion(List<OrderView> views, Map<String, Integer> expectedVersions) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            views.forEach(view -> connection.scriptingCommands().eval(SAVE_IF_VERSION, ReturnType.INTEGER, 2,
+                    saveArguments(view, expectedVersions.getOrDefault(view.getOrderId(), 0))));
+            return null;
+        }, RedisSerializer.string());
+
+        Set<String> conflicts = new HashSet<>();
+        for (int i = 0; i < views.size(); i++) {
+            OrderView view = views.get(i);
+            if (Long.valueOf(1).equals(results.get(i))) {
+                view.setStoredItemCount(view.getItems() == null ? 0 : view.getItems().size());
+            } else {
+                conflicts.add(view.getOrderId());
+            }
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * Сохраняет проекции целиком в теневые ключи заказов одним конвейерным запросом.
+     * Значения записываются строками UTF-8, как и скриптом сохранения.
+     *
+     * @param views проекции заказов
+     */
+    public void saveShadow(Collection<OrderView> views) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            views.forEach(view -> {
+                byte[] key = serialize(shadowKey(view.getOrderId()));
+                byte[] itemsKey = serialize(shadowKey(view.getOrderId()) + ITEMS_SUFFIX);
+                connection.keyCommands().del(key, itemsKey);
+                Map<byte[], byte[]> hash = new HashMap<>(8);
+                toHash(view).forEach((field, value) -> hash.put(serialize(field), serialize(value)));
+                connection.hashCommands().hMSet(key, hash);
+                if (view.getItems() != null && !view.getItems().isEmpty()) {
+                    connection.listCommands().rPush(itemsKey, OrderItemCodec.encodeAll(view.getItems()).stream()
+                            .map(OrderViewRepository::serialize)
+                            .toArray(byte[][]::new));
+                }
+            });
+            return null;
+        }, RedisSerializer.string());
+    }
+
+    /**
+     * Атомарно (MULTI/EXEC) заменяет проекции заказов теневыми.
+     * Список товаров заказа без товаров удаляется, а не переименовывается.
+     *
+     * @param views проекции заказов, сохраненные в теневое пространство
+     */
+    public void promoteShadow(Collection<OrderView> views) {
+        redisTemplate.execute(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                stringOperations.multi();
+                views.forEach(view -> {
+                    String orderId = view.getOrderId();
+                    stringOperations.rename(shadowKey(orderId), key(orderId));
+                    if (view.getItems() != null && !view.getItems().isEmpty()) {
+                        stringOperations.rename(shadowKey(orderId) + ITEMS_SUFFIX, itemsKey(orderId));
+                    } else {
+                        stringOperations.delete(itemsKey(orderId));
+                    }
+                });
+                return stringOperations.exec();
+            }
+        });
+        viewCache.publishInvalidateAll();
     }
 
     /**
      * Находит проекцию заказа по идентификатору.
+     * Сначала проверяется ближний кэш; прочитанная из Redis проекция кэшируется.
+     * Возвращаемую проекцию нельзя изменять.
      *
      * @param orderId идентификатор заказа
      * @return проекция заказа или пустой Optional
      */
     public Optional<OrderView> findById(String orderId) {
-        String key = PREFIX + orderId;
-        Map<Object, Object> hash = redisTemplate.opsForHash().entries(key);
-        if (hash.isEmpty()) {
+        Optional<OrderView> cached = viewCache.get(orderId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        long epoch = viewCache.epoch();
+        OrderView view = load(List.of(orderId))[0];
+        if (view == null) {
             return Optional.empty();
         }
 
+        viewCache.put(view, epoch);
+        return Optional.of(view);
+    }
+
+    /**
+     * Находит проекции нескольких заказов вместе с товарами.
+     * Проекции из ближнего кэша возвращаются сразу, остальные читаются
+     * из Redis одним конвейерным запросом и кэшируются. Отсутствующие
+     * заказы пропускаются. Возвращаемые проекции нельзя изменять.
+     *
+     * @param orderIds идентификаторы заказов
+     * @return найденные проекции по идентификатору заказа в порядке запроса
+     */
+    public Map<String, OrderView> findAllById(Collection<String> orderIds) {
+        Map<String, OrderView> views = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String orderId : new LinkedHashSet<>(orderIds)) {
+            Optional<OrderView> cached = viewCache.get(orderId);
+            views.put(orderId, cached.orElse(null));
+            if (cached.isEmpty()) {
+                missing.add(orderId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long epoch = viewCache.epoch();
+            OrderView[] loaded = load(missing);
+            for (int i = 0; i < loaded.length; i++) {
+                if (loaded[i] != null) {
+                    views.put(missing.get(i), loaded[i]);
+                    viewCache.put(loaded[i], epoch);
+                }
+            }
+        }
+
+        views.values().removeIf(Objects::isNull);
+        return views;
+    }
+
+    /**
+     * Читает проекции вместе с товарами одним конвейерным запросом к Redis.
+     * Крупные пакеты декодируются параллельно.
+     *
+     * @param orderIds идентификаторы заказов без повторов
+     * @return проекции в порядке идентификаторов; null для отсутствующих заказов
+     */
+    @SuppressWarnings("unchecked")
+    private OrderView[] load(List<String> orderIds) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            orderIds.forEach(orderId -> {
+                connection.hashCommands().hGetAll(serialize(key(orderId)));
+                connection.listCommands().lRange(serialize(itemsKey(orderId)), 0, -1);
+            });
+            return null;
+        }, RedisSerializer.string());
+
+        OrderView[] views = new OrderView[orderIds.size()];
+        IntStream indexes = IntStream.range(0, views.length);
+        if (views.length >= PARALLEL_DECODE_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            Map<Object, Object> hash = (Map<Object, Object>) results.get(2 * i);
+            if (hash != null && !hash.isEmpty()) {
+                views[i] = toView(hash, (List<Object>) results.get(2 * i + 1));
+            }
+        });
+
+        return views;
+    }
+
+    /**
+     * Находит проекции нескольких заказов без товаров за один конвейерный запрос к Redis.
+     * Подходит для применения событий: новые товары дописываются к списку при сохранении.
+     *
+     * @param orderIds идентификаторы заказов
+     * @return найденные проекции по идентификатору заказа
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, OrderView> findHeadersById(Collection<String> orderIds) {
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            orderIds.forEach(orderId -> connection.hashCommands().hGetAll(serialize(key(orderId))));
+            return null;
+        }, RedisSerializer.string());
+
+        Map<String, OrderView> views = new HashMap<>();
+        Iterator<String> ids = orderIds.iterator();
+        for (Object hash : hashes) {
+            String orderId = ids.next();
+            Map<Object, Object> entries = (Map<Object, Object>) hash;
+            if (entries != null && !entries.isEmpty()) {
+                OrderView view = toView(entries, List.of());
+                view.setStoredItemCount(0);
+                views.put(orderId, view);
+            }
+        }
+
+        return views;
+    }
+
+    /**
+     * Собирает проекцию заказа из полей хэша и списка товаров Redis.
+     * Товары из поля старого формата считаются еще не записанными в список.
+     *
+     * @param hash поля хэша
+     * @param items закодированные товары из списка
+     * @return проекция заказа
+     */
+    OrderView toView(Map<Object, Object> hash, List<?> items) {
         OrderView view = new OrderView();
         view.setOrderId((String) hash.get("orderId"));
         view.setCustomerId((String) hash.get("customerId"));
-        try {
-            view.setItems(mapper.readValue((String) hash.get("items"), ArrayList.class));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
         view.setConfirmed(Boolean.parseBoolean((String) hash.get("confirmed")));
+        String version = (String) hash.get(VERSION);
+        view.setVersion(version == null ? 0 : Integer.parseInt(version));
+        String legacyItems = (String) hash.get(LEGACY_ITEMS);
+        if (legacyItems != null) {
+            try {
+                view.setItems(new ArrayList<>(mapper.readValue(legacyItems, PRODUCTS)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Некорректные товары заказа " + view.getOrderId(), e);
+            }
+        } else {
+            view.setItems(OrderItemCodec.decodeAll(items == null ? List.of() : items));
+            view.setStoredItemCount(view.getItems().size());
+        }
 
-        return Optional.of(view);
+        return view;
+    }
+
+    /**
+     * Формирует ключи и аргументы скрипта сохранения проекции.
+     *
+     * @param view проекция заказа
+     * @param expectedVersion ожидаемая сохраненная версия
+     * @return ключи хэша и списка товаров, ожидаемая версия, число полей, поля и новые товары
+     */
+    private static byte[][] saveArguments(OrderView view, int expectedVersion) {
+        Map<String, String> hash = toHash(view);
+        List<Product> items = view.getItems() == null ? List.of() : view.getItems();
+        List<Product> newItems = items.subList(Math.min(view.getStoredItemCount(), items.size()), items.size());
+        List<byte[]> arguments = new ArrayList<>(4 + hash.size() * 2 + newItems.size());
+        arguments.add(serialize(key(view.getOrderId())));
+        arguments.add(serialize(itemsKey(view.getOrderId())));
+        arguments.add(serialize(String.valueOf(expectedVersion)));
+        arguments.add(serialize(String.valueOf(hash.size())));
+        hash.forEach((field, value) -> {
+            arguments.add(serialize(field));
+            arguments.add(serialize(value));
+        });
+        newItems.forEach(item -> arguments.add(serialize(OrderItemCodec.encode(item))));
+        return arguments.toArray(byte[][]::new);
+    }
+
+    /**
+     * Возвращает ключ хэша проекции заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return ключ Redis
+     */
+    static String key(String orderId) {
+        return PREFIX + orderId;
+    }
+
+    /**
+     * Возвращает ключ списка товаров заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return ключ Redis
+     */
+    static String itemsKey(String orderId) {
+        return key(orderId) + ITEMS_SUFFIX;
+    }
+
+    /**
+     * Возвращает ключ хэша перестраиваемой проекции заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return ключ Redis
+     */
+    private static String shadowKey(String orderId) {
+        return SHADOW_PREFIX + orderId;
+    }
+
+    /**
+     * Сериализует строку в байты для команд Redis.
+     *
+     * @param value строка
+     * @return байты в UTF-8
+     */
+    private static byte[] serialize(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+
+    /**
+     * Возвращает скалярные поля проекции для записи в хэш.
+     *
+     * @param view проекция заказа
+     * @return поля хэша
+     */
+    private static Map<String, String> toHash(OrderView view) {
+        Map<String, String> hash = new HashMap<>(8);
+        if (view.getOrderId() != null) {
+            hash.put("orderId", view.getOrderId());
+        }
+        if (view.getCustomerId() != null) {
+            hash.put("customerId", view.getCustomerId());
+        }
+        hash.put("confirmed", String.valueOf(view.isConfirmed()));
+        hash.put(VERSION, String.valueOf(view.getVersion()));
+        return hash;
     }
 }
@@ -0,0 +1,72 @@
+package org.example.eventsourcing.application.query;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики обработчиков проекций: размер и время обработки пакета,
+ * а также задержка от создания события до обновления проекции.
+ * Метрики помечаются тегом {@code projection} с именем проекции.
+ */
+@Component
+public class ProjectionMetrics {
+    private final MeterRegistry meterRegistry;                 // Реестр метрик
+    private final Clock clock = Clock.systemUTC();             // Часы для расчета задержки
+    private final MeterProvider<DistributionSummary> batchSize; // Размер пакета
+    private final MeterProvider<Timer> batchTimer;              // Время обработки пакета
+    private final MeterProvider<Timer> lagTimer;                // Задержка обновления проекции
+
+    /**
+     * Создает новые метрики проекций.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public ProjectionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder("orders.projection.batch.size")
+                .description("Количество событий в пакете проекции")
+                .withRegistry(meterRegistry);
+        this.batchTimer = Timer.builder("orders.projection.batch")
+                .description("Время обработки пакета проекции")
+                .withRegistry(meterRegistry);
+        this.lagTimer = Timer.builder("orders.projection.lag")
+                .description("Время от создания события до обновления проекции")
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Начинает измерение обработки пакета.
+     *
+     * @return начатое измерение
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Фиксирует обработанный пакет: размер, время обработки и задержку каждого события.
+     *
+     * @param projection имя проекции
+     * @param sample измерение, начатое до обработки пакета
+     * @param events события пакета
+     */
+    public void record(String projection, Timer.Sample sample, List<OrderEvent> events) {
+        sample.stop(batchTimer.withTag("projection", projection));
+        batchSize.withTag("projection", projection).record(events.size());
+        Timer lag = lagTimer.withTag("projection", projection);
+        long now = clock.millis();
+        events.forEach(event -> {
+            if (event.getTimestamp() != null) {
+                lag.record(Math.max(now - event.getTimestamp().toEpochMilli(), 0), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+}
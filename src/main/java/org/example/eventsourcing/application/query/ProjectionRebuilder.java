@@ -0,0 +1,345 @@
+package org.example.eventsourcing.application.query;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.infrastructure.event.EventStore;
+import org.example.eventsourcing.infrastructure.event.RecordedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Параллельная перестройка проекций заказов из глобального журнала событий.
+ * <p>
+ * Журнал читается крупными пакетами; события распределяются по разделам
+ * по хэшу идентификатора заказа, так что поток каждого заказа сворачивается
+ * в памяти одним разделом в исходном порядке. Готовые проекции загружаются
+ * в теневое пространство ключей Redis параллельно по разделам и затем
+ * атомарно подменяют текущие. На время перестройки слушатель Kafka
+ * приостанавливается; проекции сохраняются с версией последнего события,
+ * поэтому уже учтенные события после возобновления пропускаются.
+ * <p>
+ * Поток каждого заказа должен начинаться с события создания и идти без
+ * пропусков версий; иначе перестройка завершается ошибкой, а текущие
+ * проекции остаются нетронутыми.
+ */
+@Slf4j
+@Component
+public class ProjectionRebuilder {
+    private final EventStore eventStore;                  // Хранилище событий
+    private final EventHandlerRegistry handlerRegistry;    // Реестр обработчиков
+    private final OrderViewRepository repository;          // Репозиторий проекций
+    private final KafkaListenerEndpointRegistry listenerRegistry; // Реестр слушателей Kafka
+    private final int parallelism;                         // Количество разделов
+    private final int batchSize;                           // Размер пакета чтения журнала
+    private final int writeBatchSize;                      // Размер пакета записи в Redis
+    private final Duration pauseTimeout;                   // Время ожидания приостановки слушателя Kafka
+    private final AtomicBoolean running = new AtomicBoolean(); // Идет ли перестройка
+    private volatile RebuildResult lastResult;             // Результат последней перестройки
+
+    /**
+     * Создает новый механизм перестройки проекций.
+     *
+     * @param eventStore хранилище событий
+     * @param handlerRegistry реестр обработчиков
+     * @param repository репозиторий проекций
+     * @param listenerRegistry реестр слушателей Kafka
+     * @param parallelism количество разделов (0 — по числу ядер)
+     * @param batchSize размер пакета чтения журнала
+     * @param writeBatchSize размер пакета записи в Redis
+     * @param pauseTimeout время ожидания приостановки слушателя Kafka
+     */
+    public ProjectionRebuilder(EventStore eventStore, EventHandlerRegistry handlerRegistry, OrderViewRepository repository,
+                               KafkaListenerEndpointRegistry listenerRegistry,
+                               @Value("${app.projection.rebuild.parallelism:0}") int parallelism,
+                               @Value("${app.projection.rebuild.batch-size:10000}") int batchSize,
+                               @Value("${app.projection.rebuild.write-batch-size:1000}") int writeBatchSize,
+                               @Value("${app.projection.rebuild.pause-timeout:30s}") Duration pauseTimeout) {
+        this.eventStore = eventStore;
+        this.handlerRegistry = handlerRegistry;
+        this.repository = repository;
+        this.listenerRegistry = listenerRegistry;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.writeBatchSize = writeBatchSize;
+        this.pauseTimeout = pauseTimeout;
+    }
+
+    /**
+     * Перестраивает все проекции заказов.
+     *
+     * @return результат перестройки
+     * @throws IllegalStateException если перестройка уже выполняется или завершилась ошибкой
+     */
+    public RebuildResult rebuild() {
+        acquire();
+        return doRebuild();
+    }
+
+    /**
+     * Запускает перестройку проекций в отдельном потоке.
+     * Ошибка перестройки записывается в журнал и в результат последней перестройки.
+     *
+     * @return результат перестройки по ее завершении
+     * @throws IllegalStateException если перестройка уже выполняется
+     */
+    public CompletableFuture<RebuildResult> rebuildAsync() {
+        acquire();
+        return CompletableFuture.supplyAsync(this::doRebuild, task -> new Thread(task, "projection-rebuild").start());
+    }
+
+    /**
+     * Возвращает результат последней завершенной или прерванной ошибкой перестройки.
+     *
+     * @return результат или пустое значение, если перестройка не выполнялась
+     */
+    public Optional<RebuildResult> getLastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    /**
+     * Проверяет, выполняется ли перестройка.
+     *
+     * @return true, если перестройка выполняется
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Захватывает право на перестройку.
+     *
+     * @throws IllegalStateException если перестройка уже выполняется
+     */
+    private void acquire() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Перестройка проекций уже выполняется");
+        }
+    }
+
+    /**
+     * Выполняет перестройку и освобождает право на нее.
+     * При ошибке записывает результат со статусом FAILED и пробрасывает исключение.
+     *
+     * @return результат перестройки
+     */
+    private RebuildResult doRebuild() {
+        Instant startedAt = Instant.now();
+        MessageListenerContainer listener = listenerRegistry.getListenerContainer(OrderProjectionHandler.LISTENER_ID);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pauseListener(listener);
+            List<Partition> partitions = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                partitions.add(new Partition());
+            }
+
+            long events = scan(partitions, pool);
+            join(partitions.stream()
+                    .map(partition -> CompletableFuture.runAsync(() -> partition.load(), pool))
+                    .toList());
+
+            List<OrderView> views = new ArrayList<>();
+            partitions.forEach(partition -> views.addAll(partition.views.values()));
+            repository.promoteShadow(views);
+
+            RebuildResult result = new RebuildResult(RebuildStatus.COMPLETED, events, views.size(),
+                    Duration.between(startedAt, Instant.now()), null);
+            log.info("Проекции перестроены: {}", result);
+            lastResult = result;
+            return result;
+        } catch (RuntimeException e) {
+            log.error("Ошибка перестройки проекций", e);
+            lastResult = new RebuildResult(RebuildStatus.FAILED, 0, 0, Duration.between(startedAt, Instant.now()),
+                    String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            pool.shutdown();
+            if (listener != null) {
+                listener.resume();
+            }
+            running.set(false);
+        }
+    }
+
+    /**
+     * Читает журнал и сворачивает события по разделам.
+     * Пока разделы сворачивают текущий пакет, читается следующий.
+     *
+     * @param partitions разделы
+     * @param pool пул потоков
+     * @return количество прочитанных событий
+     */
+    private long scan(List<Partition> partitions, ForkJoinPool pool) {
+        long position = 0;
+        long events = 0;
+        List<RecordedEvent> batch = eventStore.readAll(position, batchSize);
+        while (!batch.isEmpty()) {
+            List<List<RecordedEvent>> routed = route(batch);
+            List<CompletableFuture<Void>> folds = new ArrayList<>(partitions.size());
+            for (int i = 0; i < partitions.size(); i++) {
+                Partition partition = partitions.get(i);
+                List<RecordedEvent> partitionEvents = routed.get(i);
+                folds.add(CompletableFuture.runAsync(() -> partition.fold(partitionEvents), pool));
+            }
+
+            events += batch.size();
+            position = batch.get(batch.size() - 1).getPosition();
+            List<RecordedEvent> next = batch.size() < batchSize ? List.of() : eventStore.readAll(position, batchSize);
+            join(folds);
+            batch = next;
+        }
+        return events;
+    }
+
+    /**
+     * Распределяет события пакета по разделам по хэшу идентификатора заказа.
+     *
+     * @param batch пакет событий
+     * @return события каждого раздела в исходном порядке
+     */
+    private List<List<RecordedEvent>> route(List<RecordedEvent> batch) {
+        List<List<RecordedEvent>> routed = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            routed.add(new ArrayList<>(batch.size() / parallelism + 1));
+        }
+        batch.forEach(recorded -> routed
+                .get(Math.floorMod(recorded.getOrderId().getValue().hashCode(), parallelism))
+                .add(recorded));
+        return routed;
+    }
+
+    /**
+     * Приостанавливает слушатель Kafka и ждет завершения текущего пакета.
+     *
+     * @param listener контейнер слушателя
+     * @throws IllegalStateException если слушатель не приостановился за pauseTimeout
+     */
+    private void pauseListener(MessageListenerContainer listener) {
+        if (listener == null || !listener.isRunning()) {
+            return;
+        }
+        listener.pause();
+        Instant deadline = Instant.now().plus(pauseTimeout);
+        while (!listener.isPauseRequested() || !listener.isContainerPaused()) {
+            if (Instant.now().isAfter(deadline)) {
+                throw new IllegalStateException("Слушатель Kafka не приостановился за " + pauseTimeout);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Перестройка проекций прервана", e);
+            }
+        }
+    }
+
+    /**
+     * Ожидает завершения всех задач и пробрасывает исключение упавшей задачи.
+     *
+     * @param futures задачи
+     */
+    private static void join(List<CompletableFuture<Void>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Раздел перестройки: проекции заказов, попавших в раздел по хэшу.
+     * Используется только одной задачей пула в каждый момент времени.
+     */
+    private class Partition {
+        private final Map<String, OrderView> views = new HashMap<>(); // Проекции по заказу
+
+        /**
+         * Применяет события к проекциям раздела.
+         *
+         * @param events события раздела в исходном порядке
+         * @throws IllegalStateException если поток заказа не начинается с создания или содержит пропуск версий
+         */
+        void fold(List<RecordedEvent> events) {
+            for (RecordedEvent recorded : events) {
+                OrderView view = views.get(recorded.getOrderId().getValue());
+                int expectedVersion = view == null ? 1 : view.getVersion() + 1;
+                if (recorded.getVersion() != expectedVersion
+                        || (view == null) != (recorded.getEvent() instanceof OrderCreatedEvent)) {
+                    throw new IllegalStateException("Поток заказа " + recorded.getOrderId().getValue()
+                            + " нарушен на позиции " + recorded.getPosition() + ": ожидалась версия " + expectedVersion
+                            + ", получено " + recorded.getEvent().getClass().getSimpleName()
+                            + " версии " + recorded.getVersion());
+                }
+                if (view == null) {
+                    view = new OrderView();
+                    views.put(recorded.getOrderId().getValue(), view);
+                }
+                EventHandler<OrderEvent> handler = handlerRegistry.getHandler(recorded.getEvent());
+                handler.handle(recorded.getEvent(), view);
+                view.setVersion(recorded.getVersion());
+            }
+        }
+
+        /**
+         * Загружает проекции раздела в теневое пространство ключей пакетами.
+         */
+        void load() {
+            List<OrderView> chunk = new ArrayList<>(writeBatchSize);
+            for (OrderView view : views.values()) {
+                chunk.add(view);
+                if (chunk.size() == writeBatchSize) {
+                    repository.saveShadow(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                repository.saveShadow(chunk);
+            }
+        }
+    }
+
+    /**
+     * Статус перестройки проекций.
+     */
+    public enum RebuildStatus {
+        /**
+         * Проекции перестроены и подменены.
+         */
+        COMPLETED,
+
+        /**
+         * Перестройка прервана ошибкой, текущие проекции не изменены.
+         */
+        FAILED
+    }
+
+    /**
+     * Результат перестройки проекций.
+     *
+     * @param status статус перестройки
+     * @param events количество прочитанных событий
+     * @param orders количество перестроенных заказов
+     * @param duration длительность перестройки
+     * @param error описание ошибки или null
+     */
+    public record RebuildResult(RebuildStatus status, long events, int orders, Duration duration, String error) {
+    }
+}
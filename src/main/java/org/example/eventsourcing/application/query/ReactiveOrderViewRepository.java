@@ -0,0 +1,92 @@
+package org.example.eventsourcing.application.query;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Неблокирующее чтение проекций заказов из Redis.
+ * Формат ключей и полей совпадает с {@link OrderViewRepository}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveOrderViewRepository {
+    private final ReactiveStringRedisTemplate redisTemplate; // Реактивный клиент Redis
+    private final OrderViewRepository viewRepository;        // Репозиторий, задающий формат проекций
+    private final OrderViewCache viewCache;                  // Ближний кэш проекций
+
+    /**
+     * Создает новый неблокирующий репозиторий проекций.
+     *
+     * @param redisTemplate реактивный клиент Redis
+     * @param viewRepository репозиторий, задающий формат проекций
+     * @param viewCache ближний кэш проекций
+     */
+    public ReactiveOrderViewRepository(ReactiveStringRedisTemplate redisTemplate, OrderViewRepository viewRepository,
+                                       OrderViewCache viewCache) {
+        this.redisTemplate = redisTemplate;
+        this.viewRepository = viewRepository;
+        this.viewCache = viewCache;
+    }
+
+    /**
+     * Находит проекцию заказа по идентификатору, сначала в ближнем кэше.
+     * Возвращаемую проекцию нельзя изменять.
+     *
+     * @param orderId идентификатор заказа
+     * @return проекция заказа или пустой результат
+     */
+    public Mono<OrderView> findById(String orderId) {
+        return Mono.defer(() -> {
+            Optional<OrderView> cached = viewCache.get(orderId);
+            if (cached.isPresent()) {
+                return Mono.just(cached.get());
+            }
+
+            return load(orderId, viewCache.epoch());
+        });
+    }
+
+    /**
+     * Находит проекции нескольких заказов, сначала в ближнем кэше.
+     * Запросы к Redis для отсутствующих в кэше заказов отправляются
+     * одновременно и конвейеризуются общим соединением. Отсутствующие
+     * заказы пропускаются. Возвращаемые проекции нельзя изменять.
+     *
+     * @param orderIds идентификаторы заказов
+     * @return найденные проекции в порядке запроса
+     */
+    public Flux<OrderView> findAllById(Collection<String> orderIds) {
+        return Flux.defer(() -> {
+            long epoch = viewCache.epoch();
+            return Flux.fromIterable(new LinkedHashSet<>(orderIds))
+                    .flatMapSequential(orderId -> viewCache.get(orderId)
+                            .map(Mono::just)
+                            .orElseGet(() -> load(orderId, epoch)));
+        });
+    }
+
+    /**
+     * Читает проекцию из Redis и кэширует ее.
+     *
+     * @param orderId идентификатор заказа
+     * @param epoch эпоха кэша на момент начала чтения
+     * @return проекция заказа или пустой результат
+     */
+    private Mono<OrderView> load(String orderId, long epoch) {
+        return Mono.zip(
+                        redisTemplate.<Object, Object>opsForHash().entries(OrderViewRepository.key(orderId))
+                                .collectMap(Map.Entry::getKey, Map.Entry::getValue),
+                        redisTemplate.opsForList().range(OrderViewRepository.itemsKey(orderId), 0, -1).collectList())
+                .filter(result -> !result.getT1().isEmpty())
+                .map(result -> viewRepository.toView(result.getT1(), result.getT2()))
+                .doOnNext(view -> viewCache.put(view, epoch));
+    }
+}
@@ -3,16 +3,22 @@ package org.example.eventsourcing.configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.eventsourcing.application.query.OrderViewCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Конфигурация Spring для создания бинов приложения.
  */
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     /**
@@ -44,4 +50,24 @@ public class AppConfig {
 
         return template;
     }
+
+    /**
+     * Создает контейнер подписок Redis pub/sub с подпиской
+     * ближнего кэша проекций на канал инвалидации. Контейнер подписывается
+     * при старте приложения и требует доступного Redis; без подписки ближний
+     * кэш устаревает не дольше срока жизни записей.
+     *
+     * @param connectionFactory фабрика соединений Redis
+     * @param orderViewCache ближний кэш проекций
+     * @return объект RedisMessageListenerContainer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.view-cache.listen", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory, OrderViewCache orderViewCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(orderViewCache, new ChannelTopic(orderViewCache.getChannel()));
+
+        return container;
+    }
 }
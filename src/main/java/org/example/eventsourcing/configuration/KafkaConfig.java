@@ -1,18 +1,39 @@
 package org.example.eventsourcing.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
 import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventDeserializer;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Конфигурация Kafka для пакетной обработки событий.
+ * События сериализуются {@link OrderEventSerializer} и {@link OrderEventDeserializer}
+ * с типом события в заголовке записи.
  */
 @Configuration
 public class KafkaConfig {
@@ -21,31 +42,115 @@ public class KafkaConfig {
      * Создает фабрику контейнеров для обработки событий в пакетном режиме.
      *
      * @param consumerFactory фабрика потребителей Kafka
+     * @param concurrency количество потребителей в контейнере
+     * @param environment окружение приложения
      * @return объект ConcurrentKafkaListenerContainerFactory
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactory(ConsumerFactory<String, OrderEvent> consumerFactory) {
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactory(ConsumerFactory<String, OrderEvent> consumerFactory,
+                                                                                                     @Value("${app.projection.consumer.concurrency:1}") int concurrency,
+                                                                                                     Environment environment) {
+        return batchListenerContainerFactory(consumerFactory, concurrency, environment);
+    }
+
+    /**
+     * Создает фабрику контейнеров для проекции заказов клиента. Ее потребители
+     * разбирают только события создания и подтверждения заказа.
+     *
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     * @param concurrency количество потребителей в контейнере
+     * @param environment окружение приложения
+     * @return объект ConcurrentKafkaListenerContainerFactory
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> customerOrderListenerContainerFactory(ObjectMapper objectMapper,
+                                                                                                             EventTypeRegistry eventTypeRegistry,
+                                                                                                             @Value("${app.projection.consumer.concurrency:1}") int concurrency,
+                                                                                                             Environment environment) {
+        ConsumerFactory<String, OrderEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProperties(), new StringDeserializer(),
+                new OrderEventDeserializer(objectMapper, eventTypeRegistry, Set.of(OrderCreatedEvent.class, OrderConfirmedEvent.class)));
+        return batchListenerContainerFactory(consumerFactory, concurrency, environment);
+    }
+
+    /**
+     * Создает фабрику потребителей Kafka.
+     *
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     * @return объект ConsumerFactory
+     */
+    @Bean
+    public ConsumerFactory<String, OrderEvent> consumerFactory(ObjectMapper objectMapper, EventTypeRegistry eventTypeRegistry) {
+        return new DefaultKafkaConsumerFactory<>(consumerProperties(), new StringDeserializer(),
+                new OrderEventDeserializer(objectMapper, eventTypeRegistry));
+    }
+
+    /**
+     * Создает фабрику производителей Kafka с сериализатором событий,
+     * записывающим тип события в заголовок.
+     *
+     * @param kafkaProperties настройки Kafka приложения
+     * @param sslBundles наборы SSL
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     * @return объект ProducerFactory
+     */
+    @Bean
+    public ProducerFactory<String, OrderEvent> producerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                               ObjectMapper objectMapper, EventTypeRegistry eventTypeRegistry) {
+        return new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(sslBundles), new StringSerializer(),
+                new OrderEventSerializer(objectMapper, eventTypeRegistry));
+    }
+
+    /**
+     * Создает клиент Kafka для публикации событий.
+     *
+     * @param producerFactory фабрика производителей Kafka
+     * @return объект KafkaTemplate
+     */
+    @Bean
+    public KafkaTemplate<String, OrderEvent> kafkaTemplate(ProducerFactory<String, OrderEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Создает фабрику контейнеров для обработки событий в пакетном режиме.
+     *
+     * Каждый из {@code concurrency} потребителей получает свою часть партиций топика.
+     * В режиме виртуальных потоков потребители работают на виртуальных потоках.
+     *
+     * @param consumerFactory фабрика потребителей Kafka
+     * @param concurrency количество потребителей в контейнере
+     * @param environment окружение приложения
+     * @return объект ConcurrentKafkaListenerContainerFactory
+     */
+    private static ConcurrentKafkaListenerContainerFactory<String, OrderEvent> batchListenerContainerFactory(ConsumerFactory<String, OrderEvent> consumerFactory,
+                                                                                                             int concurrency, Environment environment) {
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("projection-consumer-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
 
     /**
-     * Создает фабрику потребителей Kafka.
+     * Возвращает общие настройки потребителей Kafka.
      *
-     * @return объект ConsumerFactory
+     * @return настройки потребителя
      */
-    @Bean
-    public ConsumerFactory<String, OrderEvent> consumerFactory() {
+    private static Map<String, Object> consumerProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "order-service-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, org.apache.kafka.common.serialization.StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, org.springframework.kafka.support.serializer.JsonDeserializer.class);
-        props.put("spring.json.trusted.packages", "org.example.eventsourcing.domain.event");
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 }
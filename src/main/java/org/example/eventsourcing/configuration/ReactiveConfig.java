@@ -0,0 +1,42 @@
+package org.example.eventsourcing.configuration;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+/**
+ * Конфигурация реактивного профиля.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    /**
+     * Создает конфигурацию реактивного профиля. Неблокирующее хранилище событий
+     * работает только с MongoDB, поэтому запуск вместе с хранилищем в памяти
+     * или в файлах отклоняется сразу, а не ошибкой отсутствующего бина.
+     *
+     * @param environment окружение приложения
+     * @throws IllegalStateException если вместе с reactive активен профиль memory-store или file-store
+     */
+    public ReactiveConfig(Environment environment) {
+        if (environment.acceptsProfiles(Profiles.of("memory-store | file-store"))) {
+            throw new IllegalStateException("Профиль reactive поддерживает только хранилище событий MongoDB");
+        }
+    }
+
+    /**
+     * Создает фабрику сервера Netty. Без нее WebFlux запустился бы на Tomcat,
+     * который также есть в classpath, и обслуживал бы запросы пулом потоков
+     * вместо небольшого числа потоков цикла событий.
+     *
+     * @return объект NettyReactiveWebServerFactory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
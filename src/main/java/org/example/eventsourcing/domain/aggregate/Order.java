@@ -16,10 +16,31 @@ public class Order {
 
     private OrderId orderId;
     private String customerId;
-    private final List<Product> products = new ArrayList<>();
+    private final OrderLines lines; // Позиции заказа
     private boolean confirmed;
+    private int version; // Количество примененных (сохраненных) событий
     private final List<OrderEvent> uncommittedEvents = new ArrayList<>();
 
+    /**
+     * Создает пустой заказ для восстановления со всеми сведениями о товарах.
+     */
+    public Order() {
+        this(ReplayMode.FULL);
+    }
+
+    /**
+     * Создает пустой заказ для восстановления в указанном режиме.
+     *
+     * @param mode режим восстановления
+     */
+    public Order(ReplayMode mode) {
+        this(OrderLines.empty(mode));
+    }
+
+    private Order(OrderLines lines) {
+        this.lines = lines;
+    }
+
     /**
      * Создает новый заказ.
      *
@@ -28,7 +49,19 @@ public class Order {
      * @return новый объект Order
      */
     public static Order create(OrderId orderId, String customerId) {
-        Order order = new Order();
+        return create(orderId, customerId, ReplayMode.FULL);
+    }
+
+    /**
+     * Создает новый заказ, хранящий позиции в указанном режиме.
+     *
+     * @param orderId идентификатор заказа
+     * @param customerId идентификатор клиента
+     * @param mode режим хранения позиций
+     * @return новый объект Order
+     */
+    public static Order create(OrderId orderId, String customerId, ReplayMode mode) {
+        Order order = new Order(mode);
         order.orderId = orderId;
         order.customerId = customerId;
         order.uncommittedEvents.add(new OrderCreatedEvent(orderId, customerId));
@@ -36,6 +69,26 @@ public class Order {
         return order;
     }
 
+    /**
+     * Восстанавливает заказ из снимка состояния.
+     *
+     * @param orderId идентификатор заказа
+     * @param customerId идентификатор клиента
+     * @param lines позиции заказа (копируются)
+     * @param confirmed статус подтверждения
+     * @param version количество событий, учтенных в снимке
+     * @return восстановленный объект Order
+     */
+    public static Order restore(OrderId orderId, String customerId, OrderLines lines, boolean confirmed, int version) {
+        Order order = new Order(lines.copy());
+        order.orderId = orderId;
+        order.customerId = customerId;
+        order.confirmed = confirmed;
+        order.version = version;
+
+        return order;
+    }
+
     /**
      * Применяет историческое событие для восстановления состояния.
      *
@@ -46,10 +99,11 @@ public class Order {
             this.orderId = createdEvent.getOrderId();
             this.customerId = createdEvent.getCustomerId();
         } else if (event instanceof ItemAddedEvent itemAddedEvent) {
-            this.products.add(itemAddedEvent.getProduct());
+            this.lines.add(itemAddedEvent.getProduct());
         } else if (event instanceof OrderConfirmedEvent) {
             this.confirmed = true;
         }
+        this.version++;
     }
 
     /**
@@ -63,7 +117,7 @@ public class Order {
             throw new IllegalStateException("Нельзя добавить товар в подтвержденный заказ");
         }
         uncommittedEvents.add(new ItemAddedEvent(orderId, product));
-        products.add(product);
+        lines.add(product);
     }
 
     /**
@@ -75,7 +129,7 @@ public class Order {
         if (confirmed) {
             throw new IllegalStateException("Заказ уже подтвержден");
         }
-        if (products.isEmpty()) {
+        if (lines.isEmpty()) {
             throw new IllegalStateException("Нельзя подтвердить пустой заказ");
         }
 
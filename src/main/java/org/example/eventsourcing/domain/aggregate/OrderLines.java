@@ -0,0 +1,240 @@
+package org.example.eventsourcing.domain.aggregate;
+
+import org.example.eventsourcing.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Компактное хранение позиций заказа в параллельных массивах.
+ * Цена хранится как немасштабированное значение long и масштаб;
+ * цены, не помещающиеся в long, хранятся отдельно как BigDecimal. Одинаковые идентификаторы и названия товаров разделяют один экземпляр строки.
+ * В режиме без деталей хранится только количество позиций.
+ */
+public final class OrderLines {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int NO_PRICE = Integer.MIN_VALUE;        // Масштаб для отсутствующей цены
+    private static final int LARGE_PRICE = Integer.MIN_VALUE + 1; // Масштаб для цены, хранимой как BigDecimal
+    private static final int MAX_INTERNED = 100_000;        // Предел таблицы общих строк
+    private static final ConcurrentHashMap<String, String> INTERNED = new ConcurrentHashMap<>();
+
+    private final boolean detailed; // Хранятся ли сведения о товарах
+    private int size;               // Количество позиций
+    private String[] productIds;    // Идентификаторы товаров
+    private String[] names;         // Названия товаров
+    private long[] unscaledPrices;  // Цены без масштаба
+    private int[] priceScales;      // Масштабы цен
+    private int[] quantities;       // Количества
+    private BigDecimal[] largePrices; // Цены, не помещающиеся в long (создается при первой такой цене)
+
+    /**
+     * Создает пустой список позиций.
+     *
+     * @param detailed хранить ли сведения о товарах
+     * @param capacity начальная емкость массивов
+     */
+    private OrderLines(boolean detailed, int capacity) {
+        this.detailed = detailed;
+        if (detailed) {
+            this.productIds = new String[capacity];
+            this.names = new String[capacity];
+            this.unscaledPrices = new long[capacity];
+            this.priceScales = new int[capacity];
+            this.quantities = new int[capacity];
+        }
+    }
+
+    /**
+     * Создает пустой список позиций для указанного режима восстановления.
+     *
+     * @param mode режим восстановления
+     * @return пустой список позиций
+     */
+    public static OrderLines empty(ReplayMode mode) {
+        return new OrderLines(mode == ReplayMode.FULL, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Создает список позиций со сведениями о товарах.
+     *
+     * @param products товары
+     * @return список позиций
+     */
+    public static OrderLines of(List<Product> products) {
+        OrderLines lines = new OrderLines(true, Math.max(products.size(), INITIAL_CAPACITY));
+        products.forEach(lines::add);
+        return lines;
+    }
+
+    /**
+     * Создает список позиций без сведений о товарах.
+     *
+     * @param size количество позиций
+     * @return список позиций
+     */
+    public static OrderLines countOnly(int size) {
+        OrderLines lines = new OrderLines(false, 0);
+        lines.size = size;
+        return lines;
+    }
+
+    /**
+     * Добавляет позицию.
+     *
+     * @param product товар
+     */
+    public void add(Product product) {
+        if (detailed) {
+            ensureCapacity(size + 1);
+            productIds[size] = intern(product.getProductId());
+            names[size] = intern(product.getName());
+            setPrice(size, product.getPrice());
+            quantities[size] = product.getQuantity();
+        }
+        size++;
+    }
+
+    /**
+     * Возвращает количество позиций.
+     *
+     * @return количество позиций
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуст ли список позиций.
+     *
+     * @return true, если позиций нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Проверяет, хранятся ли сведения о товарах.
+     *
+     * @return true, если сведения о товарах хранятся
+     */
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    /**
+     * Собирает товары из компактного представления.
+     *
+     * @return список товаров
+     * @throws IllegalStateException если сведения о товарах не хранятся
+     */
+    public List<Product> toProducts() {
+        if (!detailed) {
+            throw new IllegalStateException("Сведения о товарах не восстановлены");
+        }
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product(productIds[i], names[i], price(i), quantities[i]));
+        }
+        return products;
+    }
+
+    /**
+     * Создает независимую копию списка позиций.
+     *
+     * @return копия списка позиций
+     */
+    public OrderLines copy() {
+        if (!detailed) {
+            return countOnly(size);
+        }
+        OrderLines copy = new OrderLines(true, 0);
+        copy.size = size;
+        copy.productIds = Arrays.copyOf(productIds, size);
+        copy.names = Arrays.copyOf(names, size);
+        copy.unscaledPrices = Arrays.copyOf(unscaledPrices, size);
+        copy.priceScales = Arrays.copyOf(priceScales, size);
+        copy.quantities = Arrays.copyOf(quantities, size);
+        copy.largePrices = largePrices != null ? Arrays.copyOf(largePrices, size) : null;
+        return copy;
+    }
+
+    /**
+     * Записывает цену позиции: немасштабированным long, если значение помещается,
+     * иначе в массив больших цен.
+     *
+     * @param index номер позиции
+     * @param price цена или null
+     */
+    private void setPrice(int index, BigDecimal price) {
+        if (price == null) {
+            priceScales[index] = NO_PRICE;
+        } else if (price.unscaledValue().bitLength() < Long.SIZE) {
+            unscaledPrices[index] = price.unscaledValue().longValue();
+            priceScales[index] = price.scale();
+        } else {
+            if (largePrices == null) {
+                largePrices = new BigDecimal[productIds.length];
+            }
+            largePrices[index] = price;
+            priceScales[index] = LARGE_PRICE;
+        }
+    }
+
+    /**
+     * Восстанавливает цену позиции.
+     *
+     * @param index номер позиции
+     * @return цена или null
+     */
+    private BigDecimal price(int index) {
+        return switch (priceScales[index]) {
+            case NO_PRICE -> null;
+            case LARGE_PRICE -> largePrices[index];
+            default -> BigDecimal.valueOf(unscaledPrices[index], priceScales[index]);
+        };
+    }
+
+    /**
+     * Увеличивает массивы позиций до указанной емкости.
+     *
+     * @param capacity требуемая емкость
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, productIds.length * 2));
+        productIds = Arrays.copyOf(productIds, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        unscaledPrices = Arrays.copyOf(unscaledPrices, newCapacity);
+        priceScales = Arrays.copyOf(priceScales, newCapacity);
+        quantities = Arrays.copyOf(quantities, newCapacity);
+        if (largePrices != null) {
+            largePrices = Arrays.copyOf(largePrices, newCapacity);
+        }
+    }
+
+    /**
+     * Возвращает общий экземпляр строки, пока таблица общих строк не заполнена.
+     *
+     * @param value строка или null
+     * @return общий экземпляр строки или исходная строка
+     */
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = INTERNED.get(value);
+        if (interned != null) {
+            return interned;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return value;
+        }
+        interned = INTERNED.putIfAbsent(value, value);
+        return interned != null ? interned : value;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.eventsourcing.domain.aggregate;
+
+/**
+ * Режим восстановления состояния заказа из событий.
+ */
+public enum ReplayMode {
+    /**
+     * Восстанавливаются все сведения о товарах заказа.
+     */
+    FULL,
+
+    /**
+     * Восстанавливается только состояние, нужное для проверки команд:
+     * подтверждение и количество позиций. Сведения о товарах не сохраняются.
+     */
+    STATE_ONLY
+}
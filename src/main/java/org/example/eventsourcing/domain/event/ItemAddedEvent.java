@@ -1,5 +1,6 @@
 package org.example.eventsourcing.domain.event;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import org.example.eventsourcing.domain.model.OrderId;
@@ -24,12 +25,27 @@ public class ItemAddedEvent implements OrderEvent {
      * @param orderId идентификатор заказа
      * @param product добавленный товар
      */
+    public ItemAddedEvent(OrderId orderId, Product product) {
+        this(UUID.randomUUID().toString(), orderId, product, Instant.now());
+    }
+
+    /**
+     * Восстанавливает событие добавления товара с исходными идентификатором и временем.
+     *
+     * @param eventId идентификатор события
+     * @param orderId идентификатор заказа
+     * @param product добавленный товар
+     * @param timestamp время создания события
+     */
+    @JsonCreator
     public ItemAddedEvent(
+            @JsonProperty("eventId") String eventId,
             @JsonProperty("orderId") OrderId orderId,
-            @JsonProperty("product") Product product) {
-        this.eventId = UUID.randomUUID().toString();
+            @JsonProperty("product") Product product,
+            @JsonProperty("timestamp") Instant timestamp) {
+        this.eventId = eventId;
         this.orderId = orderId;
         this.product = product;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
     }
 }
@@ -1,5 +1,7 @@
 package org.example.eventsourcing.domain.event;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import org.example.eventsourcing.domain.model.OrderId;
 
@@ -21,8 +23,23 @@ public class OrderConfirmedEvent implements OrderEvent {
      * @param orderId идентификатор заказа
      */
     public OrderConfirmedEvent(OrderId orderId) {
-        this.eventId = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), orderId, Instant.now());
+    }
+
+    /**
+     * Восстанавливает событие подтверждения заказа с исходными идентификатором и временем.
+     *
+     * @param eventId идентификатор события
+     * @param orderId идентификатор заказа
+     * @param timestamp время создания события
+     */
+    @JsonCreator
+    public OrderConfirmedEvent(
+            @JsonProperty("eventId") String eventId,
+            @JsonProperty("orderId") OrderId orderId,
+            @JsonProperty("timestamp") Instant timestamp) {
+        this.eventId = eventId;
         this.orderId = orderId;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
     }
 }
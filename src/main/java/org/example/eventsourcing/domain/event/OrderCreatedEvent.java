@@ -1,5 +1,6 @@
 package org.example.eventsourcing.domain.event;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import org.example.eventsourcing.domain.model.OrderId;
@@ -21,13 +22,28 @@ public class OrderCreatedEvent implements OrderEvent {
      * @param orderId идентификатор заказа
      * @param customerId идентификатор клиента
      */
+    public OrderCreatedEvent(OrderId orderId, String customerId) {
+        this(UUID.randomUUID().toString(), orderId, customerId, Instant.now());
+    }
+
+    /**
+     * Восстанавливает событие создания заказа с исходными идентификатором и временем.
+     *
+     * @param eventId идентификатор события
+     * @param orderId идентификатор заказа
+     * @param customerId идентификатор клиента
+     * @param timestamp время создания события
+     */
+    @JsonCreator
     public OrderCreatedEvent(
-            @JsonProperty("eventId") OrderId orderId,
-            @JsonProperty("customerId") String customerId
+            @JsonProperty("eventId") String eventId,
+            @JsonProperty("orderId") OrderId orderId,
+            @JsonProperty("customerId") String customerId,
+            @JsonProperty("timestamp") Instant timestamp
     ) {
-        this.eventId = UUID.randomUUID().toString();
+        this.eventId = eventId;
         this.orderId = orderId;
         this.customerId = customerId;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
     }
 }
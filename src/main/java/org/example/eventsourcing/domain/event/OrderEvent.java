@@ -2,6 +2,8 @@ package org.example.eventsourcing.domain.event;
 
 import org.example.eventsourcing.domain.model.OrderId;
 
+import java.time.Instant;
+
 /**
  * Базовый интерфейс для всех событий домена, связанных с заказами.
  */
@@ -20,4 +22,11 @@ public interface OrderEvent {
      * @return идентификатор события
      */
     String getEventId();
+
+    /**
+     * Возвращает время создания события.
+     *
+     * @return время создания события
+     */
+    Instant getTimestamp();
 }
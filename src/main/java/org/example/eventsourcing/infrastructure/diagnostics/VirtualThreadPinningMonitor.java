@@ -0,0 +1,114 @@
+package org.example.eventsourcing.infrastructure.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Отслеживает закрепление виртуальных потоков за потоками-носителями.
+ * <p>
+ * Виртуальный поток, заблокированный внутри synchronized-блока или нативного
+ * вызова, удерживает поток-носитель, и под нагрузкой пул носителей исчерпывается.
+ * Монитор подписывается на событие JFR {@code jdk.VirtualThreadPinned},
+ * журналирует верхние кадры стека и считает такие события в метрике
+ * {@code jvm.threads.virtual.pinned}. На JVM без виртуальных потоков
+ * событие не возникает: монитор предупреждает об этом при запуске, так как
+ * spring.threads.virtual.enabled там тоже не действует.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned"; // Событие JFR о закреплении
+    private static final int VIRTUAL_THREADS_JDK = 21;                     // Первая версия JDK с виртуальными потоками
+    private final Duration threshold;   // Минимальная длительность закрепления
+    private final int stackDepth;       // Количество журналируемых кадров стека
+    private final Counter pinnedCounter; // Счетчик закреплений
+    private RecordingStream stream;      // Поток событий JFR
+
+    /**
+     * Создает новый монитор закреплений.
+     *
+     * @param meterRegistry реестр метрик
+     * @param threshold минимальная длительность закрепления
+     * @param stackDepth количество журналируемых кадров стека
+     */
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.threads.pinning-monitor.threshold:20ms}") Duration threshold,
+                                       @Value("${app.threads.pinning-monitor.stack-depth:8}") int stackDepth) {
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Закрепления виртуальных потоков дольше порога")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает подписку на события JFR.
+     */
+    @PostConstruct
+    public void start() {
+        int jdk = Runtime.version().feature();
+        if (jdk < VIRTUAL_THREADS_JDK) {
+            log.warn("Виртуальные потоки недоступны на JDK {}: команды и проекции работают на платформенных потоках, "
+                    + "закреплений не будет", jdk);
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Мониторинг закреплений виртуальных потоков запущен, порог {}", threshold);
+    }
+
+    /**
+     * Останавливает подписку на события JFR.
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Обрабатывает событие закрепления виртуального потока.
+     *
+     * @param event событие JFR
+     */
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        log.warn("Виртуальный поток закреплен за носителем на {} мс:\n{}",
+                event.getDuration().toMillis(), topFrames(event.getStackTrace()));
+    }
+
+    /**
+     * Форматирует верхние кадры стека.
+     *
+     * @param stackTrace стек вызовов
+     * @return кадры стека по одному в строке
+     */
+    private String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\tстек недоступен";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(stackDepth)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
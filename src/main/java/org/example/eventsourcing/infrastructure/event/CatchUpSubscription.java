@@ -0,0 +1,81 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Подписка на глобальный журнал событий, догоняющая его от контрольной точки.
+ * Читает журнал крупными пакетами и передает события обработчику по порядку.
+ * <p>
+ * Позиции резервируются до записи, поэтому событие с меньшей позицией может
+ * стать видимым позже события с большей. Пропуск в позициях, появившийся
+ * недавно (моложе gapTimeout), считается незавершенной записью: чтение
+ * останавливается перед ним и продолжится при следующем вызове. Более старые
+ * пропуски (например, от отклоненных при конфликте версий записей) пропускаются.
+ */
+public class CatchUpSubscription {
+    private final EventStore eventStore; // Хранилище событий
+    private final int batchSize;         // Размер пакета чтения
+    private final Duration gapTimeout;   // Время ожидания незавершенных записей
+    private long checkpoint;             // Позиция последнего обработанного события
+
+    /**
+     * Создает новую подписку.
+     *
+     * @param eventStore хранилище событий
+     * @param fromPosition позиция, после которой нужны события
+     * @param batchSize размер пакета чтения
+     * @param gapTimeout время ожидания незавершенных записей
+     */
+    public CatchUpSubscription(EventStore eventStore, long fromPosition, int batchSize, Duration gapTimeout) {
+        this.eventStore = eventStore;
+        this.checkpoint = fromPosition;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+    }
+
+    /**
+     * Читает журнал до текущего конца и передает события обработчику.
+     *
+     * @param handler обработчик событий
+     * @return количество обработанных событий
+     */
+    public long catchUp(Consumer<RecordedEvent> handler) {
+        long processed = 0;
+        while (true) {
+            List<RecordedEvent> batch = eventStore.readAll(checkpoint, batchSize);
+            for (RecordedEvent event : batch) {
+                if (event.getPosition() != checkpoint + 1 && isRecent(event)) {
+                    return processed;
+                }
+                handler.accept(event);
+                checkpoint = event.getPosition();
+                processed++;
+            }
+            if (batch.size() < batchSize) {
+                return processed;
+            }
+        }
+    }
+
+    /**
+     * Возвращает позицию последнего обработанного события.
+     *
+     * @return контрольная точка
+     */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Проверяет, записано ли событие недавно.
+     *
+     * @param event событие журнала
+     * @return true, если событие моложе gapTimeout
+     */
+    private boolean isRecent(RecordedEvent event) {
+        return event.getStoredAt() != null && event.getStoredAt().isAfter(Instant.now().minus(gapTimeout));
+    }
+}
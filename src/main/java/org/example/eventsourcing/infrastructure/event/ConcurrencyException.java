@@ -0,0 +1,26 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import lombok.Getter;
+import org.example.eventsourcing.domain.model.OrderId;
+
+/**
+ * Исключение, возникающее при конкурентной записи событий одного агрегата.
+ */
+@Getter
+public class ConcurrencyException extends RuntimeException {
+    private final OrderId orderId;       // Идентификатор заказа
+    private final int expectedVersion;   // Ожидаемая версия агрегата
+
+    /**
+     * Создает новое исключение конкурентной записи.
+     *
+     * @param orderId идентификатор заказа
+     * @param expectedVersion ожидаемая версия агрегата
+     * @param cause исходное исключение
+     */
+    public ConcurrencyException(OrderId orderId, int expectedVersion, Throwable cause) {
+        super("Конфликт версий заказа " + orderId.getValue() + ": ожидалась версия " + expectedVersion, cause);
+        this.orderId = orderId;
+        this.expectedVersion = expectedVersion;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Интерфейс исходящего буфера событий, ожидающих публикации.
+ */
+public interface EventOutbox {
+    /**
+     * Возвращает неопубликованные события в порядке записи.
+     * @param limit максимальное количество событий
+     * @return список неопубликованных событий
+     */
+    List<OutboxEvent> findUnpublished(int limit);
+
+    /**
+     * Отмечает события как опубликованные.
+     * @param ids идентификаторы записей в хранилище
+     */
+    void markPublished(Collection<String> ids);
+}
@@ -10,10 +10,19 @@ import java.util.List;
 public interface EventRepository extends MongoRepository<StoredEvent, String> {
 
     /**
-     * Находит события по идентификатору агрегата, отсортированные по времени.
+     * Находит события по идентификатору агрегата, отсортированные по версии.
      *
      * @param aggregateId идентификатор агрегата
      * @return список сохраненных событий
      */
-    List<StoredEvent> findByAggregateIdOrderByTimestampAsc(String aggregateId);
+    List<StoredEvent> findByAggregateIdOrderByVersionAsc(String aggregateId);
+
+    /**
+     * Находит события агрегата с версией больше указанной, отсортированные по версии.
+     *
+     * @param aggregateId идентификатор агрегата
+     * @param version версия, после которой нужны события
+     * @return список сохраненных событий
+     */
+    List<StoredEvent> findByAggregateIdAndVersionGreaterThanOrderByVersionAsc(String aggregateId, int version);
 }
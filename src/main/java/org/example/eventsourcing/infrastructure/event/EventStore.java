@@ -5,6 +5,7 @@ import org.example.eventsourcing.domain.event.OrderEvent;
 import org.example.eventsourcing.domain.model.OrderId;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс для операций с хранилищем событий.
@@ -13,9 +14,11 @@ public interface EventStore {
     /**
      * Сохраняет события для указанного заказа.
      * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
      * @param events список событий
+     * @throws ConcurrencyException если версия агрегата уже изменилась
      */
-    void saveEvents(OrderId orderId, List<OrderEvent> events);
+    void saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events);
 
     /**
      * Загружает события для указанного заказа.
@@ -23,4 +26,30 @@ public interface EventStore {
      * @return список событий
      */
     List<OrderEvent> loadEvents(OrderId orderId);
+
+    /**
+     * Загружает события для указанного заказа с версией больше указанной.
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return список событий
+     */
+    List<OrderEvent> loadEvents(OrderId orderId, int afterVersion);
+
+    /**
+     * Читает события для указанного заказа с версией больше указанной по одному,
+     * не загружая весь поток в память. Поток необходимо закрыть после чтения.
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return поток событий в порядке версий
+     */
+    Stream<OrderEvent> streamEvents(OrderId orderId, int afterVersion);
+
+    /**
+     * Читает события всех заказов из глобального журнала в порядке позиций.
+     * Позиции возрастают монотонно, но могут содержать пропуски.
+     * @param afterPosition позиция, после которой нужны события
+     * @param limit максимальное количество событий
+     * @return список событий с позициями
+     */
+    List<RecordedEvent> readAll(long afterPosition, int limit);
 }
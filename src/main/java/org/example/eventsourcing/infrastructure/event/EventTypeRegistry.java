@@ -7,24 +7,41 @@ import org.example.eventsourcing.domain.event.OrderCreatedEvent;
 import org.example.eventsourcing.domain.event.OrderEvent;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Реестр для сопоставления имен типов событий с их классами.
+ * Кроме имени, каждому типу назначен постоянный компактный идентификатор
+ * для заголовков сообщений; идентификаторы нельзя менять и переиспользовать.
  */
 @Component
 public class EventTypeRegistry {
-    private final Map<String, Class<? extends OrderEvent>> eventTypes = new HashMap<>();
+    private final Map<String, Class<? extends OrderEvent>> eventTypes = new HashMap<>(); // Классы по имени типа
+    private final Map<Integer, Class<? extends OrderEvent>> eventClassesById = new HashMap<>(); // Классы по идентификатору
+    private final Map<Class<? extends OrderEvent>, Integer> typeIds = new HashMap<>();         // Идентификаторы по классу
 
     /**
      * Регистрирует известные типы событий.
      */
     @PostConstruct
     public void registerEvents() {
-        eventTypes.put(OrderCreatedEvent.class.getSimpleName(), OrderCreatedEvent.class);
-        eventTypes.put(ItemAddedEvent.class.getSimpleName(), ItemAddedEvent.class);
-        eventTypes.put(OrderConfirmedEvent.class.getSimpleName(), OrderConfirmedEvent.class);
+        register(1, OrderCreatedEvent.class);
+        register(2, ItemAddedEvent.class);
+        register(3, OrderConfirmedEvent.class);
+    }
+
+    /**
+     * Регистрирует тип события под именем класса и идентификатором.
+     *
+     * @param typeId идентификатор типа
+     * @param eventClass класс события
+     */
+    private void register(int typeId, Class<? extends OrderEvent> eventClass) {
+        eventTypes.put(eventClass.getSimpleName(), eventClass);
+        eventClassesById.put(typeId, eventClass);
+        typeIds.put(eventClass, typeId);
     }
 
     /**
@@ -41,4 +58,28 @@ public class EventTypeRegistry {
         }
         return eventClass;
     }
+
+    /**
+     * Возвращает идентификатор типа события.
+     *
+     * @param eventClass класс события
+     * @return идентификатор типа
+     * @throws IllegalArgumentException если тип события неизвестен
+     */
+    public int getTypeId(Class<? extends OrderEvent> eventClass) {
+        Integer typeId = typeIds.get(eventClass);
+        if (typeId == null) {
+            throw new IllegalArgumentException("Неизвестный тип события: " + eventClass.getName());
+        }
+        return typeId;
+    }
+
+    /**
+     * Возвращает классы событий по идентификатору типа.
+     *
+     * @return классы событий по идентификатору
+     */
+    public Map<Integer, Class<? extends OrderEvent>> getEventClassesById() {
+        return Collections.unmodifiableMap(eventClassesById);
+    }
 }
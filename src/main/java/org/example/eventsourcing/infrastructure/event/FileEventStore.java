@@ -0,0 +1,672 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import jakarta.annotation.PreDestroy;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Реализация хранилища событий в локальных файлах сегментов, отображаемых в память.
+ * <p>
+ * События только дописываются в конец текущего сегмента записями с префиксом длины:
+ * {@code [длина тела][CRC32 тела][тело]}, где тело — позиция в журнале, время записи,
+ * версия, идентификатор заказа, тип события, кодек и закодированное событие.
+ * Заполненный сегмент сбрасывается на диск и сменяется новым. Смещения записей
+ * по заказам и по позициям журнала хранятся в памяти и восстанавливаются чтением
+ * сегментов при запуске; недописанная запись в конце сегмента (неверная длина
+ * или CRC) отбрасывается. Запись выполняется под одной блокировкой, чтение
+ * индекса и сегментов — без блокировок.
+ * <p>
+ * Журнал одновременно служит исходящим буфером: позиция, до которой все события
+ * опубликованы, хранится в файле {@code outbox.checkpoint}.
+ */
+@Component
+@Profile("file-store")
+public class FileEventStore implements EventStore, EventOutbox {
+    private static final String SEGMENT_PREFIX = "segment-";        // Префикс имени файла сегмента
+    private static final String SEGMENT_SUFFIX = ".log";            // Расширение файла сегмента
+    private static final String CHECKPOINT_FILE = "outbox.checkpoint"; // Файл позиции публикации
+    private static final int RECORD_HEADER = 8;                     // Длина и CRC32 записи
+    private final EventSerializer eventSerializer;     // Сериализатор событий
+    private final EventTypeRegistry eventTypeRegistry; // Реестр типов событий
+    private final Path directory;                      // Каталог сегментов
+    private final int segmentSize;                     // Размер нового сегмента в байтах
+    private final FsyncPolicy fsyncPolicy;             // Политика сброса на диск
+    private final ReentrantLock writeLock = new ReentrantLock(); // Блокировка записи
+    private final List<Segment> segments = new CopyOnWriteArrayList<>(); // Сегменты по порядку
+    private final ConcurrentHashMap<String, Locations> streams = new ConcurrentHashMap<>(); // Смещения событий по заказу
+    private final Locations journal = new Locations();  // Смещения событий по позиции журнала
+    private final Object syncMonitor = new Object();    // Монитор группового сброса
+    private final ConcurrentSkipListSet<Long> publishedAhead = new ConcurrentSkipListSet<>(); // Опубликованные позиции после отметки
+    private final FileChannel checkpointChannel;        // Файл позиции публикации
+    private final ScheduledExecutorService syncScheduler; // Периодический сброс на диск
+    private Segment current;                            // Текущий сегмент записи
+    private int writeOffset;                            // Смещение записи в текущем сегменте
+    private volatile Tail tail;                         // Конец записанной части журнала
+    private Tail synced;                                // Конец сброшенной на диск части журнала
+    private volatile long publishedPosition;            // Позиция, до которой все события опубликованы
+
+    /**
+     * Создает файловое хранилище событий, открывая существующие сегменты
+     * и восстанавливая по ним индекс.
+     *
+     * @param eventSerializer сериализатор событий
+     * @param eventTypeRegistry реестр типов событий
+     * @param directory каталог сегментов
+     * @param segmentSize размер нового сегмента
+     * @param fsyncPolicy политика сброса на диск
+     * @param fsyncInterval интервал сброса для политики {@link FsyncPolicy#PERIODIC}
+     * @throws UncheckedIOException если файлы журнала не удалось открыть
+     * @throws IllegalStateException если журнал поврежден
+     */
+    public FileEventStore(EventSerializer eventSerializer, EventTypeRegistry eventTypeRegistry,
+                          @Value("${app.event-store.file.directory:data/event-store}") String directory,
+                          @Value("${app.event-store.file.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${app.event-store.file.fsync:group}") FsyncPolicy fsyncPolicy,
+                          @Value("${app.event-store.file.fsync-interval:1s}") Duration fsyncInterval) {
+        this.eventSerializer = eventSerializer;
+        this.eventTypeRegistry = eventTypeRegistry;
+        this.directory = Path.of(directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncPolicy = fsyncPolicy;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+            checkpointChannel = FileChannel.open(this.directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            publishedPosition = readCheckpoint();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал событий " + directory, e);
+        }
+        synced = tail;
+        if (fsyncPolicy == FsyncPolicy.PERIODIC) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "event-store-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = Math.max(fsyncInterval.toMillis(), 1);
+            syncScheduler.scheduleWithFixedDelay(() -> sync(tail.position()), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncScheduler = null;
+        }
+    }
+
+    /**
+     * Сохраняет события для указанного заказа.
+     * События кодируются до захвата блокировки; под блокировкой проверяется версия
+     * потока, назначаются позиции и записи копируются в сегмент. Затем запись
+     * сбрасывается на диск согласно политике.
+     *
+     * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
+     * @param events список событий
+     * @throws ConcurrencyException если версия агрегата уже изменилась
+     * @throws IllegalArgumentException если события не помещаются в сегмент
+     */
+    @Override
+    public void saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<byte[]> bodies = new ArrayList<>(events.size());
+        long storedAt = System.currentTimeMillis();
+        int batchSize = 0;
+        for (int i = 0; i < events.size(); i++) {
+            byte[] body = encode(orderId, expectedVersion + i + 1, storedAt, events.get(i));
+            bodies.add(body);
+            batchSize += RECORD_HEADER + body.length;
+        }
+        if (batchSize > segmentSize) {
+            throw new IllegalArgumentException("События заказа " + orderId.getValue() + " не помещаются в сегмент журнала");
+        }
+
+        long lastPosition;
+        writeLock.lock();
+        try {
+            Locations stream = streams.get(orderId.getValue());
+            if ((stream == null ? 0 : stream.size()) != expectedVersion) {
+                throw new ConcurrencyException(orderId, expectedVersion, null);
+            }
+            if (writeOffset + batchSize > current.capacity()) {
+                roll();
+            }
+
+            int firstOffset = writeOffset;
+            for (byte[] body : bodies) {
+                long position = journal.size() + 1L;
+                ByteBuffer.wrap(body).putLong(0, position);
+                long location = append(body);
+                if (stream == null) {
+                    stream = streams.computeIfAbsent(orderId.getValue(), id -> new Locations());
+                }
+                stream.add(location);
+                journal.add(location);
+            }
+            lastPosition = journal.size();
+            tail = new Tail(lastPosition, segments.size() - 1, writeOffset);
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                current.buffer().force(firstOffset, writeOffset - firstOffset);
+                synchronized (syncMonitor) {
+                    synced = tail;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            sync(lastPosition);
+        }
+    }
+
+    /**
+     * Загружает события для указанного заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return список событий
+     */
+    @Override
+    public List<OrderEvent> loadEvents(OrderId orderId) {
+        return loadEvents(orderId, 0);
+    }
+
+    /**
+     * Загружает события для указанного заказа с версией больше указанной.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return список событий
+     */
+    @Override
+    public List<OrderEvent> loadEvents(OrderId orderId, int afterVersion) {
+        try (Stream<OrderEvent> events = streamEvents(orderId, afterVersion)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Читает события для указанного заказа с версией больше указанной по одному.
+     * Поток видит события, записанные до его создания.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return поток событий в порядке версий
+     */
+    @Override
+    public Stream<OrderEvent> streamEvents(OrderId orderId, int afterVersion) {
+        Locations stream = streams.get(orderId.getValue());
+        if (stream == null) {
+            return Stream.empty();
+        }
+        int size = stream.size();
+        long[] locations = stream.entries();
+        return IntStream.range(Math.max(afterVersion, 0), size)
+                .mapToObj(index -> decode(read(locations[index])));
+    }
+
+    /**
+     * Читает события всех заказов из глобального журнала в порядке позиций.
+     * Позиции в файловом журнале идут без пропусков.
+     *
+     * @param afterPosition позиция, после которой нужны события
+     * @param limit максимальное количество событий
+     * @return список событий с позициями
+     */
+    @Override
+    public List<RecordedEvent> readAll(long afterPosition, int limit) {
+        int size = journal.size();
+        long[] locations = journal.entries();
+        long from = Math.max(afterPosition, 0);
+        long to = Math.min(size, from + limit);
+        List<RecordedEvent> events = new ArrayList<>((int) Math.max(to - from, 0));
+        for (long index = from; index < to; index++) {
+            Entry entry = read(locations[(int) index]);
+            events.add(new RecordedEvent(entry.position(), new OrderId(entry.orderId()), entry.version(),
+                    Instant.ofEpochMilli(entry.storedAt()), decode(entry)));
+        }
+        return events;
+    }
+
+    /**
+     * Возвращает неопубликованные события в порядке позиций.
+     * Идентификатор записи — позиция события в журнале.
+     *
+     * @param limit максимальное количество событий
+     * @return список неопубликованных событий
+     */
+    @Override
+    public List<OutboxEvent> findUnpublished(int limit) {
+        int size = journal.size();
+        long[] locations = journal.entries();
+        List<OutboxEvent> events = new ArrayList<>(Math.min(limit, Math.max(size - (int) publishedPosition, 0)));
+        for (long position = publishedPosition + 1; position <= size && events.size() < limit; position++) {
+            if (publishedAhead.contains(position)) {
+                continue;
+            }
+            Entry entry = read(locations[(int) (position - 1)]);
+            events.add(new OutboxEvent(String.valueOf(position), new OrderId(entry.orderId()), entry.version(), decode(entry)));
+        }
+        return events;
+    }
+
+    /**
+     * Отмечает события как опубликованные и продвигает позицию публикации
+     * по непрерывному префиксу опубликованных событий.
+     *
+     * @param ids позиции событий в журнале
+     * @throws UncheckedIOException если позицию публикации не удалось записать
+     */
+    @Override
+    public void markPublished(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(id -> publishedAhead.add(Long.parseLong(id)));
+        synchronized (publishedAhead) {
+            long position = publishedPosition;
+            while (publishedAhead.remove(position + 1)) {
+                position++;
+            }
+            if (position == publishedPosition) {
+                return;
+            }
+            try {
+                checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось записать позицию публикации", e);
+            }
+            publishedPosition = position;
+        }
+    }
+
+    /**
+     * Сбрасывает журнал на диск и закрывает файлы.
+     */
+    @PreDestroy
+    public void close() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdown();
+        }
+        writeLock.lock();
+        try {
+            current.buffer().force();
+            for (Segment segment : segments) {
+                segment.channel().close();
+            }
+            checkpointChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось закрыть журнал событий", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает журнал на диск, если указанная позиция еще не сброшена.
+     * Параллельные вызовы ждут на мониторе, и один сброс покрывает все
+     * записи, сделанные до него. Сбрасывается только диапазон текущего сегмента
+     * после прошлого сброса: предыдущие сегменты сбрасываются при смене.
+     *
+     * @param position позиция, которая должна оказаться на диске
+     */
+    private void sync(long position) {
+        synchronized (syncMonitor) {
+            if (synced.position() >= position) {
+                return;
+            }
+            Tail target = tail;
+            int from = synced.segmentIndex() == target.segmentIndex() ? synced.offset() : 0;
+            segments.get(target.segmentIndex()).buffer().force(from, target.offset() - from);
+            synced = target;
+        }
+    }
+
+    /**
+     * Копирует запись в текущий сегмент. Длина записывается последней,
+     * чтобы недописанная запись не считалась целой при восстановлении.
+     *
+     * @param body тело записи
+     * @return расположение записи: номер сегмента и смещение
+     */
+    private long append(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        MappedByteBuffer buffer = current.buffer();
+        buffer.put(writeOffset + RECORD_HEADER, body);
+        buffer.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(writeOffset, body.length);
+        long location = location(segments.size() - 1, writeOffset);
+        writeOffset += RECORD_HEADER + body.length;
+        return location;
+    }
+
+    /**
+     * Сбрасывает заполненный сегмент на диск и открывает следующий.
+     *
+     * @throws UncheckedIOException если сегмент не удалось создать
+     */
+    private void roll() {
+        current.buffer().force();
+        try {
+            current = openSegment(segmentPath(journal.size() + 1L));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать сегмент журнала", e);
+        }
+        segments.add(current);
+        writeOffset = 0;
+    }
+
+    /**
+     * Открывает сегменты каталога по порядку и восстанавливает индекс.
+     * Остаток недописанной записи в конце последнего сегмента обнуляется,
+     * чтобы новые записи не смешивались с ним.
+     *
+     * @throws IOException если сегмент не удалось открыть
+     * @throws IllegalStateException если версии или позиции в журнале нарушены
+     */
+    private void recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path path : paths) {
+            current = openSegment(path);
+            segments.add(current);
+            writeOffset = scan(segments.size() - 1);
+        }
+        if (current == null) {
+            current = openSegment(segmentPath(1));
+            segments.add(current);
+            writeOffset = 0;
+        }
+        if (writeOffset + Integer.BYTES <= current.capacity() && current.buffer().getInt(writeOffset) != 0) {
+            current.buffer().put(writeOffset, new byte[current.capacity() - writeOffset]);
+            current.buffer().force();
+        }
+        tail = new Tail(journal.size(), segments.size() - 1, writeOffset);
+    }
+
+    /**
+     * Читает записи сегмента до первой пустой или поврежденной и добавляет их в индекс.
+     *
+     * @param segmentIndex номер сегмента
+     * @return смещение конца целых записей
+     * @throws IllegalStateException если версии или позиции в журнале нарушены
+     */
+    private int scan(int segmentIndex) {
+        MappedByteBuffer buffer = segments.get(segmentIndex).buffer();
+        int offset = 0;
+        while (offset + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(offset + RECORD_HEADER, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+
+            Entry entry = parse(ByteBuffer.wrap(body));
+            Locations stream = streams.computeIfAbsent(entry.orderId(), id -> new Locations());
+            if (entry.position() != journal.size() + 1L || entry.version() != stream.size() + 1) {
+                throw new IllegalStateException("Журнал событий поврежден: позиция " + entry.position()
+                        + ", заказ " + entry.orderId() + ", версия " + entry.version());
+            }
+            long location = location(segmentIndex, offset);
+            stream.add(location);
+            journal.add(location);
+            offset += RECORD_HEADER + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Открывает сегмент и отображает его в память. Новый сегмент создается
+     * заданного размера, существующий отображается целиком.
+     *
+     * @param path путь к файлу сегмента
+     * @return сегмент
+     * @throws IOException если файл не удалось открыть
+     */
+    private Segment openSegment(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size() > 0 ? channel.size() : segmentSize;
+        return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * Возвращает путь к сегменту, начинающемуся с указанной позиции.
+     *
+     * @param firstPosition позиция первой записи сегмента
+     * @return путь к файлу сегмента
+     */
+    private Path segmentPath(long firstPosition) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstPosition, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Читает позицию публикации из файла.
+     *
+     * @return позиция, до которой все события опубликованы
+     * @throws IOException если файл не удалось прочитать
+     */
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (checkpointChannel.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return Math.min(buffer.getLong(0), journal.size());
+    }
+
+    /**
+     * Кодирует тело записи; позиция заполняется при записи в журнал.
+     *
+     * @param orderId идентификатор заказа
+     * @param version версия события
+     * @param storedAt время записи в миллисекундах
+     * @param event событие домена
+     * @return тело записи
+     */
+    private byte[] encode(OrderId orderId, int version, long storedAt, OrderEvent event) {
+        byte[] aggregateId = orderId.getValue().getBytes(StandardCharsets.UTF_8);
+        byte[] eventType = event.getClass().getSimpleName().getBytes(StandardCharsets.UTF_8);
+        byte[] codec = eventSerializer.getDefaultCodec().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = eventSerializer.encode(event);
+        ByteBuffer body = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES + Short.BYTES * 3
+                + aggregateId.length + eventType.length + codec.length + payload.length);
+        body.putLong(0)
+                .putLong(storedAt)
+                .putInt(version)
+                .putShort((short) aggregateId.length).put(aggregateId)
+                .putShort((short) eventType.length).put(eventType)
+                .putShort((short) codec.length).put(codec)
+                .put(payload);
+        return body.array();
+    }
+
+    /**
+     * Читает запись журнала по расположению.
+     *
+     * @param location номер сегмента и смещение записи
+     * @return запись журнала
+     */
+    private Entry read(long location) {
+        MappedByteBuffer buffer = segments.get((int) (location >>> 32)).buffer();
+        int offset = (int) location;
+        return parse(buffer.slice(offset + RECORD_HEADER, buffer.getInt(offset)));
+    }
+
+    /**
+     * Разбирает тело записи журнала.
+     *
+     * @param body тело записи
+     * @return запись журнала
+     */
+    private static Entry parse(ByteBuffer body) {
+        long position = body.getLong();
+        long storedAt = body.getLong();
+        int version = body.getInt();
+        String orderId = readString(body);
+        String eventType = readString(body);
+        String codec = readString(body);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        return new Entry(position, storedAt, version, orderId, eventType, codec, payload);
+    }
+
+    /**
+     * Читает строку с префиксом длины.
+     *
+     * @param buffer буфер
+     * @return строка
+     */
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Декодирует событие записи журнала.
+     *
+     * @param entry запись журнала
+     * @return событие домена
+     */
+    private OrderEvent decode(Entry entry) {
+        return eventSerializer.decode(entry.codec(), entry.payload(), eventTypeRegistry.getEventClass(entry.eventType()));
+    }
+
+    /**
+     * Кодирует расположение записи в одно число.
+     *
+     * @param segmentIndex номер сегмента
+     * @param offset смещение записи в сегменте
+     * @return расположение записи
+     */
+    private static long location(int segmentIndex, int offset) {
+        return (long) segmentIndex << 32 | offset;
+    }
+
+    /**
+     * Файл сегмента, отображенный в память.
+     *
+     * @param channel канал файла
+     * @param buffer отображение файла
+     */
+    private record Segment(FileChannel channel, MappedByteBuffer buffer) {
+
+        /**
+         * Возвращает размер сегмента.
+         *
+         * @return размер в байтах
+         */
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+
+    /**
+     * Конец записанной части журнала.
+     *
+     * @param position позиция последнего события
+     * @param segmentIndex номер сегмента
+     * @param offset смещение конца записей в сегменте
+     */
+    private record Tail(long position, int segmentIndex, int offset) {
+    }
+
+    /**
+     * Запись журнала.
+     *
+     * @param position позиция в журнале
+     * @param storedAt время записи в миллисекундах
+     * @param version версия события в потоке заказа
+     * @param orderId идентификатор заказа
+     * @param eventType имя типа события
+     * @param codec имя кодека
+     * @param payload закодированное событие
+     */
+    private record Entry(long position, long storedAt, int version, String orderId, String eventType, String codec, byte[] payload) {
+    }
+
+    /**
+     * Расширяемый массив расположений записей. Дописывается только под блокировкой
+     * записи; читатели без блокировки сначала читают размер, затем массив,
+     * и видят все элементы до прочитанного размера.
+     */
+    private static final class Locations {
+        private volatile long[] entries = new long[4]; // Расположения записей
+        private volatile int size;                     // Количество записей
+
+        /**
+         * Дописывает расположение записи.
+         *
+         * @param location расположение записи
+         */
+        void add(long location) {
+            long[] current = entries;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                entries = current;
+            }
+            current[size] = location;
+            size = size + 1;
+        }
+
+        /**
+         * Возвращает количество записей.
+         *
+         * @return количество записей
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Возвращает массив расположений; читать его можно до размера,
+         * прочитанного перед вызовом.
+         *
+         * @return массив расположений
+         */
+        long[] entries() {
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.eventsourcing.infrastructure.event;
+
+/**
+ * Политика сброса файлового журнала событий на диск.
+ */
+public enum FsyncPolicy {
+    /**
+     * Каждая запись сбрасывается на диск до возврата из сохранения.
+     */
+    ALWAYS,
+
+    /**
+     * Сохранение ждет сброса на диск, но параллельные записи
+     * сбрасываются одним вызовом.
+     */
+    GROUP,
+
+    /**
+     * Журнал сбрасывается на диск фоновым потоком с заданным интервалом;
+     * сохранение не ждет сброса, и при сбое ОС последние записи могут потеряться.
+     */
+    PERIODIC
+}
@@ -0,0 +1,227 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Групповая фиксация записей событий.
+ * <p>
+ * Записи от параллельных команд собираются в очередь; фоновый поток забирает
+ * их пакетом, пока не наберется maxBatchSize записей или не истечет maxDelay
+ * с момента первой, резервирует позиции журнала одним инкрементом счетчика
+ * и пишет пакет одной неупорядоченной массовой вставкой. Каждая запись
+ * завершается отдельно: конфликт уникального индекса (aggregateId, version)
+ * возвращается только команде, чья запись его вызвала.
+ * <p>
+ * Каждая принятая запись завершается: записи, попавшие в очередь после
+ * остановки или оставшиеся в ней после завершения фонового потока,
+ * завершаются ошибкой.
+ */
+@Slf4j
+class GroupCommitWriter implements AutoCloseable {
+    private static final long POLL_TIMEOUT_MS = 100; // Период проверки остановки
+    private final MongoTemplate mongoTemplate;   // Клиент MongoDB
+    private final int maxBatchSize;              // Максимальный размер пакета
+    private final long maxDelayNanos;            // Максимальное ожидание пакета
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>(); // Ожидающие записи
+    private final Thread flusher;                // Поток фиксации
+    private volatile boolean running = true;     // Принимает ли записи
+
+    /**
+     * Создает и запускает групповую фиксацию.
+     *
+     * @param mongoTemplate клиент MongoDB
+     * @param maxBatchSize максимальный размер пакета
+     * @param maxDelay максимальное ожидание пакета
+     */
+    GroupCommitWriter(MongoTemplate mongoTemplate, int maxBatchSize, Duration maxDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.flusher = new Thread(this::run, "event-store-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Ставит запись в очередь фиксации.
+     * Позиция в журнале присваивается при фиксации.
+     *
+     * @param storedEvent запись события
+     * @return завершение записи; {@link DuplicateKeyException} при конфликте версий
+     */
+    CompletableFuture<Void> append(StoredEvent storedEvent) {
+        if (!running) {
+            throw new IllegalStateException("Групповая фиксация остановлена");
+        }
+        PendingWrite pending = new PendingWrite(storedEvent, new CompletableFuture<>());
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            pending.result().completeExceptionally(new IllegalStateException("Групповая фиксация остановлена"));
+        }
+
+        return pending.result();
+    }
+
+    /**
+     * Останавливает прием записей и дожидается фиксации оставшихся.
+     * Записи, которые фоновый поток не успел зафиксировать, завершаются ошибкой.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued(new IllegalStateException("Групповая фиксация остановлена"));
+    }
+
+    /**
+     * Цикл фонового потока: собирает пакеты и фиксирует их.
+     */
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                IllegalStateException interrupted = new IllegalStateException("Групповая фиксация прервана", e);
+                fail(batch, interrupted);
+                failQueued(interrupted);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Добирает пакет до максимального размера, ожидая не дольше maxDelay.
+     *
+     * @param batch пакет с первой записью
+     * @throws InterruptedException если поток прерван
+     */
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Фиксирует пакет одной неупорядоченной массовой вставкой.
+     *
+     * @param batch пакет записей
+     */
+    private void flush(List<PendingWrite> batch) {
+        try {
+            Document counter = mongoTemplate.findAndModify(MongoEventStore.positionCounterQuery(),
+                    MongoEventStore.positionCounterUpdate(batch.size()), MongoEventStore.positionCounterOptions(),
+                    Document.class, MongoEventStore.COUNTERS_COLLECTION);
+            long position = MongoEventStore.firstReservedPosition(counter, batch.size());
+            List<StoredEvent> storedEvents = new ArrayList<>(batch.size());
+            for (PendingWrite pending : batch) {
+                pending.storedEvent().setPosition(position++);
+                storedEvents.add(pending.storedEvent());
+            }
+
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredEvent.class)
+                    .insert(storedEvents)
+                    .execute();
+            batch.forEach(pending -> pending.result().complete(null));
+        } catch (BulkOperationException e) {
+            complete(batch, e);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось зафиксировать пакет из {} событий", batch.size(), e);
+            fail(batch, e);
+        }
+    }
+
+    /**
+     * Завершает записи пакета по результатам частично неуспешной вставки.
+     *
+     * @param batch пакет записей
+     * @param e ошибка массовой вставки
+     */
+    private void complete(List<PendingWrite> batch, BulkOperationException e) {
+        Map<Integer, BulkWriteError> errors = new HashMap<>();
+        e.getErrors().forEach(error -> errors.put(error.getIndex(), error));
+        for (int i = 0; i < batch.size(); i++) {
+            BulkWriteError error = errors.get(i);
+            CompletableFuture<Void> result = batch.get(i).result();
+            if (error == null) {
+                result.complete(null);
+            } else if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                result.completeExceptionally(new DuplicateKeyException(error.getMessage()));
+            } else {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Завершает все записи пакета ошибкой.
+     *
+     * @param batch пакет записей
+     * @param e ошибка
+     */
+    private void fail(List<PendingWrite> batch, RuntimeException e) {
+        batch.forEach(pending -> pending.result().completeExceptionally(e));
+    }
+
+    /**
+     * Завершает ошибкой все записи, оставшиеся в очереди.
+     *
+     * @param e ошибка
+     */
+    private void failQueued(RuntimeException e) {
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Запись, ожидающая фиксации.
+     *
+     * @param storedEvent запись события
+     * @param result завершение записи
+     */
+    private record PendingWrite(StoredEvent storedEvent, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,351 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Реализация хранилища событий в памяти процесса для нагрузочных тестов
+ * и горячего резерва.
+ * <p>
+ * События хранятся в глобальном журнале — массиве блоков, индексируемом
+ * позицией, а поток заказа хранит только массив позиций своих событий.
+ * Запись в поток выполняется под одной из полосатых блокировок, выбираемой
+ * по хэшу идентификатора заказа, поэтому записи в разные заказы идут
+ * параллельно; позиции журнала выделяются атомарным счетчиком только
+ * в пределах емкости журнала, чтобы отклоненная запись не оставляла пропуск.
+ * Чтение выполняется без блокировок. Журнал читается по порядку позиций
+ * до первой еще не заполненной, так что читатель не пропускает события
+ * параллельных записей.
+ * <p>
+ * Журнал одновременно служит исходящим буфером; позиция публикации хранится
+ * только в памяти.
+ */
+@Component
+@Profile("memory-store")
+public class InMemoryEventStore implements EventStore, EventOutbox {
+    private static final int CHUNK_BITS = 16;                   // Размер блока журнала: 2^16 событий
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;      // Количество событий в блоке
+    private static final int MAX_CHUNKS = 1 << 15;              // Максимальное количество блоков
+    private final ReentrantLock[] stripes;                      // Блокировки записи по хэшу заказа
+    private final long capacity;                                // Максимальное количество событий в журнале
+    private final ConcurrentHashMap<String, Positions> streams = new ConcurrentHashMap<>(); // Позиции событий по заказу
+    private final AtomicReferenceArray<AtomicReferenceArray<RecordedEvent>> journal =
+            new AtomicReferenceArray<>(MAX_CHUNKS);             // Блоки глобального журнала
+    private final AtomicLong lastPosition = new AtomicLong();   // Последняя выделенная позиция
+    private final ConcurrentSkipListSet<Long> publishedAhead = new ConcurrentSkipListSet<>(); // Опубликованные позиции после отметки
+    private volatile long publishedPosition;                    // Позиция, до которой все события опубликованы
+
+    /**
+     * Создает хранилище событий в памяти.
+     *
+     * @param stripes количество блокировок записи (0 — вчетверо больше числа ядер);
+     *                округляется вверх до степени двойки
+     */
+    @Autowired
+    public InMemoryEventStore(@Value("${app.event-store.memory.stripes:0}") int stripes) {
+        this(stripes, (long) MAX_CHUNKS * CHUNK_SIZE);
+    }
+
+    /**
+     * Создает хранилище событий в памяти с ограниченной емкостью журнала.
+     *
+     * @param stripes количество блокировок записи (0 — вчетверо больше числа ядер)
+     * @param capacity максимальное количество событий, не больше емкости всех блоков
+     */
+    InMemoryEventStore(int stripes, long capacity) {
+        this.capacity = Math.min(capacity, (long) MAX_CHUNKS * CHUNK_SIZE);
+        int count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(count - 1, 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Сохраняет события для указанного заказа.
+     * Под блокировкой полосы заказа проверяется версия потока, выделяются позиции
+     * журнала и события записываются в журнал; длина потока увеличивается последней,
+     * одним шагом для всего пакета.
+     *
+     * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
+     * @param events список событий
+     * @throws ConcurrencyException если версия агрегата уже изменилась
+     * @throws IllegalStateException если журнал заполнен
+     */
+    @Override
+    public void saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Instant storedAt = Instant.now();
+        ReentrantLock lock = stripe(orderId.getValue());
+        lock.lock();
+        try {
+            Positions stream = streams.get(orderId.getValue());
+            if ((stream == null ? 0 : stream.size()) != expectedVersion) {
+                throw new ConcurrencyException(orderId, expectedVersion, null);
+            }
+            if (stream == null) {
+                stream = streams.computeIfAbsent(orderId.getValue(), id -> new Positions());
+            }
+
+            long first = reserve(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                long position = first + i;
+                chunk(position).set(offset(position),
+                        new RecordedEvent(position, orderId, expectedVersion + i + 1, storedAt, events.get(i)));
+            }
+            stream.add(first, events.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Загружает события для указанного заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return список событий
+     */
+    @Override
+    public List<OrderEvent> loadEvents(OrderId orderId) {
+        return loadEvents(orderId, 0);
+    }
+
+    /**
+     * Загружает события для указанного заказа с версией больше указанной.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return список событий
+     */
+    @Override
+    public List<OrderEvent> loadEvents(OrderId orderId, int afterVersion) {
+        try (Stream<OrderEvent> events = streamEvents(orderId, afterVersion)) {
+            return events.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Читает события для указанного заказа с версией больше указанной по одному.
+     * Поток видит события, записанные до его создания.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return поток событий в порядке версий
+     */
+    @Override
+    public Stream<OrderEvent> streamEvents(OrderId orderId, int afterVersion) {
+        Positions stream = streams.get(orderId.getValue());
+        if (stream == null) {
+            return Stream.empty();
+        }
+        int size = stream.size();
+        long[] positions = stream.entries();
+        return IntStream.range(Math.max(afterVersion, 0), size)
+                .mapToObj(index -> read(positions[index]).getEvent());
+    }
+
+    /**
+     * Читает события всех заказов из глобального журнала в порядке позиций.
+     * Чтение останавливается на первой позиции, запись которой еще не завершена.
+     *
+     * @param afterPosition позиция, после которой нужны события
+     * @param limit максимальное количество событий
+     * @return список событий с позициями
+     */
+    @Override
+    public List<RecordedEvent> readAll(long afterPosition, int limit) {
+        long last = lastPosition.get();
+        List<RecordedEvent> events = new ArrayList<>((int) Math.max(Math.min(limit, last - afterPosition), 0));
+        for (long position = Math.max(afterPosition, 0) + 1; position <= last && events.size() < limit; position++) {
+            RecordedEvent recorded = read(position);
+            if (recorded == null) {
+                break;
+            }
+            events.add(recorded);
+        }
+        return events;
+    }
+
+    /**
+     * Возвращает неопубликованные события в порядке позиций.
+     * Идентификатор записи — позиция события в журнале.
+     *
+     * @param limit максимальное количество событий
+     * @return список неопубликованных событий
+     */
+    @Override
+    public List<OutboxEvent> findUnpublished(int limit) {
+        long last = lastPosition.get();
+        List<OutboxEvent> events = new ArrayList<>();
+        for (long position = publishedPosition + 1; position <= last && events.size() < limit; position++) {
+            RecordedEvent recorded = read(position);
+            if (recorded == null) {
+                break;
+            }
+            if (!publishedAhead.contains(position)) {
+                events.add(new OutboxEvent(String.valueOf(position), recorded.getOrderId(), recorded.getVersion(), recorded.getEvent()));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Отмечает события как опубликованные и продвигает позицию публикации
+     * по непрерывному префиксу опубликованных событий.
+     *
+     * @param ids позиции событий в журнале
+     */
+    @Override
+    public void markPublished(Collection<String> ids) {
+        ids.forEach(id -> publishedAhead.add(Long.parseLong(id)));
+        synchronized (publishedAhead) {
+            long position = publishedPosition;
+            while (publishedAhead.remove(position + 1)) {
+                position++;
+            }
+            publishedPosition = position;
+        }
+    }
+
+    /**
+     * Выделяет позиции журнала для пакета событий. Позиции выделяются,
+     * только если весь пакет помещается в журнал, поэтому отклоненная
+     * запись не оставляет в журнале пропуска, на котором остановились бы
+     * чтение и публикация.
+     *
+     * @param count количество событий
+     * @return позиция первого события пакета
+     * @throws IllegalStateException если журнал заполнен
+     */
+    private long reserve(int count) {
+        while (true) {
+            long last = lastPosition.get();
+            if (last + count > capacity) {
+                throw new IllegalStateException("Журнал событий в памяти заполнен");
+            }
+            if (lastPosition.compareAndSet(last, last + count)) {
+                return last + 1;
+            }
+        }
+    }
+
+    /**
+     * Возвращает блокировку полосы заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return блокировка
+     */
+    private ReentrantLock stripe(String orderId) {
+        int hash = orderId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Читает событие журнала по позиции.
+     *
+     * @param position позиция в журнале
+     * @return событие или null, если запись еще не завершена
+     */
+    private RecordedEvent read(long position) {
+        AtomicReferenceArray<RecordedEvent> chunk = journal.get((int) ((position - 1) >>> CHUNK_BITS));
+        return chunk == null ? null : chunk.get(offset(position));
+    }
+
+    /**
+     * Возвращает блок журнала для позиции, создавая его при необходимости.
+     *
+     * @param position позиция в журнале
+     * @return блок журнала
+     * @throws IllegalStateException если журнал заполнен
+     */
+    private AtomicReferenceArray<RecordedEvent> chunk(long position) {
+        long index = (position - 1) >>> CHUNK_BITS;
+        if (index >= MAX_CHUNKS) {
+            throw new IllegalStateException("Журнал событий в памяти заполнен");
+        }
+        AtomicReferenceArray<RecordedEvent> chunk = journal.get((int) index);
+        if (chunk == null) {
+            journal.compareAndSet((int) index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = journal.get((int) index);
+        }
+        return chunk;
+    }
+
+    /**
+     * Возвращает смещение позиции внутри блока журнала.
+     *
+     * @param position позиция в журнале
+     * @return смещение в блоке
+     */
+    private static int offset(long position) {
+        return (int) ((position - 1) & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Расширяемый массив позиций событий потока. Дописывается только под
+     * блокировкой полосы заказа; читатели без блокировки сначала читают размер,
+     * затем массив, и видят все элементы до прочитанного размера.
+     */
+    private static final class Positions {
+        private volatile long[] entries = new long[8]; // Позиции событий в журнале
+        private volatile int size;                     // Количество событий
+
+        /**
+         * Дописывает позиции пакета событий; читатели видят пакет целиком.
+         *
+         * @param first позиция первого события пакета
+         * @param count количество событий
+         */
+        void add(long first, int count) {
+            long[] current = entries;
+            if (size + count > current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, size + count));
+                entries = current;
+            }
+            for (int i = 0; i < count; i++) {
+                current[size + i] = first + i;
+            }
+            size = size + count;
+        }
+
+        /**
+         * Возвращает количество событий.
+         *
+         * @return количество событий
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Возвращает массив позиций; читать его можно до размера,
+         * прочитанного перед вызовом.
+         *
+         * @return массив позиций
+         */
+        long[] entries() {
+            return entries;
+        }
+    }
+}
@@ -1,21 +1,45 @@
 package org.example.eventsourcing.infrastructure.event;
 
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
 import org.example.eventsourcing.domain.event.OrderEvent;
 import org.example.eventsourcing.domain.model.OrderId;
 import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация хранилища событий с использованием MongoDB.
+ * Коллекция событий одновременно служит исходящим буфером для публикации в Kafka.
  */
 @Component
-public class MongoEventStore implements EventStore {
+@Profile("!file-store & !memory-store")
+public class MongoEventStore implements EventStore, EventOutbox {
+    static final String COUNTERS_COLLECTION = "counters";     // Коллекция счетчиков
+    private static final String POSITION_COUNTER = "events";  // Счетчик позиций журнала
+    static final Comparator<StoredEvent> OUTBOX_ORDER =       // Порядок публикации внутри пакета
+            Comparator.comparing(StoredEvent::getAggregateId).thenComparingInt(StoredEvent::getVersion);
     private final EventRepository eventRepository;      // Репозиторий MongoDB
-    private final EventSerializer eventSerializer;      // Сериализатор событий
-    private final EventTypeRegistry eventTypeRegistry;  // Реестр типов событий
+    private final StoredEventConverter converter;       // Преобразование событий в записи и обратно
+    private final MongoTemplate mongoTemplate;          // Клиент MongoDB
+    private final int cursorBatchSize;                  // Размер пакета курсора при потоковом чтении
+    private final GroupCommitWriter groupCommitWriter;  // Групповая фиксация одиночных записей
 
     /**
      * Создает новое хранилище событий.
@@ -23,25 +47,72 @@ public class MongoEventStore implements EventStore {
      * @param eventRepository репозиторий MongoDB
      * @param eventSerializer сериализатор событий
      * @param eventTypeRegistry реестр типов событий
+     * @param mongoTemplate клиент MongoDB
+     * @param cursorBatchSize размер пакета курсора при потоковом чтении
+     * @param groupCommitBatchSize максимальный размер пакета групповой фиксации (0 — без групповой фиксации)
+     * @param groupCommitDelay максимальное ожидание пакета групповой фиксации
      */
-    public MongoEventStore(EventRepository eventRepository, EventSerializer eventSerializer, EventTypeRegistry eventTypeRegistry) {
+    public MongoEventStore(EventRepository eventRepository, EventSerializer eventSerializer, EventTypeRegistry eventTypeRegistry,
+                           MongoTemplate mongoTemplate, @Value("${app.event-store.cursor-batch-size:256}") int cursorBatchSize,
+                           @Value("${app.event-store.group-commit.max-batch-size:256}") int groupCommitBatchSize,
+                           @Value("${app.event-store.group-commit.max-delay:1ms}") Duration groupCommitDelay) {
         this.eventRepository = eventRepository;
-        this.eventSerializer = eventSerializer;
-        this.eventTypeRegistry = eventTypeRegistry;
+        this.converter = new StoredEventConverter(eventSerializer, eventTypeRegistry);
+        this.mongoTemplate = mongoTemplate;
+        this.cursorBatchSize = cursorBatchSize;
+        this.groupCommitWriter = groupCommitBatchSize > 0
+                ? new GroupCommitWriter(mongoTemplate, groupCommitBatchSize, groupCommitDelay)
+                : null;
     }
 
     /**
      * Сохраняет события для указанного заказа.
+     * Событиям присваиваются версии, следующие за ожидаемой; уникальный индекс
+     * (aggregateId, version) отклоняет запись, если другой процесс успел дописать поток.
+     * События записываются неопубликованными и попадают в исходящий буфер.
+     * Позиции в глобальном журнале резервируются одним атомарным инкрементом счетчика.
+     * Одиночные события, как от большинства команд, фиксируются группой вместе
+     * с записями параллельных команд; несколько событий пишутся упорядоченной
+     * вставкой напрямую, чтобы конфликт не оставил в потоке часть из них.
      *
      * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
      * @param events список событий
+     * @throws ConcurrencyException если версия агрегата уже изменилась
      */
     @Override
-    public void saveEvents(OrderId orderId, List<OrderEvent> events) {
-        List<StoredEvent> storedEvents = events.stream()
-                .map(event -> new StoredEvent(orderId.getValue(), event.getClass().getSimpleName(), eventSerializer.serialize(event), 1))
-                .toList();
-        eventRepository.saveAll(storedEvents);
+    public void saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            if (groupCommitWriter != null && events.size() == 1) {
+                StoredEvent storedEvent = converter.toStoredEvents(orderId, expectedVersion, 0, events).get(0);
+                groupCommitWriter.append(storedEvent).join();
+                return;
+            }
+
+            List<StoredEvent> storedEvents = converter.toStoredEvents(orderId, expectedVersion,
+                    reservePositions(events.size()), events);
+            eventRepository.saveAll(storedEvents);
+        } catch (DuplicateKeyException e) {
+            throw new ConcurrencyException(orderId, expectedVersion, e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DuplicateKeyException) {
+                throw new ConcurrencyException(orderId, expectedVersion, e.getCause());
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Останавливает групповую фиксацию, дождавшись записи принятых событий.
+     */
+    @PreDestroy
+    public void close() {
+        if (groupCommitWriter != null) {
+            groupCommitWriter.close();
+        }
     }
 
     /**
@@ -52,21 +123,189 @@ public class MongoEventStore implements EventStore {
      */
     @Override
     public List<OrderEvent> loadEvents(OrderId orderId) {
-        return eventRepository.findByAggregateIdOrderByTimestampAsc(orderId.getValue())
+        return eventRepository.findByAggregateIdOrderByVersionAsc(orderId.getValue())
+                .stream()
+                .map(converter::deserializeEvent)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Загружает события для указанного заказа с версией больше указанной.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return список событий
+     */
+    @Override
+    public List<OrderEvent> loadEvents(OrderId orderId, int afterVersion) {
+        return eventRepository.findByAggregateIdAndVersionGreaterThanOrderByVersionAsc(orderId.getValue(), afterVersion)
                 .stream()
-                .map(this::deserializeEvent)
+                .map(converter::deserializeEvent)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Десериализует сохраненное событие.
+     * Читает события для указанного заказа с версией больше указанной через курсор MongoDB.
+     * Документы подгружаются пакетами по cursorBatchSize и десериализуются по одному.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return поток событий в порядке версий
+     */
+    @Override
+    public Stream<OrderEvent> streamEvents(OrderId orderId, int afterVersion) {
+        return mongoTemplate.stream(eventsAfterQuery(orderId, afterVersion, cursorBatchSize), StoredEvent.class)
+                .map(converter::deserializeEvent);
+    }
+
+    /**
+     * Читает события всех заказов из глобального журнала в порядке позиций.
+     *
+     * @param afterPosition позиция, после которой нужны события
+     * @param limit максимальное количество событий
+     * @return список событий с позициями
+     */
+    @Override
+    public List<RecordedEvent> readAll(long afterPosition, int limit) {
+        Query query = Query.query(Criteria.where("position").gt(afterPosition))
+                .with(Sort.by(Sort.Direction.ASC, "position"))
+                .limit(limit)
+                .cursorBatchSize(Math.min(limit, 10_000));
+
+        return mongoTemplate.find(query, StoredEvent.class)
+                .stream()
+                .map(storedEvent -> new RecordedEvent(
+                        storedEvent.getPosition(),
+                        new OrderId(storedEvent.getAggregateId()),
+                        storedEvent.getVersion(),
+                        storedEvent.getTimestamp(),
+                        converter.deserializeEvent(storedEvent)))
+                .toList();
+    }
+
+    /**
+     * Возвращает неопубликованные события в порядке записи.
+     * Внутри пакета события одного заказа упорядочиваются по версии.
+     *
+     * @param limit максимальное количество событий
+     * @return список неопубликованных событий
+     */
+    @Override
+    public List<OutboxEvent> findUnpublished(int limit) {
+        return mongoTemplate.find(unpublishedQuery(limit), StoredEvent.class)
+                .stream()
+                .sorted(OUTBOX_ORDER)
+                .map(converter::toOutboxEvent)
+                .toList();
+    }
+
+    /**
+     * Отмечает события как опубликованные.
      *
-     * @param storedEvent сохраненное событие
-     * @return событие домена
+     * @param ids идентификаторы записей в хранилище
      */
-    private OrderEvent deserializeEvent(StoredEvent storedEvent) {
-        Class<? extends OrderEvent> eventClass = eventTypeRegistry.getEventClass(storedEvent.getEventType());
+    @Override
+    public void markPublished(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(publishedQuery(ids), publishedUpdate(), StoredEvent.class);
+    }
 
-        return eventSerializer.deserialize(storedEvent.getEventData(), eventClass);
+    /**
+     * Резервирует диапазон позиций в глобальном журнале.
+     *
+     * @param count количество позиций
+     * @return первая позиция диапазона
+     */
+    private long reservePositions(int count) {
+        Document counter = mongoTemplate.findAndModify(positionCounterQuery(), positionCounterUpdate(count),
+                positionCounterOptions(), Document.class, COUNTERS_COLLECTION);
+
+        return firstReservedPosition(counter, count);
+    }
+
+    /**
+     * Формирует запрос событий заказа с версией больше указанной в порядке версий.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @param cursorBatchSize размер пакета курсора
+     * @return запрос MongoDB
+     */
+    static Query eventsAfterQuery(OrderId orderId, int afterVersion, int cursorBatchSize) {
+        return Query.query(Criteria.where("aggregateId").is(orderId.getValue()).and("version").gt(afterVersion))
+                .with(Sort.by(Sort.Direction.ASC, "version"))
+                .cursorBatchSize(cursorBatchSize);
+    }
+
+    /**
+     * Формирует запрос неопубликованных событий в порядке записи.
+     *
+     * @param limit максимальное количество событий
+     * @return запрос MongoDB
+     */
+    static Query unpublishedQuery(int limit) {
+        return Query.query(Criteria.where("published").is(false))
+                .with(Sort.by(Sort.Direction.ASC, "position"))
+                .limit(limit);
+    }
+
+    /**
+     * Формирует запрос записей по идентификаторам.
+     *
+     * @param ids идентификаторы записей
+     * @return запрос MongoDB
+     */
+    static Query publishedQuery(Collection<String> ids) {
+        return Query.query(Criteria.where("_id").in(ids));
+    }
+
+    /**
+     * Формирует обновление, отмечающее запись опубликованной.
+     *
+     * @return обновление MongoDB
+     */
+    static Update publishedUpdate() {
+        return Update.update("published", true);
+    }
+
+    /**
+     * Формирует запрос счетчика позиций журнала.
+     *
+     * @return запрос MongoDB
+     */
+    static Query positionCounterQuery() {
+        return Query.query(Criteria.where("_id").is(POSITION_COUNTER));
+    }
+
+    /**
+     * Формирует инкремент счетчика позиций журнала.
+     *
+     * @param count количество резервируемых позиций
+     * @return обновление MongoDB
+     */
+    static Update positionCounterUpdate(int count) {
+        return new Update().inc("value", count);
+    }
+
+    /**
+     * Возвращает параметры атомарного инкремента счетчика позиций.
+     *
+     * @return параметры findAndModify
+     */
+    static FindAndModifyOptions positionCounterOptions() {
+        return FindAndModifyOptions.options().returnNew(true).upsert(true);
+    }
+
+    /**
+     * Вычисляет первую позицию зарезервированного диапазона.
+     *
+     * @param counter документ счетчика после инкремента
+     * @param count количество зарезервированных позиций
+     * @return первая позиция диапазона
+     */
+    static long firstReservedPosition(Document counter, int count) {
+        return ((Number) counter.get("value")).longValue() - count + 1;
     }
 }
@@ -0,0 +1,171 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Миграция коллекции событий MongoDB, выполняемая при запуске до приема команд.
+ * <p>
+ * Записи, сохраненные до появления версий, имеют версию 1 у всех событий заказа.
+ * Такие потоки перенумеровываются по времени записи. Записям без позиции
+ * в глобальном журнале позиции назначаются в порядке (timestamp, aggregateId,
+ * version) из того же счетчика, что и при записи, поэтому новые события
+ * получают позиции после них. После этого создается уникальный индекс
+ * (aggregateId, version). Индекс создается здесь, а не
+ * автоматически по аннотации, потому что на немигрированных данных его
+ * создание завершилось бы ошибкой при старте приложения. Индекс исходящего
+ * буфера по времени записи удаляется: буфер читается в порядке позиций.
+ */
+@Slf4j
+@Component
+@Profile("!file-store & !memory-store")
+public class MongoEventStoreMigration {
+    static final String AGGREGATE_VERSION_INDEX = "aggregate_version"; // Имя уникального индекса версий
+    static final String LEGACY_OUTBOX_INDEX = "outbox";                // Имя индекса буфера по времени записи
+    private static final int BACKFILL_BATCH_SIZE = 10_000;             // Записей за один шаг назначения позиций
+    private final MongoTemplate mongoTemplate; // Клиент MongoDB
+    private final boolean enabled;             // Выполнять ли миграцию при запуске
+
+    /**
+     * Создает новую миграцию коллекции событий.
+     *
+     * @param mongoTemplate клиент MongoDB
+     * @param enabled выполнять ли миграцию при запуске
+     */
+    public MongoEventStoreMigration(MongoTemplate mongoTemplate,
+                                    @Value("${app.event-store.migration.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Выполняет миграцию при запуске, если она включена.
+     */
+    @PostConstruct
+    public void migrateOnStartup() {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * Перенумеровывает версии в потоках старого формата, назначает позиции
+     * записям без позиции, создает уникальный индекс версий и удаляет
+     * индекс буфера по времени записи.
+     * Повторный запуск ничего не меняет.
+     */
+    public void migrate() {
+        int renumbered = renumberLegacyVersions();
+        if (renumbered > 0) {
+            log.info("Перенумерованы версии событий в потоках {} заказов", renumbered);
+        }
+        long positioned = backfillPositions();
+        if (positioned > 0) {
+            log.info("Назначены позиции в глобальном журнале {} событиям", positioned);
+        }
+        mongoTemplate.indexOps(StoredEvent.class).ensureIndex(new Index()
+                .on("aggregateId", Sort.Direction.ASC)
+                .on("version", Sort.Direction.ASC)
+                .unique()
+                .named(AGGREGATE_VERSION_INDEX));
+        dropLegacyOutboxIndex();
+    }
+
+    /**
+     * Удаляет индекс исходящего буфера по времени записи, если он есть.
+     */
+    private void dropLegacyOutboxIndex() {
+        IndexOperations indexOps = mongoTemplate.indexOps(StoredEvent.class);
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> LEGACY_OUTBOX_INDEX.equals(index.getName()))) {
+            indexOps.dropIndex(LEGACY_OUTBOX_INDEX);
+        }
+    }
+
+    /**
+     * Находит заказы с повторяющимися версиями событий и нумерует их события
+     * заново в порядке записи.
+     *
+     * @return количество перенумерованных потоков
+     */
+    private int renumberLegacyVersions() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.group("aggregateId", "version").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)),
+                Aggregation.group("_id.aggregateId"));
+        List<String> aggregateIds = mongoTemplate.aggregate(duplicates, StoredEvent.class, Document.class)
+                .getMappedResults()
+                .stream()
+                .map(document -> document.getString("_id"))
+                .toList();
+
+        aggregateIds.forEach(this::renumber);
+        return aggregateIds.size();
+    }
+
+    /**
+     * Присваивает событиям заказа версии 1..n в порядке времени записи.
+     *
+     * @param aggregateId идентификатор заказа
+     */
+    private void renumber(String aggregateId) {
+        Query query = Query.query(Criteria.where("aggregateId").is(aggregateId))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "_id"));
+        query.fields().include("_id");
+        List<Document> events = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(StoredEvent.class));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredEvent.class);
+        for (int i = 0; i < events.size(); i++) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(events.get(i).get("_id"))), Update.update("version", i + 1));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Назначает позиции в глобальном журнале записям без позиции в порядке
+     * (timestamp, aggregateId, version). Позиции резервируются блоками из
+     * счетчика журнала, поэтому параллельные записи не получат те же позиции.
+     *
+     * @return количество записей, получивших позицию
+     */
+    private long backfillPositions() {
+        String collection = mongoTemplate.getCollectionName(StoredEvent.class);
+        long total = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("position").exists(false))
+                    .with(Sort.by(Sort.Direction.ASC, "timestamp", "aggregateId", "version"))
+                    .limit(BACKFILL_BATCH_SIZE);
+            query.fields().include("_id");
+            List<Document> events = mongoTemplate.find(query, Document.class, collection);
+            if (events.isEmpty()) {
+                return total;
+            }
+
+            Document counter = mongoTemplate.findAndModify(MongoEventStore.positionCounterQuery(),
+                    MongoEventStore.positionCounterUpdate(events.size()), MongoEventStore.positionCounterOptions(),
+                    Document.class, MongoEventStore.COUNTERS_COLLECTION);
+            long position = MongoEventStore.firstReservedPosition(counter, events.size());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredEvent.class);
+            for (Document event : events) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(event.get("_id")).and("position").exists(false)),
+                        Update.update("position", position++));
+            }
+            bulk.execute();
+            total += events.size();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import lombok.Value;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+
+/**
+ * Сохраненное, но еще не опубликованное событие.
+ */
+@Value
+public class OutboxEvent {
+    String id;          // Идентификатор записи в хранилище
+    OrderId orderId;    // Идентификатор заказа
+    int version;        // Порядковый номер события в потоке агрегата
+    OrderEvent event;   // Событие домена
+}
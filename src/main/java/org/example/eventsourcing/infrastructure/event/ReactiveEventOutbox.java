@@ -0,0 +1,25 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Интерфейс неблокирующего исходящего буфера событий, ожидающих публикации.
+ */
+public interface ReactiveEventOutbox {
+    /**
+     * Возвращает неопубликованные события в порядке записи.
+     * @param limit максимальное количество событий
+     * @return неопубликованные события
+     */
+    Flux<OutboxEvent> findUnpublished(int limit);
+
+    /**
+     * Отмечает события как опубликованные.
+     * @param ids идентификаторы записей в хранилище
+     * @return завершение записи
+     */
+    Mono<Void> markPublished(Collection<String> ids);
+}
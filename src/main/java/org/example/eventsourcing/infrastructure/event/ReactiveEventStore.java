@@ -0,0 +1,30 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Интерфейс неблокирующих операций с хранилищем событий.
+ */
+public interface ReactiveEventStore {
+    /**
+     * Сохраняет события для указанного заказа.
+     * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
+     * @param events список событий
+     * @return завершение записи или ошибка {@link ConcurrencyException}, если версия агрегата уже изменилась
+     */
+    Mono<Void> saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events);
+
+    /**
+     * Читает события для указанного заказа с версией больше указанной.
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return события в порядке версий
+     */
+    Flux<OrderEvent> loadEvents(OrderId orderId, int afterVersion);
+}
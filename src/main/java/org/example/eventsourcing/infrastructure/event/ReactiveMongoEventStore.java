@@ -0,0 +1,116 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.bson.Document;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Неблокирующая реализация хранилища событий на реактивном драйвере MongoDB.
+ * Использует ту же коллекцию, индексы, кодеки и счетчик позиций журнала,
+ * что и {@link MongoEventStore}, поэтому оба хранилища взаимозаменяемы.
+ * От блокирующего хранилища зависят только общие статические запросы
+ * и {@link StoredEventConverter}, так что его групповая фиксация здесь не запускается.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveMongoEventStore implements ReactiveEventStore, ReactiveEventOutbox {
+    private final StoredEventConverter converter;      // Преобразование событий в записи и обратно
+    private final ReactiveMongoTemplate mongoTemplate; // Реактивный клиент MongoDB
+    private final int cursorBatchSize;                 // Размер пакета курсора при чтении потока
+
+    /**
+     * Создает новое неблокирующее хранилище событий.
+     *
+     * @param eventSerializer сериализатор событий
+     * @param eventTypeRegistry реестр типов событий
+     * @param mongoTemplate реактивный клиент MongoDB
+     * @param cursorBatchSize размер пакета курсора при чтении потока
+     */
+    public ReactiveMongoEventStore(EventSerializer eventSerializer, EventTypeRegistry eventTypeRegistry,
+                                   ReactiveMongoTemplate mongoTemplate,
+                                   @Value("${app.event-store.cursor-batch-size:256}") int cursorBatchSize) {
+        this.converter = new StoredEventConverter(eventSerializer, eventTypeRegistry);
+        this.mongoTemplate = mongoTemplate;
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    /**
+     * Сохраняет события для указанного заказа.
+     * Позиции в журнале резервируются атомарным инкрементом счетчика,
+     * конфликт уникального индекса (aggregateId, version) превращается в {@link ConcurrencyException}.
+     *
+     * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
+     * @param events список событий
+     * @return завершение записи
+     */
+    @Override
+    public Mono<Void> saveEvents(OrderId orderId, int expectedVersion, List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return mongoTemplate.findAndModify(MongoEventStore.positionCounterQuery(), MongoEventStore.positionCounterUpdate(events.size()),
+                        MongoEventStore.positionCounterOptions(), Document.class, MongoEventStore.COUNTERS_COLLECTION)
+                .map(counter -> converter.toStoredEvents(orderId, expectedVersion,
+                        MongoEventStore.firstReservedPosition(counter, events.size()), events))
+                .flatMapMany(mongoTemplate::insertAll)
+                .onErrorMap(DuplicateKeyException.class, e -> new ConcurrencyException(orderId, expectedVersion, e))
+                .then();
+    }
+
+    /**
+     * Читает события для указанного заказа с версией больше указанной через курсор MongoDB.
+     *
+     * @param orderId идентификатор заказа
+     * @param afterVersion версия, после которой нужны события
+     * @return события в порядке версий
+     */
+    @Override
+    public Flux<OrderEvent> loadEvents(OrderId orderId, int afterVersion) {
+        return mongoTemplate.find(MongoEventStore.eventsAfterQuery(orderId, afterVersion, cursorBatchSize), StoredEvent.class)
+                .map(converter::deserializeEvent);
+    }
+
+    /**
+     * Возвращает неопубликованные события в порядке записи.
+     * Внутри пакета события одного заказа упорядочиваются по версии.
+     *
+     * @param limit максимальное количество событий
+     * @return неопубликованные события
+     */
+    @Override
+    public Flux<OutboxEvent> findUnpublished(int limit) {
+        return mongoTemplate.find(MongoEventStore.unpublishedQuery(limit), StoredEvent.class)
+                .collectSortedList(MongoEventStore.OUTBOX_ORDER)
+                .flatMapIterable(storedEvents -> storedEvents)
+                .map(converter::toOutboxEvent);
+    }
+
+    /**
+     * Отмечает события как опубликованные.
+     *
+     * @param ids идентификаторы записей в хранилище
+     * @return завершение записи
+     */
+    @Override
+    public Mono<Void> markPublished(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return mongoTemplate.updateMulti(MongoEventStore.publishedQuery(ids), MongoEventStore.publishedUpdate(), StoredEvent.class)
+                .then();
+    }
+}
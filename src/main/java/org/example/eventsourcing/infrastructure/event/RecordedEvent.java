@@ -0,0 +1,19 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import lombok.Value;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+
+import java.time.Instant;
+
+/**
+ * Событие из глобального журнала вместе с его позицией.
+ */
+@Value
+public class RecordedEvent {
+    long position;      // Позиция в глобальном журнале событий
+    OrderId orderId;    // Идентификатор заказа
+    int version;        // Порядковый номер события в потоке агрегата
+    Instant storedAt;   // Время записи в хранилище
+    OrderEvent event;   // Событие домена
+}
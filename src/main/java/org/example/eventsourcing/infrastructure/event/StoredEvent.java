@@ -6,37 +6,48 @@ import org.example.eventsourcing.domain.event.OrderEvent;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.PersistenceConstructor;
 import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 /**
  * Сущность, представляющая событие, сохраненное в MongoDB.
+ * Уникальный индекс (aggregateId, version) создает {@link MongoEventStoreMigration}.
  */
 @Data
 @Document(collection = "events")
+@CompoundIndex(name = "outbox_position", def = "{'published': 1, 'position': 1}", partialFilter = "{'published': false}")
 public class StoredEvent {
     @Id
     private String id;              // Идентификатор записи
     private String aggregateId;     // Идентификатор агрегата
     private String eventType;       // Тип события
-    private int version;            // Версия события
-    private String eventData;       // Данные события в формате JSON
+    private int version;            // Порядковый номер события в потоке агрегата
+    private String eventData;       // Данные события в формате JSON (записи до появления кодеков)
+    private String codec;           // Имя кодека, которым закодированы данные
+    private byte[] payload;         // Закодированные данные события
     private Instant timestamp;      // Время создания события
+    private boolean published;      // Опубликовано ли событие в Kafka
+    @Indexed(unique = true, sparse = true)
+    private Long position;          // Позиция в глобальном журнале событий
 
     /**
      * Создает новое сохраненное событие.
      *
      * @param aggregateId идентификатор агрегата
-     * @param event событие домена
-     * @param eventData данные события в формате JSON
+     * @param eventType тип события
+     * @param codec имя кодека
+     * @param payload закодированные данные события
      * @param version версия события
      */
     @JsonCreator
-    public StoredEvent(String aggregateId, String eventType, String eventData, int version) {
+    public StoredEvent(String aggregateId, String eventType, String codec, byte[] payload, int version) {
         this.aggregateId = aggregateId;
         this.eventType = eventType;
-        this.eventData = eventData;
+        this.codec = codec;
+        this.payload = payload;
         this.version = version;
         this.timestamp = Instant.now();
     }
@@ -0,0 +1,84 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.example.eventsourcing.infrastructure.util.JsonEventCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Преобразует события в записи коллекции событий MongoDB и обратно.
+ * Общий формат записей для {@link MongoEventStore} и {@link ReactiveMongoEventStore}.
+ */
+class StoredEventConverter {
+    private final EventSerializer eventSerializer;      // Сериализатор событий
+    private final EventTypeRegistry eventTypeRegistry;  // Реестр типов событий
+
+    /**
+     * Создает новый преобразователь записей.
+     *
+     * @param eventSerializer сериализатор событий
+     * @param eventTypeRegistry реестр типов событий
+     */
+    StoredEventConverter(EventSerializer eventSerializer, EventTypeRegistry eventTypeRegistry) {
+        this.eventSerializer = eventSerializer;
+        this.eventTypeRegistry = eventTypeRegistry;
+    }
+
+    /**
+     * Формирует записи для сохранения событий заказа.
+     * Событиям присваиваются версии, следующие за ожидаемой, и позиции начиная с указанной;
+     * при групповой фиксации позиции переназначаются в момент записи.
+     *
+     * @param orderId идентификатор заказа
+     * @param expectedVersion версия агрегата, на основе которой созданы события
+     * @param firstPosition первая зарезервированная позиция в журнале
+     * @param events список событий
+     * @return записи для сохранения
+     */
+    List<StoredEvent> toStoredEvents(OrderId orderId, int expectedVersion, long firstPosition, List<OrderEvent> events) {
+        List<StoredEvent> storedEvents = new ArrayList<>(events.size());
+        int version = expectedVersion;
+        long position = firstPosition;
+        for (OrderEvent event : events) {
+            StoredEvent storedEvent = new StoredEvent(orderId.getValue(), event.getClass().getSimpleName(),
+                    eventSerializer.getDefaultCodec(), eventSerializer.encode(event), ++version);
+            storedEvent.setPosition(position++);
+            storedEvents.add(storedEvent);
+        }
+
+        return storedEvents;
+    }
+
+    /**
+     * Преобразует сохраненное событие в событие исходящего буфера.
+     *
+     * @param storedEvent сохраненное событие
+     * @return событие исходящего буфера
+     */
+    OutboxEvent toOutboxEvent(StoredEvent storedEvent) {
+        return new OutboxEvent(storedEvent.getId(), new OrderId(storedEvent.getAggregateId()),
+                storedEvent.getVersion(), deserializeEvent(storedEvent));
+    }
+
+    /**
+     * Десериализует сохраненное событие.
+     * Записи без кодека хранят событие строкой JSON и декодируются JSON-кодеком,
+     * чтобы попадать в ту же метрику времени декодирования.
+     *
+     * @param storedEvent сохраненное событие
+     * @return событие домена
+     */
+    OrderEvent deserializeEvent(StoredEvent storedEvent) {
+        Class<? extends OrderEvent> eventClass = eventTypeRegistry.getEventClass(storedEvent.getEventType());
+        if (storedEvent.getCodec() == null) {
+            return eventSerializer.decode(JsonEventCodec.NAME,
+                    storedEvent.getEventData().getBytes(StandardCharsets.UTF_8), eventClass);
+        }
+
+        return eventSerializer.decode(storedEvent.getCodec(), storedEvent.getPayload(), eventClass);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Десериализатор событий заказов для Kafka.
+ * <p>
+ * Тип события определяется по заголовку {@link OrderEventHeaders#TYPE}, а тело
+ * читается заранее созданным для типа {@link ObjectReader}. Для событий,
+ * тип которых потребителю не нужен или неизвестен, тело не разбирается
+ * и возвращается null. Записи, опубликованные до появления заголовка типа,
+ * распознаются по заголовку имени класса {@code __TypeId__}.
+ */
+public class OrderEventDeserializer implements Deserializer<OrderEvent> {
+    private static final String LEGACY_TYPE_HEADER = "__TypeId__"; // Заголовок класса старого формата
+    private final ObjectReader[] readers;                          // Читатели по идентификатору типа
+    private final Map<String, ObjectReader> legacyReaders = new HashMap<>(); // Читатели по имени класса
+
+    /**
+     * Создает новый десериализатор всех известных типов событий.
+     *
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     */
+    public OrderEventDeserializer(ObjectMapper objectMapper, EventTypeRegistry eventTypeRegistry) {
+        this(objectMapper, eventTypeRegistry, Set.copyOf(eventTypeRegistry.getEventClassesById().values()));
+    }
+
+    /**
+     * Создает новый десериализатор указанных типов событий.
+     *
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     * @param acceptedTypes типы событий, которые нужно разбирать
+     */
+    public OrderEventDeserializer(ObjectMapper objectMapper, EventTypeRegistry eventTypeRegistry,
+                                  Set<Class<? extends OrderEvent>> acceptedTypes) {
+        Map<Integer, Class<? extends OrderEvent>> eventClasses = eventTypeRegistry.getEventClassesById();
+        int maxTypeId = eventClasses.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        this.readers = new ObjectReader[maxTypeId + 1];
+        eventClasses.forEach((typeId, eventClass) -> {
+            if (acceptedTypes.contains(eventClass)) {
+                ObjectReader reader = objectMapper.readerFor(eventClass);
+                readers[typeId] = reader;
+                legacyReaders.put(eventClass.getName(), reader);
+            }
+        });
+    }
+
+    /**
+     * Десериализует событие без заголовков: не поддерживается.
+     *
+     * @param topic топик Kafka
+     * @param data тело записи
+     * @return никогда не возвращает значение
+     * @throws SerializationException всегда, так как тип события передается в заголовке
+     */
+    @Override
+    public OrderEvent deserialize(String topic, byte[] data) {
+        throw new SerializationException("Для определения типа события нужны заголовки записи");
+    }
+
+    /**
+     * Десериализует событие по заголовку типа.
+     *
+     * @param topic топик Kafka
+     * @param headers заголовки записи
+     * @param data тело записи
+     * @return событие домена или null, если тип не нужен потребителю
+     * @throws SerializationException если заголовка типа нет или тело некорректно
+     */
+    @Override
+    public OrderEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        ObjectReader reader = reader(headers);
+        if (reader == null) {
+            return null;
+        }
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Не удалось десериализовать событие из топика " + topic, e);
+        }
+    }
+
+    /**
+     * Находит читатель по заголовку типа или заголовку класса старого формата.
+     *
+     * @param headers заголовки записи
+     * @return читатель или null, если тип не нужен потребителю
+     * @throws SerializationException если в записи нет заголовка типа
+     */
+    private ObjectReader reader(Headers headers) {
+        Header type = headers.lastHeader(OrderEventHeaders.TYPE);
+        if (type != null) {
+            int typeId = OrderEventHeaders.typeId(type.value());
+            return typeId >= 0 && typeId < readers.length ? readers[typeId] : null;
+        }
+        Header legacyType = headers.lastHeader(LEGACY_TYPE_HEADER);
+        if (legacyType != null) {
+            return legacyReaders.get(new String(legacyType.value(), StandardCharsets.UTF_8));
+        }
+        throw new SerializationException("В записи нет заголовка типа события");
+    }
+}
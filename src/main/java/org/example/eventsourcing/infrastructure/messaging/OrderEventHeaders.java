@@ -0,0 +1,66 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Заголовки записей Kafka с событиями заказов.
+ */
+public final class OrderEventHeaders {
+    public static final String VERSION = "orderVersion"; // Заголовок версии события в потоке заказа
+    public static final String TYPE = "orderEventType";  // Заголовок идентификатора типа события
+    public static final int UNVERSIONED = 0;             // Версия события, опубликованного без заголовка
+
+    /**
+     * Закрытый конструктор утилитного класса.
+     */
+    private OrderEventHeaders() {
+    }
+
+    /**
+     * Записывает версию события в заголовки.
+     *
+     * @param headers заголовки записи
+     * @param version версия события в потоке заказа
+     */
+    public static void setVersion(Headers headers, int version) {
+        headers.add(VERSION, Integer.toString(version).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Читает версию события из заголовков.
+     *
+     * @param headers заголовки записи
+     * @return версия события или {@link #UNVERSIONED}, если заголовка нет
+     */
+    public static int version(Headers headers) {
+        Header header = headers.lastHeader(VERSION);
+        return header == null ? UNVERSIONED : Integer.parseInt(new String(header.value(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Кодирует идентификатор типа события для заголовка.
+     *
+     * @param typeId идентификатор типа
+     * @return значение заголовка
+     * @throws IllegalArgumentException если идентификатор не помещается в один байт
+     */
+    static byte[] typeIdValue(int typeId) {
+        if (typeId < 0 || typeId > 0xFF) {
+            throw new IllegalArgumentException("Идентификатор типа события вне диапазона: " + typeId);
+        }
+        return new byte[]{(byte) typeId};
+    }
+
+    /**
+     * Декодирует идентификатор типа события из заголовка.
+     *
+     * @param value значение заголовка
+     * @return идентификатор типа
+     */
+    static int typeId(byte[] value) {
+        return value.length == 1 ? value[0] & 0xFF : -1;
+    }
+}
@@ -1,11 +1,18 @@
 package org.example.eventsourcing.infrastructure.messaging;
 
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.example.eventsourcing.domain.event.OrderEvent;
 import org.example.eventsourcing.domain.model.OrderId;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Публикатор событий заказов в Kafka.
  */
@@ -13,25 +20,41 @@ import org.springframework.stereotype.Component;
 public class OrderEventProducer {
     private final String topic;                               // Топик Kafka
     private final KafkaTemplate<String, OrderEvent> kafkaTemplate; // Клиент Kafka
+    private final MeterRegistry meterRegistry;                // Реестр метрик
+    private final MeterProvider<Timer> sendTimer;             // Время подтверждения отправки
 
     /**
      * Создает новый публикатор событий.
      *
      * @param topic топик Kafka
      * @param kafkaTemplate клиент Kafka
+     * @param meterRegistry реестр метрик
      */
-    public OrderEventProducer(@Value("${app.kafka.topic}") String topic, KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+    public OrderEventProducer(@Value("${app.kafka.topic}") String topic, KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                              MeterRegistry meterRegistry) {
         this.topic = topic;
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.sendTimer = Timer.builder("orders.kafka.send")
+                .description("Время от отправки события в Kafka до подтверждения брокером")
+                .withRegistry(meterRegistry);
     }
 
     /**
      * Публикует событие в Kafka.
      *
      * @param orderId идентификатор заказа
+     * @param version версия события в потоке заказа
      * @param event событие домена
+     * @return результат отправки, завершающийся после подтверждения брокером
      */
-    public void publish(OrderId orderId, OrderEvent event) {
-        kafkaTemplate.send(topic, orderId.getValue(), event);
+    public CompletableFuture<SendResult<String, OrderEvent>> publish(OrderId orderId, int version, OrderEvent event) {
+        ProducerRecord<String, OrderEvent> record = new ProducerRecord<>(topic, orderId.getValue(), event);
+        OrderEventHeaders.setVersion(record.headers(), version);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return kafkaTemplate.send(record)
+                .whenComplete((result, error) -> sample.stop(sendTimer.withTags(
+                        "type", event.getClass().getSimpleName(),
+                        "outcome", error == null ? "success" : "failure")));
     }
 }
@@ -0,0 +1,89 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Сериализатор событий заказов для Kafka.
+ * <p>
+ * Тип события записывается в заголовок {@link OrderEventHeaders#TYPE} компактным
+ * идентификатором из {@link EventTypeRegistry}, а тело — в JSON заранее
+ * созданным для каждого типа {@link ObjectWriter}, без определения типа
+ * во время записи.
+ */
+public class OrderEventSerializer implements Serializer<OrderEvent> {
+    private final Map<Class<?>, ObjectWriter> writers = new HashMap<>(); // Писатели по классу события
+    private final Map<Class<?>, byte[]> typeHeaders = new HashMap<>();   // Значения заголовка типа по классу события
+
+    /**
+     * Создает новый сериализатор событий.
+     *
+     * @param objectMapper объект для работы с JSON
+     * @param eventTypeRegistry реестр типов событий
+     */
+    public OrderEventSerializer(ObjectMapper objectMapper, EventTypeRegistry eventTypeRegistry) {
+        eventTypeRegistry.getEventClassesById().forEach((typeId, eventClass) -> {
+            writers.put(eventClass, objectMapper.writerFor(eventClass));
+            typeHeaders.put(eventClass, OrderEventHeaders.typeIdValue(typeId));
+        });
+    }
+
+    /**
+     * Сериализует событие без записи заголовка типа.
+     *
+     * @param topic топик Kafka
+     * @param event событие домена
+     * @return тело записи
+     */
+    @Override
+    public byte[] serialize(String topic, OrderEvent event) {
+        return event == null ? null : write(event);
+    }
+
+    /**
+     * Сериализует событие и записывает его тип в заголовок.
+     *
+     * @param topic топик Kafka
+     * @param headers заголовки записи
+     * @param event событие домена
+     * @return тело записи
+     */
+    @Override
+    public byte[] serialize(String topic, Headers headers, OrderEvent event) {
+        if (event == null) {
+            return null;
+        }
+        byte[] data = write(event);
+        headers.remove(OrderEventHeaders.TYPE);
+        headers.add(OrderEventHeaders.TYPE, typeHeaders.get(event.getClass()));
+        return data;
+    }
+
+    /**
+     * Записывает событие в JSON писателем его типа.
+     *
+     * @param event событие домена
+     * @return тело записи
+     * @throws SerializationException если тип события неизвестен или запись не удалась
+     */
+    private byte[] write(OrderEvent event) {
+        ObjectWriter writer = writers.get(event.getClass());
+        if (writer == null) {
+            throw new SerializationException("Неизвестный тип события: " + event.getClass().getName());
+        }
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Не удалось сериализовать событие " + event.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.EventOutbox;
+import org.example.eventsourcing.infrastructure.event.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Фоновая публикация событий из исходящего буфера в Kafka.
+ * Гарантирует доставку "хотя бы один раз": событие отмечается опубликованным
+ * только после подтверждения брокером. Если событие заказа не опубликовано,
+ * последующие события того же заказа в пакете не отмечаются опубликованными
+ * и публикуются повторно вслед за ним, поэтому опубликованная версия заказа
+ * не опережает неопубликованную.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private final EventOutbox outbox;              // Исходящий буфер событий
+    private final OrderEventProducer eventProducer; // Публикатор событий
+    private final int batchSize;                   // Размер пакета публикации
+
+    /**
+     * Создает новый публикатор исходящего буфера.
+     *
+     * @param outbox исходящий буфер событий
+     * @param eventProducer публикатор событий
+     * @param batchSize размер пакета публикации
+     */
+    public OutboxRelay(EventOutbox outbox, OrderEventProducer eventProducer, @Value("${app.outbox.batch-size:500}") int batchSize) {
+        this.outbox = outbox;
+        this.eventProducer = eventProducer;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Публикует накопившиеся события пакетами, пока буфер не опустеет.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outbox.findUnpublished(batchSize);
+            if (!publish(batch)) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Отправляет пакет событий и отмечает подтвержденные брокером.
+     * После первой ошибки события заказа остальные его события пакета
+     * не отмечаются опубликованными.
+     *
+     * @param batch пакет событий в порядке версий внутри заказа
+     * @return true, если все события пакета опубликованы
+     */
+    private boolean publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<?>> sends = batch.stream()
+                .<CompletableFuture<?>>map(outboxEvent -> eventProducer.publish(outboxEvent.getOrderId(), outboxEvent.getVersion(), outboxEvent.getEvent()))
+                .toList();
+
+        List<String> published = new ArrayList<>(batch.size());
+        Set<OrderId> failedOrders = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent outboxEvent = batch.get(i);
+            try {
+                sends.get(i).join();
+                if (!failedOrders.contains(outboxEvent.getOrderId())) {
+                    published.add(outboxEvent.getId());
+                }
+            } catch (RuntimeException e) {
+                failedOrders.add(outboxEvent.getOrderId());
+                log.warn("Не удалось опубликовать событие {}", outboxEvent.getEvent().getEventId(), e);
+            }
+        }
+        outbox.markPublished(published);
+
+        return published.size() == batch.size();
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.OutboxEvent;
+import org.example.eventsourcing.infrastructure.event.ReactiveEventOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Неблокирующая публикация событий из исходящего буфера в Kafka.
+ * Гарантии те же, что у {@link OutboxRelay}: событие отмечается опубликованным
+ * только после подтверждения брокером, порядок отправки внутри пакета сохраняется,
+ * а после ошибки события заказа его последующие события пакета не отмечаются
+ * опубликованными.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveOutboxRelay {
+    private final ReactiveEventOutbox outbox;      // Исходящий буфер событий
+    private final OrderEventProducer eventProducer; // Публикатор событий
+    private final int batchSize;                   // Размер пакета публикации
+
+    /**
+     * Создает новый неблокирующий публикатор исходящего буфера.
+     *
+     * @param outbox исходящий буфер событий
+     * @param eventProducer публикатор событий
+     * @param batchSize размер пакета публикации
+     */
+    public ReactiveOutboxRelay(ReactiveEventOutbox outbox, OrderEventProducer eventProducer, @Value("${app.outbox.batch-size:500}") int batchSize) {
+        this.outbox = outbox;
+        this.eventProducer = eventProducer;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Публикует накопившиеся события пакетами, пока буфер не опустеет.
+     * Следующий запуск планируется после завершения возвращаемой цепочки.
+     *
+     * @return завершение публикации
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public Mono<Void> relay() {
+        return outbox.findUnpublished(batchSize)
+                .collectList()
+                .flatMap(batch -> publish(batch)
+                        .flatMap(allPublished -> allPublished && batch.size() == batchSize ? relay() : Mono.empty()));
+    }
+
+    /**
+     * Отправляет пакет событий и отмечает подтвержденные брокером.
+     * Отправки запускаются в порядке пакета без ожидания подтверждений
+     * на отдельном планировщике: KafkaTemplate.send блокируется, пока нет
+     * метаданных топика, и не должен занимать потоки драйвера MongoDB.
+     * После первой ошибки события заказа остальные его события пакета
+     * не отмечаются опубликованными.
+     *
+     * @param batch пакет событий в порядке версий внутри заказа
+     * @return true, если все события пакета опубликованы
+     */
+    private Mono<Boolean> publish(List<OutboxEvent> batch) {
+        return Flux.fromIterable(batch)
+                .publishOn(Schedulers.boundedElastic())
+                .flatMapSequential(outboxEvent -> Mono.fromFuture(() -> eventProducer.publish(outboxEvent.getOrderId(), outboxEvent.getVersion(), outboxEvent.getEvent()))
+                        .thenReturn(true)
+                        .onErrorResume(e -> {
+                            log.warn("Не удалось опубликовать событие {}", outboxEvent.getEvent().getEventId(), e);
+                            return Mono.just(false);
+                        }), batch.isEmpty() ? 1 : batch.size())
+                .collectList()
+                .flatMap(acknowledged -> {
+                    List<String> published = publishedIds(batch, acknowledged);
+                    return outbox.markPublished(published).thenReturn(published.size() == batch.size());
+                });
+    }
+
+    /**
+     * Отбирает события, которые можно отметить опубликованными: подтвержденные
+     * брокером и не следующие за неопубликованным событием того же заказа.
+     *
+     * @param batch пакет событий
+     * @param acknowledged подтверждения брокера в порядке пакета
+     * @return идентификаторы записей для отметки
+     */
+    private static List<String> publishedIds(List<OutboxEvent> batch, List<Boolean> acknowledged) {
+        List<String> published = new ArrayList<>(batch.size());
+        Set<OrderId> failedOrders = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent outboxEvent = batch.get(i);
+            if (!acknowledged.get(i)) {
+                failedOrders.add(outboxEvent.getOrderId());
+            } else if (!failedOrders.contains(outboxEvent.getOrderId())) {
+                published.add(outboxEvent.getId());
+            }
+        }
+        return published;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реализация хранилища снимков в памяти процесса для хранилищ событий без MongoDB.
+ * В профиле memory-store снимки теряются при перезапуске вместе с событиями,
+ * в профиле file-store заказы после перезапуска восстанавливаются из файлового
+ * журнала, пока снимки не будут сохранены заново.
+ */
+@Component
+@Profile("memory-store | file-store")
+public class InMemorySnapshotStore implements SnapshotStore {
+    private final ConcurrentHashMap<String, OrderSnapshot> snapshots = new ConcurrentHashMap<>(); // Последний снимок по заказу
+
+    /**
+     * Сохраняет снимок состояния заказа, заменяя предыдущий.
+     *
+     * @param order заказ
+     * @param version количество событий, учтенных в состоянии заказа
+     */
+    @Override
+    public void saveSnapshot(Order order, int version) {
+        OrderSnapshot snapshot = MongoSnapshotStore.toSnapshot(order, version);
+        snapshots.put(snapshot.getAggregateId(), snapshot);
+    }
+
+    /**
+     * Загружает последний снимок состояния заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @param mode режим восстановления
+     * @return восстановленный заказ или пустой Optional, если снимка нет
+     *         или в нем нет сведений, нужных для режима
+     */
+    @Override
+    public Optional<Order> loadSnapshot(OrderId orderId, ReplayMode mode) {
+        return Optional.ofNullable(snapshots.get(orderId.getValue()))
+                .flatMap(snapshot -> MongoSnapshotStore.restore(snapshot, mode));
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.OrderLines;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Реализация хранилища снимков с использованием MongoDB.
+ */
+@Component
+@Profile("!file-store & !memory-store")
+public class MongoSnapshotStore implements SnapshotStore {
+    private final SnapshotRepository snapshotRepository; // Репозиторий MongoDB
+
+    /**
+     * Создает новое хранилище снимков.
+     *
+     * @param snapshotRepository репозиторий MongoDB
+     */
+    public MongoSnapshotStore(SnapshotRepository snapshotRepository) {
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    /**
+     * Сохраняет снимок состояния заказа, заменяя предыдущий.
+     *
+     * @param order заказ
+     * @param version количество событий, учтенных в состоянии заказа
+     */
+    @Override
+    public void saveSnapshot(Order order, int version) {
+        snapshotRepository.save(toSnapshot(order, version));
+    }
+
+    /**
+     * Загружает последний снимок состояния заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @param mode режим восстановления
+     * @return восстановленный заказ или пустой Optional, если снимка нет
+     *         или в нем нет сведений, нужных для режима
+     */
+    @Override
+    public Optional<Order> loadSnapshot(OrderId orderId, ReplayMode mode) {
+        return snapshotRepository.findById(orderId.getValue())
+                .flatMap(snapshot -> restore(snapshot, mode));
+    }
+
+    /**
+     * Создает снимок состояния заказа.
+     *
+     * @param order заказ
+     * @param version количество событий, учтенных в состоянии заказа
+     * @return снимок состояния
+     */
+    static OrderSnapshot toSnapshot(Order order, int version) {
+        OrderLines lines = order.getLines();
+        return new OrderSnapshot(
+                order.getOrderId().getValue(),
+                order.getCustomerId(),
+                lines.isDetailed() ? lines.toProducts() : null,
+                lines.size(),
+                order.isConfirmed(),
+                version
+        );
+    }
+
+    /**
+     * Восстанавливает заказ из снимка в указанном режиме.
+     *
+     * @param snapshot снимок состояния
+     * @param mode режим восстановления
+     * @return восстановленный заказ или пустой Optional, если в снимке нет сведений, нужных для режима
+     */
+    static Optional<Order> restore(OrderSnapshot snapshot, ReplayMode mode) {
+        if (mode == ReplayMode.FULL && snapshot.getProducts() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Order.restore(
+                new OrderId(snapshot.getAggregateId()),
+                snapshot.getCustomerId(),
+                toLines(snapshot, mode),
+                snapshot.isConfirmed(),
+                snapshot.getVersion()
+        ));
+    }
+
+    /**
+     * Восстанавливает позиции заказа из снимка в указанном режиме.
+     *
+     * @param snapshot снимок состояния
+     * @param mode режим восстановления
+     * @return позиции заказа
+     */
+    private static OrderLines toLines(OrderSnapshot snapshot, ReplayMode mode) {
+        if (snapshot.getProducts() == null) {
+            return OrderLines.countOnly(snapshot.getLineCount());
+        }
+        return mode == ReplayMode.FULL
+                ? OrderLines.of(snapshot.getProducts())
+                : OrderLines.countOnly(snapshot.getProducts().size());
+    }
+}
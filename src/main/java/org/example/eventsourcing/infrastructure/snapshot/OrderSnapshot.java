@@ -0,0 +1,48 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.eventsourcing.domain.model.Product;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Снимок состояния заказа, сохраненный в MongoDB.
+ * Для каждого агрегата хранится только последний снимок.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "snapshots")
+public class OrderSnapshot {
+    @Id
+    private String aggregateId;     // Идентификатор агрегата
+    private String customerId;      // Идентификатор клиента
+    private List<Product> products; // Товары заказа (null, если сведения о товарах не восстанавливались)
+    private int lineCount;          // Количество позиций
+    private boolean confirmed;      // Статус подтверждения
+    private int version;            // Количество событий, учтенных в снимке
+    private Instant timestamp;      // Время создания снимка
+
+    /**
+     * Создает новый снимок состояния заказа.
+     *
+     * @param aggregateId идентификатор агрегата
+     * @param customerId идентификатор клиента
+     * @param products товары заказа или null
+     * @param lineCount количество позиций
+     * @param confirmed статус подтверждения
+     * @param version количество событий, учтенных в снимке
+     */
+    public OrderSnapshot(String aggregateId, String customerId, List<Product> products, int lineCount, boolean confirmed, int version) {
+        this.aggregateId = aggregateId;
+        this.customerId = customerId;
+        this.products = products;
+        this.lineCount = lineCount;
+        this.confirmed = confirmed;
+        this.version = version;
+        this.timestamp = Instant.now();
+    }
+}
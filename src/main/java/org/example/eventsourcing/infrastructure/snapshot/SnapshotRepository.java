@@ -0,0 +1,9 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Репозиторий MongoDB для снимков состояния заказов.
+ */
+public interface SnapshotRepository extends MongoRepository<OrderSnapshot, String> {
+}
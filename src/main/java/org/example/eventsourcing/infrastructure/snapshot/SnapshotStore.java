@@ -0,0 +1,28 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+
+import java.util.Optional;
+
+/**
+ * Интерфейс для операций с хранилищем снимков состояния.
+ */
+public interface SnapshotStore {
+    /**
+     * Сохраняет снимок состояния заказа, заменяя предыдущий.
+     * @param order заказ
+     * @param version количество событий, учтенных в состоянии заказа
+     */
+    void saveSnapshot(Order order, int version);
+
+    /**
+     * Загружает последний снимок состояния заказа.
+     * @param orderId идентификатор заказа
+     * @param mode режим восстановления
+     * @return восстановленный заказ или пустой Optional, если снимка нет
+     *         или в нем нет сведений, нужных для режима
+     */
+    Optional<Order> loadSnapshot(OrderId orderId, ReplayMode mode);
+}
@@ -0,0 +1,33 @@
+package org.example.eventsourcing.infrastructure.util;
+
+import org.example.eventsourcing.domain.event.OrderEvent;
+
+/**
+ * Кодек для преобразования событий в бинарное представление и обратно.
+ */
+public interface EventCodec {
+
+    /**
+     * Возвращает имя кодека, сохраняемое вместе с событием.
+     *
+     * @return имя кодека
+     */
+    String getName();
+
+    /**
+     * Кодирует событие.
+     *
+     * @param event событие домена
+     * @return закодированные данные
+     */
+    byte[] encode(OrderEvent event);
+
+    /**
+     * Декодирует событие.
+     *
+     * @param data закодированные данные
+     * @param eventClass класс события
+     * @return событие домена
+     */
+    <T extends OrderEvent> T decode(byte[] data, Class<T> eventClass);
+}
@@ -1,12 +1,18 @@
 package org.example.eventsourcing.infrastructure.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.SneakyThrows;
 import org.example.eventsourcing.domain.event.OrderEvent;
 import org.example.eventsourcing.domain.model.Product;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Утилита для сериализации и десериализации событий.
@@ -14,14 +20,28 @@ import java.util.List;
 @Component
 public class EventSerializer {
     private final ObjectMapper objectMapper; // Объект для работы с JSON
+    private final Map<String, EventCodec> codecs = new HashMap<>(); // Кодеки по имени
+    private final EventCodec defaultCodec;   // Кодек для новых событий
+    private final ClassValue<Timer> encodeTimers; // Время кодирования по типу события
+    private final ClassValue<Timer> decodeTimers; // Время декодирования по типу события
 
     /**
      * Создает новый сериализатор событий.
      *
      * @param objectMapper объект для работы с JSON
+     * @param codecs доступные кодеки событий
+     * @param defaultCodec имя кодека для новых событий
+     * @param meterRegistry реестр метрик
+     * @throws IllegalArgumentException если кодек по умолчанию неизвестен
      */
-    public EventSerializer(ObjectMapper objectMapper) {
+    public EventSerializer(ObjectMapper objectMapper, List<EventCodec> codecs,
+                           @Value("${app.event-store.codec:smile}") String defaultCodec,
+                           MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        codecs.forEach(codec -> this.codecs.put(codec.getName(), codec));
+        this.defaultCodec = getCodec(defaultCodec);
+        this.encodeTimers = timers("orders.events.serialize", "Время кодирования события", meterRegistry);
+        this.decodeTimers = timers("orders.events.deserialize", "Время декодирования события", meterRegistry);
     }
 
     /**
@@ -57,4 +77,77 @@ public class EventSerializer {
     public <T extends OrderEvent> T deserialize(String data, Class<T> eventClass) {
         return objectMapper.readValue(data, eventClass);
     }
+
+    /**
+     * Возвращает имя кодека, которым кодируются новые события.
+     *
+     * @return имя кодека
+     */
+    public String getDefaultCodec() {
+        return defaultCodec.getName();
+    }
+
+    /**
+     * Кодирует событие кодеком по умолчанию.
+     *
+     * @param event событие домена
+     * @return закодированные данные
+     */
+    public byte[] encode(OrderEvent event) {
+        long start = System.nanoTime();
+        byte[] data = defaultCodec.encode(event);
+        encodeTimers.get(event.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return data;
+    }
+
+    /**
+     * Декодирует событие указанным кодеком.
+     *
+     * @param codec имя кодека
+     * @param data закодированные данные
+     * @param eventClass класс события
+     * @return событие домена
+     * @throws IllegalArgumentException если кодек неизвестен
+     */
+    public <T extends OrderEvent> T decode(String codec, byte[] data, Class<T> eventClass) {
+        long start = System.nanoTime();
+        T event = getCodec(codec).decode(data, eventClass);
+        decodeTimers.get(eventClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return event;
+    }
+
+    /**
+     * Возвращает кодек по имени.
+     *
+     * @param name имя кодека
+     * @return кодек
+     * @throws IllegalArgumentException если кодек неизвестен
+     */
+    private EventCodec getCodec(String name) {
+        EventCodec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("Неизвестный кодек событий: " + name);
+        }
+        return codec;
+    }
+
+    /**
+     * Создает таймеры с тегом типа события, регистрируемые при первом обращении.
+     *
+     * @param name имя метрики
+     * @param description описание метрики
+     * @param meterRegistry реестр метрик
+     * @return таймеры по классу события
+     */
+    private static ClassValue<Timer> timers(String name, String description, MeterRegistry meterRegistry) {
+        return new ClassValue<>() {
+            @Override
+            protected Timer computeValue(Class<?> eventClass) {
+                return Timer.builder(name)
+                        .description(description)
+                        .tag("type", eventClass.getSimpleName())
+                        .register(meterRegistry);
+            }
+        };
+    }
 }
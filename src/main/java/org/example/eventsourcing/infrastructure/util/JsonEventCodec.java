@@ -0,0 +1,59 @@
+package org.example.eventsourcing.infrastructure.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кодек событий в JSON (UTF-8).
+ */
+@Component
+public class JsonEventCodec implements EventCodec {
+    public static final String NAME = "json";
+    private final ObjectMapper objectMapper; // Объект для работы с JSON
+
+    /**
+     * Создает новый JSON-кодек.
+     *
+     * @param objectMapper объект для работы с JSON
+     */
+    public JsonEventCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Возвращает имя кодека.
+     *
+     * @return имя кодека
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Кодирует событие.
+     *
+     * @param event событие домена
+     * @return закодированные данные
+     */
+    @Override
+    @SneakyThrows
+    public byte[] encode(OrderEvent event) {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    /**
+     * Декодирует событие.
+     *
+     * @param data закодированные данные
+     * @param eventClass класс события
+     * @return событие домена
+     */
+    @Override
+    @SneakyThrows
+    public <T extends OrderEvent> T decode(byte[] data, Class<T> eventClass) {
+        return objectMapper.readValue(data, eventClass);
+    }
+}
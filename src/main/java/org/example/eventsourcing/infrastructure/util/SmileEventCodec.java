@@ -0,0 +1,61 @@
+package org.example.eventsourcing.infrastructure.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.SneakyThrows;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компактный бинарный кодек событий на основе Smile (бинарный JSON).
+ * Использует те же настройки и модули, что и основной ObjectMapper.
+ */
+@Component
+public class SmileEventCodec implements EventCodec {
+    public static final String NAME = "smile";
+    private final ObjectMapper smileMapper; // Объект для работы со Smile
+
+    /**
+     * Создает новый Smile-кодек.
+     *
+     * @param objectMapper объект для работы с JSON, настройки которого копируются
+     */
+    public SmileEventCodec(ObjectMapper objectMapper) {
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    /**
+     * Возвращает имя кодека.
+     *
+     * @return имя кодека
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Кодирует событие.
+     *
+     * @param event событие домена
+     * @return закодированные данные
+     */
+    @Override
+    @SneakyThrows
+    public byte[] encode(OrderEvent event) {
+        return smileMapper.writeValueAsBytes(event);
+    }
+
+    /**
+     * Декодирует событие.
+     *
+     * @param data закодированные данные
+     * @param eventClass класс события
+     * @return событие домена
+     */
+    @Override
+    @SneakyThrows
+    public <T extends OrderEvent> T decode(byte[] data, Class<T> eventClass) {
+        return smileMapper.readValue(data, eventClass);
+    }
+}
@@ -1,11 +1,36 @@
 package org.example.eventsourcing;
 
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
+@DirtiesContext
 class EventSourcingApplicationTests {
 
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static final EmbeddedRedis REDIS = EmbeddedRedis.start();
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        String uri = MONGO.bindAndGetConnectionString();
+        registry.add("spring.data.mongodb.uri", () -> uri + "/eventsourcing");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", REDIS::getPort);
+    }
+
+    @AfterAll
+    static void stopStores() {
+        REDIS.close();
+        MONGO.shutdown();
+    }
+
     @Test
     void contextLoads() {
     }
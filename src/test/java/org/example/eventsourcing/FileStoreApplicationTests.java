@@ -0,0 +1,59 @@
+package org.example.eventsourcing;
+
+import org.example.eventsourcing.infrastructure.event.EventStore;
+import org.example.eventsourcing.infrastructure.event.FileEventStore;
+import org.example.eventsourcing.infrastructure.snapshot.InMemorySnapshotStore;
+import org.example.eventsourcing.infrastructure.snapshot.SnapshotStore;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что профиль file-store поднимается без доступной MongoDB.
+ */
+@SpringBootTest
+@ActiveProfiles("file-store")
+@DirtiesContext
+class FileStoreApplicationTests {
+
+    private static final EmbeddedRedis REDIS = EmbeddedRedis.start();
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> "mongodb://localhost:1/unreachable?serverSelectionTimeoutMS=500");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", REDIS::getPort);
+        registry.add("app.event-store.file.directory", () -> directory.toString());
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        REDIS.close();
+    }
+
+    @Test
+    void usesFileEventStoreAndInMemorySnapshots() {
+        assertThat(eventStore).isInstanceOf(FileEventStore.class);
+        assertThat(snapshotStore).isInstanceOf(InMemorySnapshotStore.class);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.eventsourcing;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.ReactiveEventStore;
+import org.example.eventsourcing.infrastructure.event.ReactiveMongoEventStore;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет реактивный профиль целиком: контекст WebFlux, команды через HTTP
+ * и запись событий неблокирующим хранилищем.
+ */
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@DirtiesContext
+class ReactiveApplicationTests {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static final EmbeddedRedis REDIS = EmbeddedRedis.start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveEventStore eventStore;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        String uri = MONGO.bindAndGetConnectionString();
+        registry.add("spring.data.mongodb.uri", () -> uri + "/eventsourcing");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", REDIS::getPort);
+        registry.add("spring.kafka.producer.properties.max.block.ms", () -> "500");
+    }
+
+    @AfterAll
+    static void stopStores() {
+        REDIS.close();
+        MONGO.shutdown();
+    }
+
+    @Test
+    void createsAddsItemAndConfirmsOrder() {
+        String orderId = webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("customerId", "customer-1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.post().uri("/orders/{orderId}/items", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("productId", "product-1", "name", "Чай", "price", 10.5, "quantity", 2))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/orders/{orderId}/confirm", orderId)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/orders/{orderId}/confirm", orderId)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertThat(eventStore).isInstanceOf(ReactiveMongoEventStore.class);
+        assertThat(eventStore.loadEvents(new OrderId(orderId), 0).map(OrderEvent::getClass).collectList().block())
+                .containsExactly(OrderCreatedEvent.class, ItemAddedEvent.class, OrderConfirmedEvent.class);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.eventsourcing.application.command;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderAggregateCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderAggregateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new OrderAggregateCache(2, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    /**
+     * Создает заказ с одним товаром, не сохраняя его события.
+     *
+     * @param orderId идентификатор заказа
+     * @return заказ
+     */
+    private static Order order(String orderId) {
+        Order order = Order.create(new OrderId(orderId), "customer-1");
+        order.addItem(new Product("product-1", "Товар", new BigDecimal("10.50"), 1));
+        order.getUncommittedEvents();
+        return order;
+    }
+
+    @Test
+    void storesCopyWithGivenVersion() {
+        Order order = order("order-1");
+        cache.put(order, 2);
+        order.addItem(new Product("product-2", "Товар", BigDecimal.ONE, 1));
+
+        Order cached = cache.get(new OrderId("order-1")).orElseThrow();
+
+        assertThat(cached.getVersion()).isEqualTo(2);
+        assertThat(cached.getLines().size()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsIndependentCopies() {
+        cache.put(order("order-1"), 2);
+
+        Order first = cache.get(new OrderId("order-1")).orElseThrow();
+        first.addItem(new Product("product-2", "Товар", BigDecimal.ONE, 1));
+        first.confirm();
+
+        Order second = cache.get(new OrderId("order-1")).orElseThrow();
+        assertThat(second.getLines().size()).isEqualTo(1);
+        assertThat(second.isConfirmed()).isFalse();
+        assertThat(second.getUncommittedEvents()).isEmpty();
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        cache.put(order("order-1"), 2);
+
+        cache.invalidate(new OrderId("order-1"));
+
+        assertThat(cache.get(new OrderId("order-1"))).isEmpty();
+    }
+
+    @Test
+    void recordsHitsAndMisses() {
+        cache.put(order("order-1"), 2);
+
+        cache.get(new OrderId("order-1"));
+        cache.get(new OrderId("order-1"));
+        cache.get(new OrderId("order-2"));
+
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "orderAggregates", "result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "orderAggregates", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
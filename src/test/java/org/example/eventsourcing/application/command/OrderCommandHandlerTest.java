@@ -0,0 +1,196 @@
+package org.example.eventsourcing.application.command;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.OrderLines;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.ConcurrencyException;
+import org.example.eventsourcing.infrastructure.event.InMemoryEventStore;
+import org.example.eventsourcing.infrastructure.snapshot.SnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OrderCommandHandlerTest {
+
+    private InMemoryEventStore eventStore;
+    private RecordingSnapshotStore snapshotStore;
+    private OrderAggregateCache aggregateCache;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderCommandHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemoryEventStore(1);
+        snapshotStore = new RecordingSnapshotStore();
+        meterRegistry = new SimpleMeterRegistry();
+        aggregateCache = new OrderAggregateCache(100, Duration.ofMinutes(1), meterRegistry);
+        handler = new OrderCommandHandler(eventStore, snapshotStore, aggregateCache, 3, 3, ReplayMode.FULL, meterRegistry);
+    }
+
+    /**
+     * Создает пример товара.
+     *
+     * @param index порядковый номер товара
+     * @return товар
+     */
+    private static Product product(int index) {
+        return new Product("product-" + index, "Товар " + index, new BigDecimal("10.50"), 1);
+    }
+
+    @Test
+    void takesSnapshotWhenVersionCrossesFrequency() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        handler.handle(new AddProductCommand(orderId, product(1)));
+        assertThat(snapshotStore.versions).isEmpty();
+
+        handler.handle(new AddProductCommand(orderId, product(2)));
+        assertThat(snapshotStore.versions).containsExactly(3);
+
+        handler.handle(new AddProductCommand(orderId, product(3)));
+        handler.handle(new AddProductCommand(orderId, product(4)));
+        assertThat(snapshotStore.versions).containsExactly(3);
+
+        handler.handle(new AddProductCommand(orderId, product(5)));
+        assertThat(snapshotStore.versions).containsExactly(3, 6);
+    }
+
+    @Test
+    void replaysOnlyEventsAfterSnapshot() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        handler.handle(new AddProductCommand(orderId, product(1)));
+        handler.handle(new AddProductCommand(orderId, product(2)));
+        handler.handle(new AddProductCommand(orderId, product(3)));
+        aggregateCache.invalidate(orderId);
+        double replayedBefore = meterRegistry.summary("orders.rehydration.events").totalAmount();
+
+        handler.handle(new ConfirmOrderCommand(orderId));
+
+        assertThat(meterRegistry.summary("orders.rehydration.events").totalAmount() - replayedBefore).isEqualTo(1);
+        Order snapshot = snapshotStore.loadSnapshot(orderId, ReplayMode.FULL).orElseThrow();
+        assertThat(snapshot.getLines().size()).isEqualTo(2);
+        assertThat(eventStore.loadEvents(orderId)).hasSize(5);
+    }
+
+    @Test
+    void disablesSnapshotsWithZeroFrequency() {
+        handler = new OrderCommandHandler(eventStore, snapshotStore, aggregateCache, 0, 3, ReplayMode.FULL, meterRegistry);
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        for (int i = 0; i < 5; i++) {
+            handler.handle(new AddProductCommand(orderId, product(i)));
+        }
+
+        assertThat(snapshotStore.versions).isEmpty();
+    }
+
+    @Test
+    void readsOnlyNewerEventsOnCacheHit() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        handler.handle(new AddProductCommand(orderId, product(1)));
+        double replayedBefore = meterRegistry.summary("orders.rehydration.events").totalAmount();
+
+        handler.handle(new AddProductCommand(orderId, product(2)));
+
+        assertThat(meterRegistry.summary("orders.rehydration.events").totalAmount() - replayedBefore).isZero();
+    }
+
+    @Test
+    void reloadsOrderAfterConflictWithStaleCache() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        Order concurrent = Order.restore(orderId, "customer-1", OrderLines.empty(ReplayMode.FULL), false, 1);
+        concurrent.addItem(product(1));
+        eventStore.saveEvents(orderId, 1, concurrent.getUncommittedEvents());
+
+        handler.handle(new AddProductCommand(orderId, product(2)));
+
+        assertThat(eventStore.loadEvents(orderId)).hasSize(3);
+        Order cached = aggregateCache.get(orderId).orElseThrow();
+        assertThat(cached.getVersion()).isEqualTo(3);
+        assertThat(cached.getLines().toProducts()).extracting(Product::getProductId)
+                .containsExactly("product-1", "product-2");
+    }
+
+    @Test
+    void rethrowsConflictAfterAllAttempts() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        InMemoryEventStore conflicting = spy(eventStore);
+        doThrow(new ConcurrencyException(orderId, 1, null))
+                .when(conflicting).saveEvents(eq(orderId), anyInt(), anyList());
+        handler = new OrderCommandHandler(conflicting, snapshotStore, aggregateCache, 3, 3, ReplayMode.FULL, meterRegistry);
+
+        assertThatThrownBy(() -> handler.handle(new AddProductCommand(orderId, product(1))))
+                .isInstanceOf(ConcurrencyException.class);
+        verify(conflicting, times(3)).saveEvents(eq(orderId), anyInt(), anyList());
+        assertThat(eventStore.loadEvents(orderId)).hasSize(1);
+    }
+
+    @Test
+    void timesCommandsWithTypeAndOutcomeTags() {
+        OrderId orderId = handler.handle(new CreateOrderCommand("customer-1"));
+        handler.handle(new AddProductCommand(orderId, product(1)));
+        assertThatThrownBy(() -> handler.handle(new ConfirmOrderCommand(OrderId.generate())))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("orders.commands").tags("command", "CreateOrderCommand", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.commands").tags("command", "AddProductCommand", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.commands").tags("command", "ConfirmOrderCommand", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("orders.commands").tags("outcome", "failure").timers()).hasSize(1);
+    }
+
+    /**
+     * Хранилище снимков в памяти, запоминающее версии сохраненных снимков.
+     */
+    private static class RecordingSnapshotStore implements SnapshotStore {
+        private final Map<OrderId, Order> snapshots = new HashMap<>(); // Последний снимок по заказу
+        private final List<Integer> versions = new ArrayList<>();      // Версии сохраненных снимков
+
+        /**
+         * Сохраняет копию заказа с указанной версией.
+         *
+         * @param order заказ
+         * @param version количество событий, учтенных в состоянии заказа
+         */
+        @Override
+        public void saveSnapshot(Order order, int version) {
+            snapshots.put(order.getOrderId(), Order.restore(order.getOrderId(), order.getCustomerId(), order.getLines(),
+                    order.isConfirmed(), version));
+            versions.add(version);
+        }
+
+        /**
+         * Возвращает копию последнего снимка.
+         *
+         * @param orderId идентификатор заказа
+         * @param mode режим восстановления
+         * @return копия заказа или пустой Optional
+         */
+        @Override
+        public Optional<Order> loadSnapshot(OrderId orderId, ReplayMode mode) {
+            return Optional.ofNullable(snapshots.get(orderId))
+                    .map(order -> Order.restore(order.getOrderId(), order.getCustomerId(), order.getLines(),
+                            order.isConfirmed(), order.getVersion()));
+        }
+    }
+}
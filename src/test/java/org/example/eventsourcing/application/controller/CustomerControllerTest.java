@@ -0,0 +1,54 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.mapper.OrderMapperImpl;
+import org.example.eventsourcing.application.query.CustomerOrderRepository;
+import org.example.eventsourcing.application.query.CustomerOrderRepository.Page;
+import org.example.eventsourcing.application.query.OrderViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CustomerControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CustomerOrderRepository customerOrderRepository = mock(CustomerOrderRepository.class);
+        OrderViewRepository viewRepository = mock(OrderViewRepository.class);
+        when(customerOrderRepository.findPage("customer-1", false, 0, 5)).thenReturn(new Page(List.of(), 0));
+        when(viewRepository.findAllById(any())).thenReturn(Map.of());
+        CustomerController controller = new CustomerController(customerOrderRepository, viewRepository,
+                new OrderMapperImpl(), 5);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void acceptsPageSizeUpToLimit() throws Exception {
+        mockMvc.perform(get("/customers/customer-1/orders").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void rejectsPageSizeAboveLimitAndInvalidPage() throws Exception {
+        mockMvc.perform(get("/customers/customer-1/orders").param("size", "6"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/customer-1/orders").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/customers/customer-1/orders").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.command.ConfirmOrderCommand;
+import org.example.eventsourcing.application.command.OrderCommandHandler;
+import org.example.eventsourcing.application.mapper.OrderMapper;
+import org.example.eventsourcing.application.query.OrderViewRepository;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.ConcurrencyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private OrderCommandHandler commandHandler;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        commandHandler = mock(OrderCommandHandler.class);
+        OrderController controller = new OrderController(commandHandler, mock(OrderViewRepository.class),
+                mock(OrderMapper.class), 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void mapsExhaustedVersionConflictToConflict() throws Exception {
+        doThrow(new ConcurrencyException(new OrderId("order-1"), 2, null))
+                .when(commandHandler).handle(any(ConfirmOrderCommand.class));
+
+        mockMvc.perform(post("/orders/order-1/confirm"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Заказ order-1 изменен параллельным запросом, повторите попытку"));
+    }
+
+    @Test
+    void mapsDomainRuleViolationToBadRequest() throws Exception {
+        doThrow(new IllegalStateException("Заказ уже подтвержден"))
+                .when(commandHandler).handle(any(ConfirmOrderCommand.class));
+
+        mockMvc.perform(post("/orders/order-1/confirm"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Заказ уже подтвержден"));
+    }
+
+    @Test
+    void mapsInvalidRequestToBadRequestWithFieldErrors() throws Exception {
+        mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content("{\"customerId\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.customerId").exists());
+    }
+}
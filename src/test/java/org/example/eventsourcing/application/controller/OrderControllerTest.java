@@ -0,0 +1,103 @@
+package org.example.eventsourcing.application.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.eventsourcing.application.command.OrderCommandHandler;
+import org.example.eventsourcing.application.mapper.OrderMapperImpl;
+import org.example.eventsourcing.application.query.OrderView;
+import org.example.eventsourcing.application.query.OrderViewCache;
+import org.example.eventsourcing.application.query.OrderViewRepository;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверки пакетного чтения заказов на Redis в памяти процесса.
+ */
+class OrderControllerTest {
+
+    private static EmbeddedRedis redis;
+    private OrderViewRepository viewRepository;
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flush();
+        viewRepository = new OrderViewRepository(redis.getTemplate(), new ObjectMapper(), mock(OrderViewCache.class));
+        OrderController controller = new OrderController(mock(OrderCommandHandler.class), viewRepository,
+                new OrderMapperImpl(), 3);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    /**
+     * Сохраняет проекцию заказа с одним товаром.
+     *
+     * @param orderId идентификатор заказа
+     */
+    private void saveView(String orderId) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setCustomerId("customer-1");
+        view.setVersion(2);
+        view.setItems(new ArrayList<>(List.of(new Product("product-" + orderId, "Товар", new BigDecimal("10.50"), 1))));
+        viewRepository.saveIfVersion(List.of(view), Map.of());
+    }
+
+    @Test
+    void returnsFoundOrdersInRequestOrder() throws Exception {
+        saveView("order-1");
+        saveView("order-2");
+
+        mockMvc.perform(get("/orders").param("ids", "order-2,missing,order-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].orderId").value("order-2"))
+                .andExpect(jsonPath("$[0].items[0].productId").value("product-order-2"))
+                .andExpect(jsonPath("$[1].orderId").value("order-1"));
+    }
+
+    @Test
+    void returnsEmptyListWhenNothingFound() throws Exception {
+        mockMvc.perform(get("/orders").param("ids", "missing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void rejectsTooManyIds() throws Exception {
+        mockMvc.perform(get("/orders").param("ids", "order-1,order-2,order-3,order-4"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsBlankAndDuplicateIds() throws Exception {
+        mockMvc.perform(get("/orders").param("ids", "order-1", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders").param("ids", "order-1,order-1"))
+                .andExpect(status().isBadRequest());
+    }
+}
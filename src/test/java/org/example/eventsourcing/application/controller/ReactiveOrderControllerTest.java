@@ -0,0 +1,102 @@
+package org.example.eventsourcing.application.controller;
+
+import org.example.eventsourcing.application.command.AddProductCommand;
+import org.example.eventsourcing.application.command.ConfirmOrderCommand;
+import org.example.eventsourcing.application.command.CreateOrderCommand;
+import org.example.eventsourcing.application.command.ReactiveOrderCommandHandler;
+import org.example.eventsourcing.application.mapper.OrderMapperImpl;
+import org.example.eventsourcing.application.query.ReactiveOrderViewRepository;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.ConcurrencyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveOrderControllerTest {
+
+    private ReactiveOrderCommandHandler commandHandler;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        commandHandler = mock(ReactiveOrderCommandHandler.class);
+        ReactiveOrderController controller = new ReactiveOrderController(commandHandler,
+                mock(ReactiveOrderViewRepository.class), new OrderMapperImpl(), 100);
+        webTestClient = WebTestClient.bindToController(controller)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void createsOrder() {
+        when(commandHandler.handle(any(CreateOrderCommand.class))).thenReturn(Mono.just(new OrderId("order-1")));
+
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("customerId", "customer-1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("order-1");
+
+        ArgumentCaptor<CreateOrderCommand> command = ArgumentCaptor.forClass(CreateOrderCommand.class);
+        verify(commandHandler).handle(command.capture());
+        assertThat(command.getValue().getCustomerId()).isEqualTo("customer-1");
+    }
+
+    @Test
+    void addsItemAndConfirmsOrder() {
+        when(commandHandler.handle(any(AddProductCommand.class))).thenReturn(Mono.empty());
+        when(commandHandler.handle(any(ConfirmOrderCommand.class))).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/orders/order-1/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("productId", "product-1", "name", "Чай", "price", 10.5, "quantity", 2))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/orders/order-1/confirm")
+                .exchange()
+                .expectStatus().isOk();
+
+        ArgumentCaptor<AddProductCommand> added = ArgumentCaptor.forClass(AddProductCommand.class);
+        verify(commandHandler).handle(added.capture());
+        assertThat(added.getValue().getOrderId()).isEqualTo(new OrderId("order-1"));
+        assertThat(added.getValue().getProduct().getPrice()).isEqualByComparingTo(new BigDecimal("10.5"));
+        verify(commandHandler).handle(any(ConfirmOrderCommand.class));
+    }
+
+    @Test
+    void mapsExhaustedVersionConflictToConflict() {
+        when(commandHandler.handle(any(ConfirmOrderCommand.class)))
+                .thenReturn(Mono.error(new ConcurrencyException(new OrderId("order-1"), 2, null)));
+
+        webTestClient.post().uri("/orders/order-1/confirm")
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Заказ order-1 изменен параллельным запросом, повторите попытку");
+    }
+
+    @Test
+    void rejectsInvalidRequest() {
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("customerId", " "))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(commandHandler, never()).handle(any(CreateOrderCommand.class));
+    }
+}
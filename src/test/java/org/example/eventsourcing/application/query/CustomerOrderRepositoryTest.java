@@ -0,0 +1,77 @@
+package org.example.eventsourcing.application.query;
+
+import org.example.eventsourcing.application.query.CustomerOrderRepository.CustomerOrder;
+import org.example.eventsourcing.application.query.CustomerOrderRepository.Page;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerOrderRepositoryTest {
+
+    private static EmbeddedRedis redis;
+    private CustomerOrderRepository repository;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flush();
+        repository = new CustomerOrderRepository(redis.getTemplate());
+    }
+
+    @Test
+    void readsPagesNewestFirst() {
+        List<CustomerOrder> orders = List.of(
+                new CustomerOrder("order-1", "customer-1", 1000),
+                new CustomerOrder("order-2", "customer-1", 2000),
+                new CustomerOrder("order-3", "customer-1", 3000),
+                new CustomerOrder("order-4", "customer-2", 4000));
+        repository.save(orders, List.of(orders.get(0)));
+
+        Page first = repository.findPage("customer-1", false, 0, 2);
+        Page second = repository.findPage("customer-1", false, 1, 2);
+        Page confirmed = repository.findPage("customer-1", true, 0, 10);
+
+        assertThat(first).isEqualTo(new Page(List.of("order-3", "order-2"), 3));
+        assertThat(second).isEqualTo(new Page(List.of("order-1"), 3));
+        assertThat(confirmed).isEqualTo(new Page(List.of("order-1"), 1));
+        assertThat(repository.findPage("customer-3", false, 0, 10)).isEqualTo(new Page(List.of(), 0));
+    }
+
+    @Test
+    void findsOwnersByOrderIds() {
+        repository.save(List.of(new CustomerOrder("order-1", "customer-1", 1000),
+                new CustomerOrder("заказ-2", "клиент-2", 2000)), List.of());
+
+        Map<String, CustomerOrder> owners = repository.findByOrderIds(List.of("order-1", "missing", "заказ-2"));
+
+        assertThat(owners).containsOnly(
+                Map.entry("order-1", new CustomerOrder("order-1", "customer-1", 1000)),
+                Map.entry("заказ-2", new CustomerOrder("заказ-2", "клиент-2", 2000)));
+    }
+
+    @Test
+    void savesIdempotently() {
+        CustomerOrder order = new CustomerOrder("order-1", "customer-1", 1000);
+        repository.save(List.of(order), List.of(order));
+        repository.save(List.of(order), List.of(order));
+
+        assertThat(repository.findPage("customer-1", false, 0, 10)).isEqualTo(new Page(List.of("order-1"), 1));
+        assertThat(repository.findPage("customer-1", true, 0, 10)).isEqualTo(new Page(List.of("order-1"), 1));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.eventsourcing.application.query;
+
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderItemCodecTest {
+
+    /**
+     * Кодирует и декодирует товар.
+     *
+     * @param product товар
+     * @return декодированный товар
+     */
+    private static Product roundTrip(Product product) {
+        return OrderItemCodec.decode(OrderItemCodec.encode(product));
+    }
+
+    @Test
+    void roundTripsAllFields() {
+        Product product = new Product("product-1", "Товар", new BigDecimal("1999.90"), 3);
+
+        assertThat(roundTrip(product)).usingRecursiveComparison().isEqualTo(product);
+    }
+
+    @Test
+    void distinguishesNullFromEmpty() {
+        Product nulls = new Product(null, null, null, 0);
+        Product empty = new Product("", "", BigDecimal.ZERO, 0);
+
+        assertThat(roundTrip(nulls)).usingRecursiveComparison().isEqualTo(nulls);
+        assertThat(roundTrip(empty)).usingRecursiveComparison().isEqualTo(empty);
+    }
+
+    @Test
+    void keepsSeparatorsAndMarkersInsideFields() {
+        Product product = new Product("a\u001Fb:3~", "\u001E12:name\u001F~", new BigDecimal("-0.001"), -1);
+
+        assertThat(roundTrip(product)).usingRecursiveComparison().isEqualTo(product);
+    }
+
+    @Test
+    void keepsNonAsciiAndSurrogatePairs() {
+        Product product = new Product("товар-😀", "Чай 🍵 «улун» 茶", new BigDecimal("1E+3"), 2);
+
+        Product decoded = roundTrip(product);
+
+        assertThat(decoded.getProductId()).isEqualTo(product.getProductId());
+        assertThat(decoded.getName()).isEqualTo(product.getName());
+        assertThat(decoded.getPrice()).isEqualByComparingTo("1000");
+    }
+
+    @Test
+    void rejectsRecordWithoutFormatMarker() {
+        assertThatThrownBy(() -> OrderItemCodec.decode("product-1\u001F2\u001F10.50\u001FТовар"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OrderItemCodec.decode(""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsTruncatedRecord() {
+        String encoded = OrderItemCodec.encode(new Product("product-1", "Товар", BigDecimal.ONE, 1));
+
+        assertThatThrownBy(() -> OrderItemCodec.decode(encoded.substring(0, encoded.length() - 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OrderItemCodec.decode(encoded + "x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsLists() {
+        List<Product> products = List.of(new Product("product-1", "Товар 1", BigDecimal.ONE, 1),
+                new Product("product-2", null, null, 2));
+
+        assertThat(OrderItemCodec.decodeAll(OrderItemCodec.encodeAll(products)))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(products);
+    }
+}
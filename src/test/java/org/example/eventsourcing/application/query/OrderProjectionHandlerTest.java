@@ -0,0 +1,305 @@
+package org.example.eventsourcing.application.query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.EventStore;
+import org.example.eventsourcing.infrastructure.messaging.OrderEventHeaders;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderProjectionHandlerTest {
+
+    private OrderViewRepository repository;
+    private RedisTemplate<String, String> redisTemplate;
+    private EventStore eventStore;
+    private final List<SavedView> saved = Collections.synchronizedList(new ArrayList<>());
+    private OrderProjectionHandler handler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(OrderViewRepository.class);
+        redisTemplate = mock(RedisTemplate.class);
+        eventStore = mock(EventStore.class);
+        when(repository.findHeadersById(any())).thenAnswer(invocation -> new HashMap<>());
+        when(repository.saveIfVersion(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<OrderView> views = invocation.getArgument(0);
+            views.forEach(view -> saved.add(new SavedView(Thread.currentThread().getName(), view.getOrderId(),
+                    view.getVersion(), view.getItems().stream().map(Product::getProductId).toList())));
+            return Set.of();
+        });
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of());
+        handler = handler(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    /**
+     * Создает обработчик проекций с указанным количеством дорожек.
+     *
+     * @param lanes количество дорожек
+     * @return обработчик проекций
+     */
+    private OrderProjectionHandler handler(int lanes) {
+        return handler(lanes, redisTemplate);
+    }
+
+    /**
+     * Создает обработчик проекций с указанным количеством дорожек и клиентом Redis.
+     *
+     * @param lanes количество дорожек
+     * @param template клиент Redis
+     * @return обработчик проекций
+     */
+    private OrderProjectionHandler handler(int lanes, RedisTemplate<String, String> template) {
+        EventHandlerRegistry handlerRegistry = new EventHandlerRegistry();
+        handlerRegistry.registerHandlers();
+        return new OrderProjectionHandler(repository, eventStore, handlerRegistry, template, mock(OrderViewCache.class),
+                new ProjectionMetrics(new SimpleMeterRegistry()), lanes, new MockEnvironment());
+    }
+
+    /**
+     * Создает сохраненную проекцию заказа без товаров, как ее читает {@link OrderViewRepository#findHeadersById}.
+     *
+     * @param orderId идентификатор заказа
+     * @param version версия проекции
+     * @return проекция заказа
+     */
+    private static OrderView header(String orderId, int version) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setCustomerId("customer-1");
+        view.setItems(new ArrayList<>());
+        view.setVersion(version);
+        return view;
+    }
+
+    /**
+     * Создает запись Kafka с событием и его версией.
+     *
+     * @param event событие
+     * @param version версия события
+     * @return запись Kafka
+     */
+    private static ConsumerRecord<String, OrderEvent> record(OrderEvent event, int version) {
+        ConsumerRecord<String, OrderEvent> record = new ConsumerRecord<>("orders", 0, 0, event.getOrderId().getValue(), event);
+        OrderEventHeaders.setVersion(record.headers(), version);
+        return record;
+    }
+
+    /**
+     * Создает товар.
+     *
+     * @param index порядковый номер товара
+     * @return товар
+     */
+    private static Product product(int index) {
+        return new Product("product-" + index, "Товар " + index, new BigDecimal("10.50"), 1);
+    }
+
+    /**
+     * Создает пакет, в котором события заказов перемешаны между собой.
+     *
+     * @param orders идентификаторы заказов
+     * @return записи Kafka
+     */
+    private static List<ConsumerRecord<String, OrderEvent>> interleavedBatch(List<OrderId> orders) {
+        List<ConsumerRecord<String, OrderEvent>> records = new ArrayList<>();
+        orders.forEach(orderId -> records.add(record(new OrderCreatedEvent(orderId, "customer-1"), 1)));
+        for (int item = 1; item <= 3; item++) {
+            for (OrderId orderId : orders) {
+                records.add(record(new ItemAddedEvent(orderId, product(item)), item + 1));
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void preservesPerOrderOrderAcrossLanes() {
+        List<OrderId> orders = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            orders.add(new OrderId("order-" + i));
+        }
+
+        handler.handle(interleavedBatch(orders));
+
+        assertThat(saved).hasSize(16);
+        assertThat(saved).allSatisfy(view -> {
+            assertThat(view.version()).isEqualTo(4);
+            assertThat(view.productIds()).containsExactly("product-1", "product-2", "product-3");
+        });
+        assertThat(saved).extracting(SavedView::orderId)
+                .containsExactlyInAnyOrderElementsOf(orders.stream().map(OrderId::getValue).toList());
+        assertThat(saved).extracting(SavedView::thread).allMatch(thread -> thread.startsWith("projection-lane-"));
+        assertThat(saved.stream().map(SavedView::thread).distinct().count()).isGreaterThan(1);
+    }
+
+    @Test
+    void returnsOnlyAfterAllLanesFinish() {
+        when(repository.saveIfVersion(anyList(), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            List<OrderView> views = invocation.getArgument(0);
+            views.forEach(view -> saved.add(new SavedView(Thread.currentThread().getName(), view.getOrderId(),
+                    view.getVersion(), List.of())));
+            return Set.of();
+        });
+        List<OrderId> orders = List.of(new OrderId("order-1"), new OrderId("order-2"), new OrderId("order-3"),
+                new OrderId("order-4"), new OrderId("order-5"), new OrderId("order-6"));
+
+        handler.handle(interleavedBatch(orders));
+
+        assertThat(saved).hasSize(6);
+    }
+
+    @Test
+    void processesSeriallyWithSingleLane() {
+        handler.shutdown();
+        handler = handler(1);
+        List<OrderId> orders = List.of(new OrderId("order-1"), new OrderId("order-2"));
+
+        handler.handle(interleavedBatch(orders));
+
+        assertThat(saved).hasSize(2);
+        assertThat(saved).extracting(SavedView::thread).containsOnly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void reloadsOrderEventsFromStoreOnVersionGap() {
+        handler.shutdown();
+        handler = handler(1);
+        OrderId stale = new OrderId("order-1");
+        OrderId missing = new OrderId("order-2");
+        OrderId contiguous = new OrderId("order-3");
+        when(repository.findHeadersById(any())).thenAnswer(invocation -> new HashMap<>(Map.of("order-1", header("order-1", 1))));
+        when(eventStore.loadEvents(stale, 1)).thenReturn(List.of(
+                new ItemAddedEvent(stale, product(2)), new ItemAddedEvent(stale, product(3))));
+        when(eventStore.loadEvents(missing, 0)).thenReturn(List.of(
+                new OrderCreatedEvent(missing, "customer-2"), new ItemAddedEvent(missing, product(1))));
+
+        handler.handle(List.of(
+                record(new ItemAddedEvent(stale, product(3)), 3),
+                record(new ItemAddedEvent(missing, product(1)), 2),
+                record(new OrderCreatedEvent(contiguous, "customer-3"), 1)));
+
+        assertThat(saved).containsExactlyInAnyOrder(
+                new SavedView(Thread.currentThread().getName(), "order-1", 3, List.of("product-2", "product-3")),
+                new SavedView(Thread.currentThread().getName(), "order-2", 2, List.of("product-1")),
+                new SavedView(Thread.currentThread().getName(), "order-3", 1, List.of()));
+        verify(eventStore, never()).loadEvents(eq(contiguous), anyInt());
+    }
+
+    @Test
+    void retriesConflictingOrderFromReloadedVersion() {
+        handler.shutdown();
+        handler = handler(1);
+        OrderId orderId = new OrderId("order-1");
+        List<Map<String, Integer>> expectedVersions = new ArrayList<>();
+        when(repository.saveIfVersion(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<OrderView> views = invocation.getArgument(0);
+            views.forEach(view -> saved.add(new SavedView(Thread.currentThread().getName(), view.getOrderId(),
+                    view.getVersion(), view.getItems().stream().map(Product::getProductId).toList())));
+            expectedVersions.add(Map.copyOf(invocation.getArgument(1)));
+            return expectedVersions.size() == 1 ? Set.of("order-1") : Set.of();
+        });
+        when(repository.findHeadersById(any()))
+                .thenAnswer(invocation -> new HashMap<>())
+                .thenAnswer(invocation -> new HashMap<>(Map.of("order-1", header("order-1", 2))));
+
+        handler.handle(List.of(
+                record(new OrderCreatedEvent(orderId, "customer-1"), 1),
+                record(new ItemAddedEvent(orderId, product(1)), 2),
+                record(new ItemAddedEvent(orderId, product(2)), 3)));
+
+        assertThat(expectedVersions).containsExactly(Map.of("order-1", 0), Map.of("order-1", 2));
+        assertThat(saved).extracting(SavedView::version).containsExactly(3, 3);
+        assertThat(saved.get(1).productIds()).containsExactly("product-2");
+        verify(eventStore, never()).loadEvents(any(), anyInt());
+    }
+
+    @Test
+    void failsWhenVersionKeepsChanging() {
+        OrderId orderId = new OrderId("order-1");
+        when(repository.saveIfVersion(anyList(), anyMap())).thenReturn(Set.of("order-1"));
+
+        assertThatThrownBy(() -> handler.handle(List.of(record(new OrderCreatedEvent(orderId, "customer-1"), 1))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("order-1");
+        verify(repository, times(3)).saveIfVersion(anyList(), anyMap());
+    }
+
+    @Test
+    void marksAppliedUnversionedEventsAndSkipsTheirRedelivery() {
+        try (EmbeddedRedis redis = EmbeddedRedis.start()) {
+            OrderProjectionHandler legacyHandler = handler(1, redis.getTemplate());
+            OrderId orderId = new OrderId("order-1");
+            OrderCreatedEvent created = new OrderCreatedEvent(orderId, "customer-1");
+
+            legacyHandler.handle(List.of(record(created, OrderEventHeaders.UNVERSIONED)));
+            legacyHandler.handle(List.of(record(created, OrderEventHeaders.UNVERSIONED)));
+
+            assertThat(redis.getTemplate().hasKey(OrderProjectionHandler.LEGACY_EVENT_PREFIX + created.getEventId())).isTrue();
+            assertThat(saved).hasSize(1);
+        }
+    }
+
+    @Test
+    void deletesLegacyIdempotencyKeysInBatches() {
+        try (EmbeddedRedis redis = EmbeddedRedis.start()) {
+            RedisTemplate<String, String> template = redis.getTemplate();
+            for (int i = 0; i < 2500; i++) {
+                template.opsForValue().set(OrderProjectionHandler.LEGACY_EVENT_PREFIX + "event-" + i, "processed");
+            }
+            template.opsForValue().set("order:order-1", "view");
+            OrderProjectionHandler legacyHandler = handler(1, template);
+
+            assertThat(legacyHandler.deleteLegacyKeys()).isEqualTo(2500);
+            assertThat(template.keys("*")).containsExactly("order:order-1");
+            assertThat(legacyHandler.deleteLegacyKeys()).isZero();
+        }
+    }
+
+    /**
+     * Снимок записанной проекции.
+     *
+     * @param thread поток, записавший проекцию
+     * @param orderId идентификатор заказа
+     * @param version версия проекции
+     * @param productIds идентификаторы товаров
+     */
+    private record SavedView(String thread, String orderId, int version, List<String> productIds) {
+    }
+}
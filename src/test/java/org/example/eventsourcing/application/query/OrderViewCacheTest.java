@@ -0,0 +1,152 @@
+package org.example.eventsourcing.application.query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderViewCacheTest {
+
+    private static EmbeddedRedis redis;
+    private OrderViewCache cache;
+    private RedisMessageListenerContainer container;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new OrderViewCache(redis.getTemplate(), 100, Duration.ofMinutes(1), "order-view-invalidation-test",
+                new SimpleMeterRegistry());
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redis.getConnectionFactory());
+        container.addMessageListener(cache, new ChannelTopic(cache.getChannel()));
+        container.afterPropertiesSet();
+        container.start();
+        awaitSubscription();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        container.destroy();
+    }
+
+    /**
+     * Создает проекцию заказа.
+     *
+     * @param orderId идентификатор заказа
+     * @return проекция
+     */
+    private static OrderView view(String orderId) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        return view;
+    }
+
+    /**
+     * Ждет, пока контейнер подпишется на канал (до этого сообщения теряются)
+     * и получит пробное сообщение.
+     */
+    private void awaitSubscription() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Long receivers = redis.getTemplate().execute(connection -> connection.publish(
+                    cache.getChannel().getBytes(), "warmup".getBytes()), true);
+            if (receivers != null && receivers > 0) {
+                awaitEpochAfter(0);
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("Подписка на канал инвалидации не установлена");
+    }
+
+    /**
+     * Ждет, пока счетчик инвалидаций не превысит указанное значение.
+     * Счетчик увеличивается до удаления записей из кэша.
+     *
+     * @param epoch значение счетчика до публикации
+     */
+    private void awaitEpochAfter(long epoch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.epoch() <= epoch) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Сообщение инвалидации не получено");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Ждет удаления проекции из кэша.
+     *
+     * @param orderId идентификатор заказа
+     */
+    private void awaitEvicted(String orderId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.get(orderId).isPresent() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void invalidatesPublishedOrdersOnly() throws Exception {
+        cache.put(view("order-1"), cache.epoch());
+        cache.put(view("order-2"), cache.epoch());
+        cache.put(view("order-3"), cache.epoch());
+        long epoch = cache.epoch();
+
+        cache.publishInvalidation(List.of("order-1", "order-3"));
+        awaitEpochAfter(epoch);
+        awaitEvicted("order-1");
+        awaitEvicted("order-3");
+
+        assertThat(cache.get("order-1")).isEmpty();
+        assertThat(cache.get("order-2")).isPresent();
+        assertThat(cache.get("order-3")).isEmpty();
+    }
+
+    @Test
+    void invalidatesAllOnBroadcast() throws Exception {
+        cache.put(view("order-1"), cache.epoch());
+        cache.put(view("order-2"), cache.epoch());
+        long epoch = cache.epoch();
+
+        cache.publishInvalidateAll();
+        awaitEpochAfter(epoch);
+        awaitEvicted("order-1");
+        awaitEvicted("order-2");
+
+        assertThat(cache.get("order-1")).isEmpty();
+        assertThat(cache.get("order-2")).isEmpty();
+    }
+
+    @Test
+    void skipsViewReadBeforeInvalidation() throws Exception {
+        long readEpoch = cache.epoch();
+        cache.publishInvalidation(List.of("order-1"));
+        awaitEpochAfter(readEpoch);
+
+        cache.put(view("order-1"), readEpoch);
+
+        assertThat(cache.get("order-1")).isEmpty();
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.eventsourcing.application.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class OrderViewRepositoryTest {
+
+    private static EmbeddedRedis redis;
+    private OrderViewRepository repository;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flush();
+        repository = new OrderViewRepository(redis.getTemplate(), new ObjectMapper(), mock(OrderViewCache.class));
+    }
+
+    @Test
+    void savesAndLoadsViewWithItems() {
+        OrderView view = view("order-1", 2, product("p-1", "Чай"), product("p-2", null));
+        assertThat(repository.saveIfVersion(List.of(view), Map.of())).isEmpty();
+        view.getItems().add(product("p-3", "Кофе"));
+        view.setConfirmed(true);
+        view.setVersion(4);
+        assertThat(repository.saveIfVersion(List.of(view), Map.of("order-1", 2))).isEmpty();
+
+        OrderView loaded = repository.findById("order-1").orElseThrow();
+
+        assertThat(loaded.getCustomerId()).isEqualTo("customer-1");
+        assertThat(loaded.isConfirmed()).isTrue();
+        assertThat(loaded.getVersion()).isEqualTo(4);
+        assertThat(loaded.getItems()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(product("p-1", "Чай"), product("p-2", null), product("p-3", "Кофе"));
+        assertThat(redis.getTemplate().keys("*")).containsExactlyInAnyOrder("order:order-1", "order:order-1:items");
+    }
+
+    @Test
+    void findsSeveralViewsAndHeaders() {
+        repository.saveIfVersion(List.of(view("order-1", 1, product("p-1", "Чай")), view("order-2", 3)), Map.of());
+
+        Map<String, OrderView> views = repository.findAllById(List.of("order-2", "missing", "order-1"));
+        Map<String, OrderView> headers = repository.findHeadersById(List.of("order-1", "missing"));
+
+        assertThat(views.keySet()).containsExactly("order-2", "order-1");
+        assertThat(views.get("order-1").getItems()).hasSize(1);
+        assertThat(views.get("order-2").getItems()).isEmpty();
+        assertThat(headers.keySet()).containsExactly("order-1");
+        assertThat(headers.get("order-1").getVersion()).isEqualTo(1);
+        assertThat(headers.get("order-1").getItems()).isEmpty();
+        assertThat(headers.get("order-1").getStoredItemCount()).isZero();
+    }
+
+    @Test
+    void rejectsSaveWithStaleVersion() {
+        repository.saveIfVersion(List.of(view("order-1", 2, product("p-1", "Чай"))), Map.of());
+
+        OrderView stale = view("order-1", 3, product("p-2", "Кофе"));
+        assertThat(repository.saveIfVersion(List.of(stale), Map.of("order-1", 1))).containsExactly("order-1");
+
+        OrderView loaded = repository.findById("order-1").orElseThrow();
+        assertThat(loaded.getVersion()).isEqualTo(2);
+        assertThat(loaded.getItems()).extracting(Product::getProductId).containsExactly("p-1");
+    }
+
+    @Test
+    void replacesViewsWithShadowCopies() {
+        repository.saveIfVersion(List.of(view("order-1", 1, product("p-1", "Чай"), product("p-2", "Кофе")),
+                view("order-2", 1, product("p-3", "Сок"))), Map.of());
+
+        repository.saveShadow(List.of(view("order-1", 5, product("p-4", "Вода")), view("order-2", 2)));
+        repository.promoteShadow(List.of(view("order-1", 5, product("p-4", "Вода")), view("order-2", 2)));
+
+        Map<String, OrderView> views = repository.findAllById(List.of("order-1", "order-2"));
+        assertThat(views.get("order-1").getVersion()).isEqualTo(5);
+        assertThat(views.get("order-1").getItems()).extracting(Product::getProductId).containsExactly("p-4");
+        assertThat(views.get("order-2").getVersion()).isEqualTo(2);
+        assertThat(views.get("order-2").getItems()).isEmpty();
+        assertThat(redis.getTemplate().keys("*"))
+                .containsExactlyInAnyOrder("order:order-1", "order:order-1:items", "order:order-2");
+    }
+
+    @Test
+    void movesLegacyJsonItemsToList() {
+        redis.getTemplate().opsForHash().putAll("order:order-1", Map.of(
+                "orderId", "order-1",
+                "customerId", "customer-1",
+                "confirmed", "false",
+                "version", "1",
+                "items", "[{\"productId\":\"p-1\",\"name\":\"Чай\",\"price\":10.50,\"quantity\":2}]"));
+
+        OrderView legacy = repository.findById("order-1").orElseThrow();
+        assertThat(legacy.getItems()).usingRecursiveFieldByFieldElementComparator().containsExactly(product("p-1", "Чай"));
+        assertThat(legacy.getStoredItemCount()).isZero();
+
+        legacy.getItems().add(product("p-2", "Кофе"));
+        legacy.setVersion(2);
+        assertThat(repository.saveIfVersion(List.of(legacy), Map.of("order-1", 1))).isEmpty();
+
+        assertThat(redis.getTemplate().opsForHash().hasKey("order:order-1", "items")).isFalse();
+        assertThat(repository.findById("order-1").orElseThrow().getItems())
+                .extracting(Product::getProductId).containsExactly("p-1", "p-2");
+    }
+
+    /**
+     * Создает проекцию заказа клиента customer-1 с товарами, еще не записанными в Redis.
+     *
+     * @param orderId идентификатор заказа
+     * @param version версия проекции
+     * @param items товары
+     * @return проекция заказа
+     */
+    private static OrderView view(String orderId, int version, Product... items) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setCustomerId("customer-1");
+        view.setVersion(version);
+        view.setItems(new ArrayList<>(List.of(items)));
+        return view;
+    }
+
+    /**
+     * Создает товар с ценой 10.50 и количеством 2.
+     *
+     * @param productId идентификатор товара
+     * @param name название товара
+     * @return товар
+     */
+    private static Product product(String productId, String name) {
+        return new Product(productId, name, new BigDecimal("10.50"), 2);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.eventsourcing.application.query;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectionMetricsTest {
+
+    @Test
+    void recordsBatchMetricsTaggedByProjection() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProjectionMetrics metrics = new ProjectionMetrics(meterRegistry);
+        OrderId orderId = OrderId.generate();
+
+        metrics.record("order", metrics.start(), List.of(new OrderCreatedEvent(orderId, "customer-1"),
+                new OrderConfirmedEvent(orderId)));
+        metrics.record("customer-order", metrics.start(), List.of(new OrderConfirmedEvent(orderId)));
+
+        assertThat(meterRegistry.get("orders.projection.batch").tag("projection", "order").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.projection.batch.size").tag("projection", "order").summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("orders.projection.batch.size").tag("projection", "customer-order").summary()
+                .totalAmount()).isEqualTo(1);
+        Timer lag = meterRegistry.get("orders.projection.lag").tag("projection", "order").timer();
+        assertThat(lag.count()).isEqualTo(2);
+        assertThat(lag.max(TimeUnit.SECONDS)).isLessThan(60);
+    }
+}
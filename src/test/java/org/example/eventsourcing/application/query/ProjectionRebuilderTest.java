@@ -0,0 +1,131 @@
+package org.example.eventsourcing.application.query;
+
+import org.example.eventsourcing.application.query.ProjectionRebuilder.RebuildResult;
+import org.example.eventsourcing.application.query.ProjectionRebuilder.RebuildStatus;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.InMemoryEventStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectionRebuilderTest {
+
+    private InMemoryEventStore eventStore;
+    private OrderViewRepository repository;
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    private ProjectionRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemoryEventStore(1);
+        EventHandlerRegistry handlerRegistry = new EventHandlerRegistry();
+        handlerRegistry.registerHandlers();
+        repository = mock(OrderViewRepository.class);
+        listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+        rebuilder = new ProjectionRebuilder(eventStore, handlerRegistry, repository, listenerRegistry, 2, 3, 2,
+                Duration.ofMillis(200));
+    }
+
+    /**
+     * Создает товар.
+     *
+     * @param index порядковый номер товара
+     * @return товар
+     */
+    private static Product product(int index) {
+        return new Product("product-" + index, "Товар " + index, new BigDecimal("10.50"), index);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildsViewsFromJournal() {
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+        eventStore.saveEvents(first, 0, List.of(new OrderCreatedEvent(first, "customer-1")));
+        eventStore.saveEvents(second, 0, List.of(new OrderCreatedEvent(second, "customer-2"),
+                new ItemAddedEvent(second, product(1))));
+        eventStore.saveEvents(first, 1, List.of(new ItemAddedEvent(first, product(2)),
+                new ItemAddedEvent(first, product(3)), new OrderConfirmedEvent(first)));
+
+        RebuildResult result = rebuilder.rebuild();
+
+        assertThat(result.status()).isEqualTo(RebuildStatus.COMPLETED);
+        assertThat(result.events()).isEqualTo(6);
+        assertThat(result.orders()).isEqualTo(2);
+        ArgumentCaptor<Collection<OrderView>> promoted = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).promoteShadow(promoted.capture());
+        OrderView view = promoted.getValue().stream()
+                .filter(candidate -> candidate.getOrderId().equals(first.getValue()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(view.getVersion()).isEqualTo(4);
+        assertThat(view.isConfirmed()).isTrue();
+        assertThat(view.getItems()).extracting(Product::getProductId).containsExactly("product-2", "product-3");
+        assertThat(rebuilder.getLastResult()).contains(result);
+    }
+
+    @Test
+    void failsWhenStreamDoesNotStartWithCreation() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, List.of(new ItemAddedEvent(orderId, product(1))));
+
+        assertThatThrownBy(() -> rebuilder.rebuild())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(orderId.getValue());
+
+        verify(repository, never()).promoteShadow(any());
+        assertThat(rebuilder.getLastResult()).get().extracting(RebuildResult::status).isEqualTo(RebuildStatus.FAILED);
+        assertThat(rebuilder.isRunning()).isFalse();
+    }
+
+    @Test
+    void recordsFailureOfAsyncRebuild() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, List.of(new OrderConfirmedEvent(orderId)));
+
+        assertThatThrownBy(() -> rebuilder.rebuildAsync().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        RebuildResult result = rebuilder.getLastResult().orElseThrow();
+        assertThat(result.status()).isEqualTo(RebuildStatus.FAILED);
+        assertThat(result.error()).contains(orderId.getValue());
+        assertThat(rebuilder.isRunning()).isFalse();
+    }
+
+    @Test
+    void failsWhenListenerDoesNotPauseInTime() {
+        MessageListenerContainer listener = mock(MessageListenerContainer.class);
+        when(listener.isRunning()).thenReturn(true);
+        when(listener.isPauseRequested()).thenReturn(true);
+        when(listener.isContainerPaused()).thenReturn(false);
+        when(listenerRegistry.getListenerContainer(OrderProjectionHandler.LISTENER_ID)).thenReturn(listener);
+
+        assertThatThrownBy(() -> rebuilder.rebuild())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("не приостановился");
+
+        verify(listener).resume();
+        assertThat(rebuilder.getLastResult()).get().extracting(RebuildResult::status).isEqualTo(RebuildStatus.FAILED);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.eventsourcing.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveConfigTest {
+
+    /**
+     * Создает окружение с активными профилями.
+     *
+     * @param profiles активные профили
+     * @return окружение приложения
+     */
+    private static MockEnvironment environment(String... profiles) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profiles);
+        return environment;
+    }
+
+    @Test
+    void rejectsStoresWithoutMongo() {
+        assertThatThrownBy(() -> new ReactiveConfig(environment("reactive", "memory-store")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ReactiveConfig(environment("reactive", "file-store")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void acceptsMongoEventStore() {
+        assertThatCode(() -> new ReactiveConfig(environment("reactive"))).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.eventsourcing.domain.aggregate;
+
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderLinesTest {
+
+    /**
+     * Создает товар с указанной ценой.
+     *
+     * @param index порядковый номер товара
+     * @param price цена
+     * @return товар
+     */
+    private static Product product(int index, BigDecimal price) {
+        return new Product("product-" + index, "Товар " + index, price, index);
+    }
+
+    @Test
+    void keepsProductsInInsertionOrderBeyondInitialCapacity() {
+        OrderLines lines = OrderLines.empty(ReplayMode.FULL);
+        for (int i = 0; i < 10; i++) {
+            lines.add(product(i, new BigDecimal("10.50").add(BigDecimal.valueOf(i))));
+        }
+
+        assertThat(lines.size()).isEqualTo(10);
+        assertThat(lines.isDetailed()).isTrue();
+        assertThat(lines.toProducts()).hasSize(10);
+        assertThat(lines.toProducts().get(9)).usingRecursiveComparison().isEqualTo(product(9, new BigDecimal("19.50")));
+    }
+
+    @Test
+    void preservesPriceScaleAndMissingPrice() {
+        OrderLines lines = OrderLines.of(List.of(product(1, new BigDecimal("1.000")), product(2, null)));
+
+        List<Product> products = lines.toProducts();
+
+        assertThat(products.get(0).getPrice()).isEqualTo(new BigDecimal("1.000"));
+        assertThat(products.get(1).getPrice()).isNull();
+    }
+
+    @Test
+    void storesPricesThatDoNotFitInLong() {
+        BigDecimal large = new BigDecimal("123456789012345678901234567890.12");
+        BigDecimal negativeLarge = new BigDecimal("-9223372036854775809");
+        OrderLines lines = OrderLines.empty(ReplayMode.FULL);
+        lines.add(product(1, new BigDecimal("9223372036854775807")));
+        lines.add(product(2, large));
+        lines.add(product(3, negativeLarge));
+        for (int i = 4; i < 10; i++) {
+            lines.add(product(i, BigDecimal.TEN));
+        }
+
+        List<Product> products = lines.copy().toProducts();
+
+        assertThat(products.get(0).getPrice()).isEqualTo(new BigDecimal("9223372036854775807"));
+        assertThat(products.get(1).getPrice()).isEqualTo(large);
+        assertThat(products.get(2).getPrice()).isEqualTo(negativeLarge);
+        assertThat(products.get(8).getPrice()).isEqualTo(BigDecimal.TEN);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        OrderLines lines = OrderLines.of(List.of(product(1, BigDecimal.ONE)));
+        OrderLines copy = lines.copy();
+
+        copy.add(product(2, BigDecimal.TEN));
+        lines.add(product(3, BigDecimal.ONE));
+
+        assertThat(lines.toProducts()).extracting(Product::getProductId).containsExactly("product-1", "product-3");
+        assertThat(copy.toProducts()).extracting(Product::getProductId).containsExactly("product-1", "product-2");
+    }
+
+    @Test
+    void stateOnlyModeCountsWithoutDetails() {
+        OrderLines lines = OrderLines.empty(ReplayMode.STATE_ONLY);
+        assertThat(lines.isEmpty()).isTrue();
+
+        lines.add(product(1, new BigDecimal("123456789012345678901234567890")));
+        lines.add(product(2, BigDecimal.ONE));
+        OrderLines copy = lines.copy();
+        copy.add(product(3, BigDecimal.ONE));
+
+        assertThat(lines.isDetailed()).isFalse();
+        assertThat(lines.size()).isEqualTo(2);
+        assertThat(copy.size()).isEqualTo(3);
+        assertThatThrownBy(lines::toProducts).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void countOnlyHasGivenSize() {
+        OrderLines lines = OrderLines.countOnly(3);
+
+        assertThat(lines.size()).isEqualTo(3);
+        assertThat(lines.isEmpty()).isFalse();
+        assertThat(lines.isDetailed()).isFalse();
+    }
+}
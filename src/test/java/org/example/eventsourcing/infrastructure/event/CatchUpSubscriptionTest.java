@@ -0,0 +1,109 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatchUpSubscriptionTest {
+
+    private final List<RecordedEvent> journal = new ArrayList<>();
+    private EventStore eventStore;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = mock(EventStore.class);
+        when(eventStore.readAll(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return journal.stream()
+                    .filter(event -> event.getPosition() > after)
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    /**
+     * Добавляет событие в журнал заглушки.
+     *
+     * @param position позиция события
+     * @param storedAt время записи
+     */
+    private void append(long position, Instant storedAt) {
+        OrderId orderId = OrderId.generate();
+        journal.add(new RecordedEvent(position, orderId, 1, storedAt, new OrderCreatedEvent(orderId, "customer-1")));
+    }
+
+    /**
+     * Догоняет журнал и возвращает позиции обработанных событий.
+     *
+     * @param subscription подписка
+     * @return позиции в порядке обработки
+     */
+    private static List<Long> catchUp(CatchUpSubscription subscription) {
+        List<Long> positions = new ArrayList<>();
+        subscription.catchUp(event -> positions.add(event.getPosition()));
+        return positions;
+    }
+
+    @Test
+    void readsContiguousJournalAcrossBatches() {
+        Instant old = Instant.now().minusSeconds(60);
+        for (long position = 1; position <= 7; position++) {
+            append(position, old);
+        }
+        CatchUpSubscription subscription = new CatchUpSubscription(eventStore, 0, 3, Duration.ofSeconds(5));
+
+        assertThat(catchUp(subscription)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(subscription.getCheckpoint()).isEqualTo(7);
+    }
+
+    @Test
+    void stopsBeforeRecentGapAndResumesWhenItIsFilled() {
+        Instant now = Instant.now();
+        append(1, now);
+        append(2, now);
+        append(4, now);
+        CatchUpSubscription subscription = new CatchUpSubscription(eventStore, 0, 10, Duration.ofSeconds(5));
+
+        assertThat(catchUp(subscription)).containsExactly(1L, 2L);
+        assertThat(subscription.getCheckpoint()).isEqualTo(2);
+
+        journal.add(2, new RecordedEvent(3, OrderId.generate(), 1, now, new OrderCreatedEvent(OrderId.generate(), "customer-1")));
+        assertThat(catchUp(subscription)).containsExactly(3L, 4L);
+        assertThat(subscription.getCheckpoint()).isEqualTo(4);
+    }
+
+    @Test
+    void skipsGapOlderThanTimeout() {
+        Instant old = Instant.now().minusSeconds(60);
+        append(1, old);
+        append(3, old);
+        append(4, old);
+        CatchUpSubscription subscription = new CatchUpSubscription(eventStore, 0, 10, Duration.ofSeconds(5));
+
+        assertThat(catchUp(subscription)).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void startsAfterCheckpoint() {
+        Instant old = Instant.now().minusSeconds(60);
+        for (long position = 1; position <= 5; position++) {
+            append(position, old);
+        }
+        CatchUpSubscription subscription = new CatchUpSubscription(eventStore, 3, 10, Duration.ofSeconds(5));
+
+        assertThat(catchUp(subscription)).containsExactly(4L, 5L);
+    }
+}
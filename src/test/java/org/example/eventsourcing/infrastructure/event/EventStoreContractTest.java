@@ -0,0 +1,194 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.configuration.AppConfig;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.example.eventsourcing.infrastructure.util.JsonEventCodec;
+import org.example.eventsourcing.infrastructure.util.SmileEventCodec;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Общие проверки поведения хранилища событий, которые должна проходить любая реализация.
+ */
+abstract class EventStoreContractTest {
+
+    /**
+     * Возвращает проверяемое хранилище, пустое перед каждым тестом.
+     *
+     * @return хранилище событий
+     */
+    protected abstract EventStore eventStore();
+
+    /**
+     * Создает сериализатор событий без контекста Spring.
+     *
+     * @return сериализатор событий
+     */
+    protected static EventSerializer eventSerializer() {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        return new EventSerializer(objectMapper, List.of(new JsonEventCodec(objectMapper), new SmileEventCodec(objectMapper)), "smile",
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Создает реестр типов событий.
+     *
+     * @return реестр типов событий
+     */
+    protected static EventTypeRegistry eventTypeRegistry() {
+        EventTypeRegistry registry = new EventTypeRegistry();
+        registry.registerEvents();
+        return registry;
+    }
+
+    /**
+     * Создает поток событий заказа: создание и добавление товаров.
+     *
+     * @param orderId идентификатор заказа
+     * @param size общее количество событий
+     * @return список событий
+     */
+    protected static List<OrderEvent> orderStream(OrderId orderId, int size) {
+        List<OrderEvent> events = new ArrayList<>(size);
+        events.add(new OrderCreatedEvent(orderId, "customer-42"));
+        for (int i = 1; i < size; i++) {
+            events.add(new ItemAddedEvent(orderId, new Product("product-" + i, "Товар " + i, new BigDecimal("199.90"), i)));
+        }
+        return events;
+    }
+
+    /**
+     * Возвращает идентификаторы событий: события домена не переопределяют равенство.
+     *
+     * @param events список событий
+     * @return идентификаторы событий в исходном порядке
+     */
+    protected static List<String> eventIds(List<OrderEvent> events) {
+        return events.stream().map(OrderEvent::getEventId).toList();
+    }
+
+    @Test
+    void loadsSavedEventsInVersionOrder() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 5);
+        eventStore().saveEvents(orderId, 0, events.subList(0, 2));
+        eventStore().saveEvents(orderId, 2, events.subList(2, 5));
+
+        assertThat(eventIds(eventStore().loadEvents(orderId))).isEqualTo(eventIds(events));
+    }
+
+    @Test
+    void loadsEventsAfterVersion() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 5);
+        eventStore().saveEvents(orderId, 0, events);
+
+        assertThat(eventIds(eventStore().loadEvents(orderId, 3))).isEqualTo(eventIds(events.subList(3, 5)));
+        assertThat(eventStore().loadEvents(orderId, 5)).isEmpty();
+    }
+
+    @Test
+    void streamsEventsAfterVersion() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 4);
+        eventStore().saveEvents(orderId, 0, events);
+
+        try (Stream<OrderEvent> stream = eventStore().streamEvents(orderId, 1)) {
+            assertThat(eventIds(stream.toList())).isEqualTo(eventIds(events.subList(1, 4)));
+        }
+    }
+
+    @Test
+    void returnsNothingForUnknownOrder() {
+        assertThat(eventStore().loadEvents(OrderId.generate())).isEmpty();
+        try (Stream<OrderEvent> stream = eventStore().streamEvents(OrderId.generate(), 0)) {
+            assertThat(stream).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsStaleExpectedVersion() {
+        OrderId orderId = OrderId.generate();
+        eventStore().saveEvents(orderId, 0, orderStream(orderId, 2));
+
+        assertThatThrownBy(() -> eventStore().saveEvents(orderId, 1, List.of(new OrderConfirmedEvent(orderId))))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(eventStore().loadEvents(orderId)).hasSize(2);
+    }
+
+    @Test
+    void acceptsExactlyOneConcurrentWriterPerVersion() throws Exception {
+        OrderId orderId = OrderId.generate();
+        eventStore().saveEvents(orderId, 0, orderStream(orderId, 1));
+
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                Callable<Boolean> writer = () -> {
+                    start.await();
+                    try {
+                        eventStore().saveEvents(orderId, 1, List.of(new OrderConfirmedEvent(orderId)));
+                        return true;
+                    } catch (ConcurrencyException e) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(writer));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                accepted += result.get() ? 1 : 0;
+            }
+            assertThat(accepted).isEqualTo(1);
+            assertThat(eventStore().loadEvents(orderId)).hasSize(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsGlobalJournalInPositionOrder() {
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+        eventStore().saveEvents(first, 0, orderStream(first, 2));
+        eventStore().saveEvents(second, 0, orderStream(second, 1));
+        eventStore().saveEvents(first, 2, List.of(new OrderConfirmedEvent(first)));
+
+        List<RecordedEvent> journal = eventStore().readAll(0, 10);
+
+        assertThat(journal).extracting(RecordedEvent::getOrderId).containsExactly(first, first, second, first);
+        assertThat(journal).extracting(RecordedEvent::getVersion).containsExactly(1, 2, 1, 3);
+        assertThat(journal).extracting(RecordedEvent::getPosition).isSorted().doesNotHaveDuplicates();
+        assertThat(journal).allSatisfy(recorded -> assertThat(recorded.getStoredAt()).isNotNull());
+
+        List<RecordedEvent> page = eventStore().readAll(journal.get(0).getPosition(), 2);
+        assertThat(page).extracting(RecordedEvent::getPosition)
+                .containsExactly(journal.get(1).getPosition(), journal.get(2).getPosition());
+        assertThat(eventStore().readAll(journal.get(3).getPosition(), 10)).isEmpty();
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileEventStoreTest extends EventStoreContractTest {
+
+    @TempDir
+    Path directory;
+
+    private FileEventStore eventStore;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = open(directory, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStore.close();
+    }
+
+    @Override
+    protected EventStore eventStore() {
+        return eventStore;
+    }
+
+    /**
+     * Открывает хранилище в указанном каталоге.
+     *
+     * @param directory каталог сегментов
+     * @param segmentSize размер сегмента
+     * @return файловое хранилище событий
+     */
+    private FileEventStore open(Path directory, DataSize segmentSize) {
+        return new FileEventStore(eventSerializer(), eventTypeRegistry(), directory.toString(), segmentSize,
+                FsyncPolicy.GROUP, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void restoresIndexAfterReopen() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 3);
+        eventStore.saveEvents(orderId, 0, events);
+        eventStore.close();
+
+        eventStore = open(directory, DataSize.ofMegabytes(1));
+
+        assertThat(eventIds(eventStore.loadEvents(orderId))).isEqualTo(eventIds(events));
+        assertThatThrownBy(() -> eventStore.saveEvents(orderId, 2, List.of(new OrderConfirmedEvent(orderId))))
+                .isInstanceOf(ConcurrencyException.class);
+        eventStore.saveEvents(orderId, 3, List.of(new OrderConfirmedEvent(orderId)));
+        assertThat(eventStore.readAll(0, 10)).extracting(RecordedEvent::getPosition).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void discardsTornRecordOnReopen() throws IOException {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, orderStream(orderId, 2));
+        eventStore.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, 0);
+            int secondRecord = 8 + header.getInt(0);
+            channel.write(ByteBuffer.allocate(1).put(0, (byte) 0x7f), secondRecord + 20);
+        }
+
+        eventStore = open(directory, DataSize.ofMegabytes(1));
+
+        assertThat(eventStore.loadEvents(orderId)).hasSize(1);
+        eventStore.saveEvents(orderId, 1, List.of(new OrderConfirmedEvent(orderId)));
+        assertThat(eventStore.loadEvents(orderId)).hasSize(2);
+    }
+
+    @Test
+    void rollsSegmentsWhenFull() throws IOException {
+        Path small = directory.resolve("small");
+        eventStore.close();
+        eventStore = open(small, DataSize.ofKilobytes(2));
+
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 40);
+        for (int i = 0; i < events.size(); i++) {
+            eventStore.saveEvents(orderId, i, List.of(events.get(i)));
+        }
+        eventStore.close();
+        eventStore = open(small, DataSize.ofKilobytes(2));
+
+        try (Stream<Path> files = Files.list(small)) {
+            assertThat(files.filter(path -> path.getFileName().toString().startsWith("segment-")).count()).isGreaterThan(1);
+        }
+        assertThat(eventIds(eventStore.loadEvents(orderId))).isEqualTo(eventIds(events));
+        assertThat(eventStore.readAll(20, 100)).hasSize(20);
+    }
+
+    @Test
+    void tracksPublishedEventsAcrossReopen() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, orderStream(orderId, 4));
+
+        List<OutboxEvent> unpublished = eventStore.findUnpublished(10);
+        assertThat(unpublished).extracting(OutboxEvent::getVersion).containsExactly(1, 2, 3, 4);
+
+        eventStore.markPublished(List.of(unpublished.get(0).getId(), unpublished.get(2).getId()));
+        assertThat(eventStore.findUnpublished(10)).extracting(OutboxEvent::getVersion).containsExactly(2, 4);
+
+        eventStore.close();
+        eventStore = open(directory, DataSize.ofMegabytes(1));
+
+        assertThat(eventStore.findUnpublished(10)).extracting(OutboxEvent::getVersion).containsExactly(2, 3, 4);
+        eventStore.markPublished(eventStore.findUnpublished(10).stream().map(OutboxEvent::getId).toList());
+        assertThat(eventStore.findUnpublished(10)).isEmpty();
+    }
+
+    @Test
+    void rejectsExpectedVersionAheadOfStream() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, orderStream(orderId, 2));
+
+        assertThatThrownBy(() -> eventStore.saveEvents(orderId, 3, List.of(new OrderConfirmedEvent(orderId))))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(eventStore.loadEvents(orderId)).hasSize(2);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class GroupCommitWriterTest {
+
+    private static MongoServer server;
+    private static MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = spy(new MongoTemplate(client, "group-commit-test"));
+        mongoTemplate.getDb().drop();
+        new MongoEventStoreMigration(mongoTemplate, true).migrate();
+    }
+
+    /**
+     * Создает запись события.
+     *
+     * @param aggregateId идентификатор заказа
+     * @param version версия события
+     * @return запись события
+     */
+    private static StoredEvent event(String aggregateId, int version) {
+        return new StoredEvent(aggregateId, "OrderCreatedEvent", "smile", new byte[]{1}, version);
+    }
+
+    @Test
+    void commitsQueuedWritesInOneBatch() throws Exception {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        try (GroupCommitWriter writer = new GroupCommitWriter(mongoTemplate, 100, Duration.ofMillis(200))) {
+            for (int i = 0; i < 20; i++) {
+                results.add(writer.append(event("order-" + i, 1)));
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        verify(mongoTemplate, atMost(2)).findAndModify(any(), any(), any(), eq(Document.class),
+                eq(MongoEventStore.COUNTERS_COLLECTION));
+        assertThat(mongoTemplate.findAll(StoredEvent.class)).extracting(StoredEvent::getPosition)
+                .containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L,
+                        11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+    }
+
+    @Test
+    void failsOnlyConflictingWriteOfBatch() throws Exception {
+        CompletableFuture<Void> first;
+        CompletableFuture<Void> duplicate;
+        CompletableFuture<Void> other;
+        try (GroupCommitWriter writer = new GroupCommitWriter(mongoTemplate, 100, Duration.ofMillis(200))) {
+            first = writer.append(event("order-1", 1));
+            duplicate = writer.append(event("order-1", 1));
+            other = writer.append(event("order-2", 1));
+            CompletableFuture.allOf(first, other).get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(first).isCompleted();
+        assertThat(other).isCompleted();
+        assertThatThrownBy(duplicate::join).hasCauseInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void rejectsAppendAfterClose() {
+        GroupCommitWriter writer = new GroupCommitWriter(mongoTemplate, 100, Duration.ofMillis(1));
+        writer.close();
+
+        assertThatThrownBy(() -> writer.append(event("order-1", 1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void completesEveryAcceptedWriteWhenAppendRacesClose() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            GroupCommitWriter writer = new GroupCommitWriter(mongoTemplate, 16, Duration.ofMillis(1));
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            CountDownLatch started = new CountDownLatch(1);
+            String aggregateId = "order-" + round;
+            Thread appender = new Thread(() -> {
+                started.countDown();
+                for (int version = 1; version <= 1000; version++) {
+                    try {
+                        results.add(writer.append(event(aggregateId, version)));
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                }
+            });
+            appender.start();
+            started.await();
+            writer.close();
+            appender.join();
+
+            assertThat(results).allSatisfy(result -> assertThat(result).isDone());
+        }
+    }
+}
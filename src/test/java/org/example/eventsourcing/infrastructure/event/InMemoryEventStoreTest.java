@@ -0,0 +1,104 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEventStoreTest extends EventStoreContractTest {
+
+    private InMemoryEventStore eventStore;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemoryEventStore(4);
+    }
+
+    @Override
+    protected EventStore eventStore() {
+        return eventStore;
+    }
+
+    @Test
+    void assignsContiguousPositionsToConcurrentOrders() throws Exception {
+        int writers = 8;
+        int ordersPerWriter = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < ordersPerWriter; j++) {
+                        OrderId orderId = OrderId.generate();
+                        eventStore.saveEvents(orderId, 0, orderStream(orderId, 2));
+                        eventStore.saveEvents(orderId, 2, List.of(new OrderConfirmedEvent(orderId)));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = writers * ordersPerWriter * 3;
+        List<RecordedEvent> journal = eventStore.readAll(0, total + 1);
+        assertThat(journal).extracting(RecordedEvent::getPosition)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, total).boxed().toList());
+        assertThat(eventStore.loadEvents(journal.get(total - 1).getOrderId())).hasSize(3);
+    }
+
+    @Test
+    void tracksPublishedEvents() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, orderStream(orderId, 3));
+
+        List<OutboxEvent> unpublished = eventStore.findUnpublished(10);
+        assertThat(unpublished).extracting(OutboxEvent::getVersion).containsExactly(1, 2, 3);
+
+        eventStore.markPublished(List.of(unpublished.get(1).getId()));
+        assertThat(eventStore.findUnpublished(10)).extracting(OutboxEvent::getVersion).containsExactly(1, 3);
+
+        eventStore.markPublished(List.of(unpublished.get(0).getId(), unpublished.get(2).getId()));
+        assertThat(eventStore.findUnpublished(10)).isEmpty();
+    }
+
+    @Test
+    void rejectsExpectedVersionAheadOfStream() {
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, orderStream(orderId, 2));
+
+        assertThatThrownBy(() -> eventStore.saveEvents(orderId, 3, List.of(new OrderConfirmedEvent(orderId))))
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(eventStore.loadEvents(orderId)).hasSize(2);
+    }
+
+    @Test
+    void rejectsBatchBeyondCapacityWithoutLeavingGap() {
+        InMemoryEventStore small = new InMemoryEventStore(4, 3);
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+        small.saveEvents(first, 0, orderStream(first, 2));
+
+        assertThatThrownBy(() -> small.saveEvents(second, 0, orderStream(second, 2)))
+                .isInstanceOf(IllegalStateException.class);
+        small.saveEvents(second, 0, orderStream(second, 1));
+
+        assertThat(small.readAll(0, 10)).extracting(RecordedEvent::getPosition).containsExactly(1L, 2L, 3L);
+        assertThat(small.findUnpublished(10)).extracting(OutboxEvent::getVersion).containsExactly(1, 2, 1);
+        assertThat(small.loadEvents(second)).hasSize(1);
+        assertThatThrownBy(() -> small.saveEvents(second, 1, List.of(new OrderConfirmedEvent(second))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MongoEventStoreMigrationTest {
+
+    private static MongoServer server;
+    private static MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoEventStoreMigration migration;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(client, "migration-test");
+        mongoTemplate.getDb().drop();
+        migration = new MongoEventStoreMigration(mongoTemplate, true);
+    }
+
+    /**
+     * Сохраняет событие в формате до появления версий: версия 1 у всех событий.
+     *
+     * @param aggregateId идентификатор заказа
+     * @param eventType тип события
+     * @param second секунда времени записи
+     */
+    private void insertLegacy(String aggregateId, String eventType, int second) {
+        mongoTemplate.insert(new Document("aggregateId", aggregateId)
+                .append("eventType", eventType)
+                .append("version", 1)
+                .append("eventData", "{}")
+                .append("timestamp", Date.from(Instant.parse("2025-01-01T00:00:00Z").plusSeconds(second))), "events");
+    }
+
+    /**
+     * Возвращает типы и версии событий заказа в порядке версий.
+     *
+     * @param aggregateId идентификатор заказа
+     * @return строки вида тип:версия
+     */
+    private List<String> versions(String aggregateId) {
+        Query query = Query.query(Criteria.where("aggregateId").is(aggregateId)).with(Sort.by("version"));
+        return mongoTemplate.find(query, Document.class, "events").stream()
+                .map(document -> document.getString("eventType") + ":" + document.getInteger("version"))
+                .toList();
+    }
+
+    /**
+     * Возвращает заказы, версии и позиции событий в порядке позиций.
+     *
+     * @return строки вида заказ:версия:позиция
+     */
+    private List<String> positions() {
+        Query query = new Query().with(Sort.by("position"));
+        return mongoTemplate.find(query, Document.class, "events").stream()
+                .map(document -> document.getString("aggregateId") + ":" + document.getInteger("version")
+                        + ":" + document.get("position"))
+                .toList();
+    }
+
+    @Test
+    void renumbersLegacyStreamsByTimestamp() {
+        insertLegacy("order-1", "ItemAddedEvent", 2);
+        insertLegacy("order-1", "OrderCreatedEvent", 1);
+        insertLegacy("order-1", "OrderConfirmedEvent", 3);
+        insertLegacy("order-2", "OrderCreatedEvent", 1);
+
+        migration.migrate();
+
+        assertThat(versions("order-1")).containsExactly("OrderCreatedEvent:1", "ItemAddedEvent:2", "OrderConfirmedEvent:3");
+        assertThat(versions("order-2")).containsExactly("OrderCreatedEvent:1");
+    }
+
+    @Test
+    void backfillsPositionsInTimestampOrderAndContinuesCounterAfterThem() {
+        insertLegacy("order-2", "OrderCreatedEvent", 1);
+        insertLegacy("order-1", "OrderCreatedEvent", 1);
+        insertLegacy("order-1", "ItemAddedEvent", 2);
+
+        migration.migrate();
+
+        assertThat(positions()).containsExactly("order-1:1:1", "order-2:1:2", "order-1:2:3");
+        MongoEventStore eventStore = new MongoEventStore(
+                new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class),
+                EventStoreContractTest.eventSerializer(), EventStoreContractTest.eventTypeRegistry(), mongoTemplate,
+                256, 0, Duration.ofMillis(1));
+        OrderId orderId = OrderId.generate();
+        eventStore.saveEvents(orderId, 0, List.of(new OrderCreatedEvent(orderId, "customer-1")));
+        assertThat(eventStore.readAll(0, 10)).extracting(RecordedEvent::getPosition).containsExactly(1L, 2L, 3L, 4L);
+        migration.migrate();
+        assertThat(positions()).hasSize(4);
+    }
+
+    @Test
+    void createsUniqueVersionIndexAndIsIdempotent() {
+        insertLegacy("order-1", "OrderCreatedEvent", 1);
+        insertLegacy("order-1", "ItemAddedEvent", 2);
+
+        migration.migrate();
+        migration.migrate();
+
+        assertThat(versions("order-1")).containsExactly("OrderCreatedEvent:1", "ItemAddedEvent:2");
+        assertThat(mongoTemplate.indexOps(StoredEvent.class).getIndexInfo())
+                .filteredOn(index -> index.getName().equals(MongoEventStoreMigration.AGGREGATE_VERSION_INDEX))
+                .singleElement()
+                .extracting(IndexInfo::isUnique)
+                .isEqualTo(true);
+        assertThatThrownBy(() -> insertLegacy("order-1", "OrderConfirmedEvent", 3))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void dropsLegacyOutboxIndex() {
+        mongoTemplate.indexOps(StoredEvent.class).ensureIndex(new Index()
+                .on("published", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.ASC)
+                .named(MongoEventStoreMigration.LEGACY_OUTBOX_INDEX));
+        assertThat(mongoTemplate.indexOps(StoredEvent.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains(MongoEventStoreMigration.LEGACY_OUTBOX_INDEX);
+
+        migration.migrate();
+        migration.migrate();
+
+        assertThat(mongoTemplate.indexOps(StoredEvent.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .doesNotContain(MongoEventStoreMigration.LEGACY_OUTBOX_INDEX);
+    }
+}
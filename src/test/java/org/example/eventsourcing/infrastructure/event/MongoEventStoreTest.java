@@ -0,0 +1,156 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.configuration.AppConfig;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.util.EventSerializer;
+import org.example.eventsourcing.infrastructure.util.JsonEventCodec;
+import org.example.eventsourcing.infrastructure.util.SmileEventCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверки хранилища событий MongoDB на сервере MongoDB в памяти процесса.
+ */
+class MongoEventStoreTest extends EventStoreContractTest {
+
+    private static MongoServer server;
+    private static MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoEventStore eventStore;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(client, "events-test");
+        mongoTemplate.getDb().drop();
+        new MongoEventStoreMigration(mongoTemplate, true).migrate();
+        eventStore = new MongoEventStore(new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class),
+                eventSerializer(), eventTypeRegistry(), mongoTemplate, 256, 0, Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStore.close();
+    }
+
+    @Override
+    protected EventStore eventStore() {
+        return eventStore;
+    }
+
+    @Test
+    void streamsAcrossCursorBatches() {
+        MongoEventStore smallBatches = new MongoEventStore(new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class),
+                eventSerializer(), eventTypeRegistry(), mongoTemplate, 3, 0, Duration.ofMillis(1));
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 10);
+        smallBatches.saveEvents(orderId, 0, events);
+
+        try (Stream<OrderEvent> stream = smallBatches.streamEvents(orderId, 2)) {
+            assertThat(stream.map(OrderEvent::getEventId)).containsExactlyElementsOf(eventIds(events.subList(2, 10)));
+        }
+    }
+
+    @Test
+    void closesPartiallyReadStream() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = orderStream(orderId, 600);
+        eventStore.saveEvents(orderId, 0, events);
+
+        try (Stream<OrderEvent> stream = eventStore.streamEvents(orderId, 0)) {
+            assertThat(stream.limit(2).map(OrderEvent::getEventId)).containsExactlyElementsOf(eventIds(events.subList(0, 2)));
+        }
+        assertThat(eventStore.loadEvents(orderId, 598)).extracting(OrderEvent::getEventId)
+                .containsExactlyElementsOf(eventIds(events.subList(598, 600)));
+    }
+
+    @Test
+    void readsOutboxInPositionOrderRegardlessOfTimestamps() {
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+        eventStore.saveEvents(first, 0, orderStream(first, 3));
+        eventStore.saveEvents(second, 0, orderStream(second, 1));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("aggregateId").is(first.getValue()).and("version").is(3)),
+                Update.update("timestamp", Instant.EPOCH), StoredEvent.class);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("aggregateId").is(second.getValue())),
+                Update.update("timestamp", Instant.EPOCH), StoredEvent.class);
+
+        assertThat(eventStore.findUnpublished(2))
+                .extracting(outboxEvent -> outboxEvent.getOrderId().getValue() + ":" + outboxEvent.getVersion())
+                .containsExactly(first.getValue() + ":1", first.getValue() + ":2");
+    }
+
+    @Test
+    void readsLegacyJsonRowWithoutCodec() throws Exception {
+        OrderId orderId = OrderId.generate();
+        OrderCreatedEvent created = new OrderCreatedEvent(orderId, "customer-1");
+        StoredEvent legacy = new StoredEvent(orderId.getValue(), OrderCreatedEvent.class.getSimpleName(), null, null, 1);
+        legacy.setEventData(new AppConfig().objectMapper().writeValueAsString(created));
+        mongoTemplate.insert(legacy);
+        List<OrderEvent> appended = orderStream(orderId, 2).subList(1, 2);
+        eventStore.saveEvents(orderId, 1, appended);
+
+        List<OrderEvent> loaded = eventStore.loadEvents(orderId, 0);
+
+        assertThat(loaded).hasSize(2);
+        assertThat(loaded.get(0)).isExactlyInstanceOf(OrderCreatedEvent.class).usingRecursiveComparison().isEqualTo(created);
+        assertThat(loaded.get(1).getEventId()).isEqualTo(appended.get(0).getEventId());
+    }
+
+    @Test
+    void timesLegacyJsonRowsLikeCodecRows() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        EventSerializer serializer = new EventSerializer(objectMapper,
+                List.of(new JsonEventCodec(objectMapper), new SmileEventCodec(objectMapper)), "smile", meterRegistry);
+        MongoEventStore timedStore = new MongoEventStore(new MongoRepositoryFactory(mongoTemplate).getRepository(EventRepository.class),
+                serializer, eventTypeRegistry(), mongoTemplate, 256, 0, Duration.ofMillis(1));
+        OrderId orderId = OrderId.generate();
+        StoredEvent legacy = new StoredEvent(orderId.getValue(), OrderCreatedEvent.class.getSimpleName(), null, null, 1);
+        legacy.setEventData(objectMapper.writeValueAsString(new OrderCreatedEvent(orderId, "customer-1")));
+        mongoTemplate.insert(legacy);
+
+        try {
+            timedStore.loadEvents(orderId, 0);
+        } finally {
+            timedStore.close();
+        }
+
+        assertThat(meterRegistry.get("orders.events.deserialize").tag("type", "OrderCreatedEvent").timer().count())
+                .isEqualTo(1);
+    }
+}
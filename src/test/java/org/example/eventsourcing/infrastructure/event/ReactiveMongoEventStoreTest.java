@@ -0,0 +1,93 @@
+package org.example.eventsourcing.infrastructure.event;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверки неблокирующего хранилища событий на сервере MongoDB в памяти процесса.
+ */
+class ReactiveMongoEventStoreTest {
+
+    private static MongoServer server;
+    private static MongoClient client;
+    private static com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private ReactiveMongoEventStore eventStore;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        String connectionString = server.bindAndGetConnectionString();
+        client = MongoClients.create(connectionString);
+        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(connectionString);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        reactiveClient.close();
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "events-test");
+        mongoTemplate.getDb().drop();
+        new MongoEventStoreMigration(mongoTemplate, true).migrate();
+        eventStore = new ReactiveMongoEventStore(EventStoreContractTest.eventSerializer(),
+                EventStoreContractTest.eventTypeRegistry(), new ReactiveMongoTemplate(reactiveClient, "events-test"), 2);
+    }
+
+    @Test
+    void appendsAndLoadsEventsAfterVersion() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = EventStoreContractTest.orderStream(orderId, 5);
+        eventStore.saveEvents(orderId, 0, events.subList(0, 2)).block();
+        eventStore.saveEvents(orderId, 2, events.subList(2, 5)).block();
+
+        assertThat(eventStore.loadEvents(orderId, 1).map(OrderEvent::getEventId).collectList().block())
+                .containsExactlyElementsOf(EventStoreContractTest.eventIds(events.subList(1, 5)));
+    }
+
+    @Test
+    void mapsDuplicateVersionToConcurrencyException() {
+        OrderId orderId = OrderId.generate();
+        List<OrderEvent> events = EventStoreContractTest.orderStream(orderId, 2);
+        eventStore.saveEvents(orderId, 0, events).block();
+
+        assertThatThrownBy(() -> eventStore.saveEvents(orderId, 1, List.of(new OrderConfirmedEvent(orderId))).block())
+                .isInstanceOf(ConcurrencyException.class);
+        assertThat(eventStore.loadEvents(orderId, 0).map(OrderEvent::getEventId).collectList().block())
+                .containsExactlyElementsOf(EventStoreContractTest.eventIds(events));
+    }
+
+    @Test
+    void publishesOutboxInWriteOrder() {
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+        eventStore.saveEvents(first, 0, EventStoreContractTest.orderStream(first, 2)).block();
+        eventStore.saveEvents(second, 0, EventStoreContractTest.orderStream(second, 1)).block();
+
+        List<OutboxEvent> unpublished = eventStore.findUnpublished(10).collectList().block();
+        assertThat(unpublished).extracting(outboxEvent -> outboxEvent.getOrderId().getValue() + ":" + outboxEvent.getVersion())
+                .containsExactlyInAnyOrder(first.getValue() + ":1", first.getValue() + ":2", second.getValue() + ":1");
+
+        eventStore.markPublished(unpublished.stream().map(OutboxEvent::getId).toList()).block();
+        assertThat(eventStore.findUnpublished(10).collectList().block()).isEmpty();
+    }
+}
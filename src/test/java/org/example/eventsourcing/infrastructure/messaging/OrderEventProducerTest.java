@@ -0,0 +1,59 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEventProducerTest {
+
+    private KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventProducer producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new OrderEventProducer("orders", kafkaTemplate, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendsVersionHeaderAndTimesOutcomePerType() {
+        OrderId orderId = OrderId.generate();
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        producer.publish(orderId, 1, new OrderCreatedEvent(orderId, "customer-1"));
+        producer.publish(orderId, 2, new OrderConfirmedEvent(orderId));
+
+        ArgumentCaptor<ProducerRecord<String, OrderEvent>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        assertThat(records.getAllValues()).extracting(record -> OrderEventHeaders.version(record.headers()))
+                .containsExactly(1, 2);
+        assertThat(records.getAllValues()).extracting(ProducerRecord::key).containsOnly(orderId.getValue());
+        assertThat(meterRegistry.get("orders.kafka.send").tags("type", "OrderCreatedEvent", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.kafka.send").tags("type", "OrderConfirmedEvent", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+    }
+}
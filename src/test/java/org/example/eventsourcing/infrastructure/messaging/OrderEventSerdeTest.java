@@ -0,0 +1,139 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.eventsourcing.configuration.AppConfig;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.example.eventsourcing.infrastructure.event.EventTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderEventSerdeTest {
+
+    private static final String TOPIC = "orders";
+    private final OrderId orderId = OrderId.generate();
+    private ObjectMapper objectMapper;
+    private EventTypeRegistry eventTypeRegistry;
+    private OrderEventSerializer serializer;
+    private OrderEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new AppConfig().objectMapper();
+        eventTypeRegistry = new EventTypeRegistry();
+        eventTypeRegistry.registerEvents();
+        serializer = new OrderEventSerializer(objectMapper, eventTypeRegistry);
+        deserializer = new OrderEventDeserializer(objectMapper, eventTypeRegistry);
+    }
+
+    /**
+     * Возвращает по одному событию каждого типа.
+     *
+     * @return события заказа
+     */
+    private List<OrderEvent> allEventTypes() {
+        return List.of(
+                new OrderCreatedEvent(orderId, "customer-1"),
+                new ItemAddedEvent(orderId, new Product("product-1", "Чай", new BigDecimal("10.50"), 3)),
+                new OrderConfirmedEvent(orderId));
+    }
+
+    @Test
+    void roundTripsEveryEventType() {
+        List<OrderEvent> events = allEventTypes();
+        assertThat(events).extracting(OrderEvent::getClass)
+                .containsExactlyInAnyOrderElementsOf(eventTypeRegistry.getEventClassesById().values());
+
+        for (OrderEvent event : events) {
+            Headers headers = new RecordHeaders();
+            byte[] data = serializer.serialize(TOPIC, headers, event);
+
+            assertThat(headers.headers(OrderEventHeaders.TYPE)).hasSize(1);
+            assertThat(OrderEventHeaders.typeId(headers.lastHeader(OrderEventHeaders.TYPE).value()))
+                    .isEqualTo(eventTypeRegistry.getTypeId(event.getClass()));
+            assertThat(deserializer.deserialize(TOPIC, headers, data))
+                    .isExactlyInstanceOf(event.getClass())
+                    .usingRecursiveComparison()
+                    .isEqualTo(event);
+        }
+    }
+
+    @Test
+    void replacesExistingTypeHeader() {
+        Headers headers = new RecordHeaders();
+        headers.add(OrderEventHeaders.TYPE, OrderEventHeaders.typeIdValue(eventTypeRegistry.getTypeId(OrderCreatedEvent.class)));
+        OrderConfirmedEvent event = new OrderConfirmedEvent(orderId);
+
+        byte[] data = serializer.serialize(TOPIC, headers, event);
+
+        assertThat(headers.headers(OrderEventHeaders.TYPE)).hasSize(1);
+        assertThat(deserializer.deserialize(TOPIC, headers, data)).isExactlyInstanceOf(OrderConfirmedEvent.class);
+    }
+
+    @Test
+    void skipsUnknownAndNotAcceptedTypes() {
+        Headers unknown = new RecordHeaders();
+        unknown.add(OrderEventHeaders.TYPE, OrderEventHeaders.typeIdValue(200));
+        Headers malformed = new RecordHeaders();
+        malformed.add(OrderEventHeaders.TYPE, new byte[]{1, 2});
+        OrderEventDeserializer createdOnly = new OrderEventDeserializer(objectMapper, eventTypeRegistry,
+                Set.of(OrderCreatedEvent.class));
+        Headers confirmed = new RecordHeaders();
+        byte[] data = serializer.serialize(TOPIC, confirmed, new OrderConfirmedEvent(orderId));
+
+        assertThat(deserializer.deserialize(TOPIC, unknown, "{}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(deserializer.deserialize(TOPIC, malformed, "{}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(createdOnly.deserialize(TOPIC, confirmed, data)).isNull();
+    }
+
+    @Test
+    void rejectsRecordWithoutTypeHeader() {
+        byte[] data = serializer.serialize(TOPIC, new OrderConfirmedEvent(orderId));
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, new RecordHeaders(), data))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void readsLegacyPayloadByClassNameHeader() throws Exception {
+        ItemAddedEvent event = new ItemAddedEvent(orderId, new Product("product-1", "Чай", new BigDecimal("10.50"), 3));
+        Headers headers = new RecordHeaders();
+        headers.add("__TypeId__", ItemAddedEvent.class.getName().getBytes(StandardCharsets.UTF_8));
+
+        OrderEvent read = deserializer.deserialize(TOPIC, headers, objectMapper.writeValueAsBytes(event));
+
+        assertThat(read).isExactlyInstanceOf(ItemAddedEvent.class).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void rejectsMalformedBody() {
+        Headers headers = new RecordHeaders();
+        headers.add(OrderEventHeaders.TYPE, OrderEventHeaders.typeIdValue(eventTypeRegistry.getTypeId(OrderCreatedEvent.class)));
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, headers, "{not json".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void passesNullThrough() {
+        assertThat(serializer.serialize(TOPIC, new RecordHeaders(), null)).isNull();
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), (byte[]) null)).isNull();
+    }
+}
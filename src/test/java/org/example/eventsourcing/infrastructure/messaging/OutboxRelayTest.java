@@ -0,0 +1,74 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.EventOutbox;
+import org.example.eventsourcing.infrastructure.event.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OrderId first = new OrderId("order-1");
+    private final OrderId second = new OrderId("order-2");
+    private EventOutbox outbox;
+    private OrderEventProducer eventProducer;
+
+    @BeforeEach
+    void setUp() {
+        outbox = mock(EventOutbox.class);
+        eventProducer = mock(OrderEventProducer.class);
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publish(any(), anyInt(), any());
+    }
+
+    /**
+     * Создает запись исходящего буфера с идентификатором вида заказ:версия.
+     *
+     * @param orderId идентификатор заказа
+     * @param version версия события
+     * @return запись исходящего буфера
+     */
+    private static OutboxEvent outboxEvent(OrderId orderId, int version) {
+        return new OutboxEvent(orderId.getValue() + ":" + version, orderId, version,
+                version == 1 ? new OrderCreatedEvent(orderId, "customer-1") : new OrderConfirmedEvent(orderId));
+    }
+
+    @Test
+    void keepsLaterEventsOfOrderUnpublishedAfterFailure() {
+        when(outbox.findUnpublished(4)).thenReturn(List.of(
+                outboxEvent(first, 1), outboxEvent(first, 2), outboxEvent(first, 3), outboxEvent(second, 1)));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .when(eventProducer).publish(eq(first), eq(2), any());
+
+        new OutboxRelay(outbox, eventProducer, 4).relay();
+
+        verify(outbox).markPublished(List.of("order-1:1", "order-2:1"));
+        verify(outbox, times(1)).findUnpublished(4);
+    }
+
+    @Test
+    void publishesBatchesUntilOutboxIsDrained() {
+        when(outbox.findUnpublished(2))
+                .thenReturn(List.of(outboxEvent(first, 1), outboxEvent(first, 2)))
+                .thenReturn(List.of(outboxEvent(second, 1)));
+
+        new OutboxRelay(outbox, eventProducer, 2).relay();
+
+        verify(outbox).markPublished(List.of("order-1:1", "order-1:2"));
+        verify(outbox).markPublished(List.of("order-2:1"));
+        verify(outbox, times(2)).findUnpublished(2);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.eventsourcing.infrastructure.messaging;
+
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.infrastructure.event.OutboxEvent;
+import org.example.eventsourcing.infrastructure.event.ReactiveEventOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveOutboxRelayTest {
+
+    private final OrderId first = new OrderId("order-1");
+    private final OrderId second = new OrderId("order-2");
+    private ReactiveEventOutbox outbox;
+    private OrderEventProducer eventProducer;
+
+    @BeforeEach
+    void setUp() {
+        outbox = mock(ReactiveEventOutbox.class);
+        eventProducer = mock(OrderEventProducer.class);
+        when(outbox.markPublished(anyCollection())).thenReturn(Mono.empty());
+        doReturn(CompletableFuture.completedFuture(null)).when(eventProducer).publish(any(), anyInt(), any());
+    }
+
+    /**
+     * Создает запись исходящего буфера с идентификатором вида заказ:версия.
+     *
+     * @param orderId идентификатор заказа
+     * @param version версия события
+     * @return запись исходящего буфера
+     */
+    private static OutboxEvent outboxEvent(OrderId orderId, int version) {
+        return new OutboxEvent(orderId.getValue() + ":" + version, orderId, version,
+                version == 1 ? new OrderCreatedEvent(orderId, "customer-1") : new OrderConfirmedEvent(orderId));
+    }
+
+    @Test
+    void keepsLaterEventsOfOrderUnpublishedAfterFailure() {
+        when(outbox.findUnpublished(4)).thenReturn(Flux.just(
+                outboxEvent(first, 1), outboxEvent(first, 2), outboxEvent(first, 3), outboxEvent(second, 1)));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .when(eventProducer).publish(eq(first), eq(2), any());
+
+        new ReactiveOutboxRelay(outbox, eventProducer, 4).relay().block();
+
+        verify(outbox).markPublished(List.of("order-1:1", "order-2:1"));
+        verify(outbox, times(1)).findUnpublished(4);
+    }
+
+    @Test
+    void publishesBatchesUntilOutboxIsDrained() {
+        when(outbox.findUnpublished(2))
+                .thenReturn(Flux.just(outboxEvent(first, 1), outboxEvent(first, 2)))
+                .thenReturn(Flux.just(outboxEvent(second, 1)));
+
+        new ReactiveOutboxRelay(outbox, eventProducer, 2).relay().block();
+
+        verify(outbox).markPublished(List.of("order-1:1", "order-1:2"));
+        verify(outbox).markPublished(List.of("order-2:1"));
+        verify(outbox, times(2)).findUnpublished(2);
+    }
+
+    @Test
+    void sendsOffCallingThread() {
+        Set<String> sendThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            sendThreads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(null);
+        }).when(eventProducer).publish(any(), anyInt(), any());
+        when(outbox.findUnpublished(4)).thenReturn(Flux.just(outboxEvent(first, 1), outboxEvent(second, 1)));
+
+        new ReactiveOutboxRelay(outbox, eventProducer, 4).relay().block();
+
+        assertThat(sendThreads).isNotEmpty().allMatch(name -> name.startsWith("boundedElastic"));
+        verify(outbox).markPublished(List.of("order-1:1", "order-2:1"));
+    }
+}
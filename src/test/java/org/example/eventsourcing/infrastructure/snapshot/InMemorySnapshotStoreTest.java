@@ -0,0 +1,46 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.OrderLines;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySnapshotStoreTest {
+
+    private final InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore();
+    private final OrderId orderId = OrderId.generate();
+    private final List<Product> products = List.of(
+            new Product("product-1", "Товар 1", new BigDecimal("10.50"), 2),
+            new Product("product-2", "Товар 2", new BigDecimal("3.00"), 1));
+
+    @Test
+    void replacesSnapshotAndRestoresItInBothModes() {
+        snapshotStore.saveSnapshot(Order.restore(orderId, "customer-1", OrderLines.of(products.subList(0, 1)), false, 2), 2);
+        snapshotStore.saveSnapshot(Order.restore(orderId, "customer-1", OrderLines.of(products), true, 4), 4);
+
+        Order full = snapshotStore.loadSnapshot(orderId, ReplayMode.FULL).orElseThrow();
+        assertThat(full.getLines().toProducts()).extracting(Product::getProductId).containsExactly("product-1", "product-2");
+        assertThat(full.isConfirmed()).isTrue();
+        assertThat(full.getVersion()).isEqualTo(4);
+
+        Order stateOnly = snapshotStore.loadSnapshot(orderId, ReplayMode.STATE_ONLY).orElseThrow();
+        assertThat(stateOnly.getLines().isDetailed()).isFalse();
+        assertThat(stateOnly.getLines().size()).isEqualTo(2);
+    }
+
+    @Test
+    void ignoresCountOnlySnapshotInFullModeAndMissingOrders() {
+        snapshotStore.saveSnapshot(Order.restore(orderId, "customer-1", OrderLines.countOnly(2), false, 3), 3);
+
+        assertThat(snapshotStore.loadSnapshot(orderId, ReplayMode.FULL)).isEmpty();
+        assertThat(snapshotStore.loadSnapshot(orderId, ReplayMode.STATE_ONLY).orElseThrow().getVersion()).isEqualTo(3);
+        assertThat(snapshotStore.loadSnapshot(OrderId.generate(), ReplayMode.STATE_ONLY)).isEmpty();
+    }
+}
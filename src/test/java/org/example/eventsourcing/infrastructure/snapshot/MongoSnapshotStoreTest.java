@@ -0,0 +1,70 @@
+package org.example.eventsourcing.infrastructure.snapshot;
+
+import org.example.eventsourcing.domain.aggregate.Order;
+import org.example.eventsourcing.domain.aggregate.OrderLines;
+import org.example.eventsourcing.domain.aggregate.ReplayMode;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoSnapshotStoreTest {
+
+    private final SnapshotRepository repository = mock(SnapshotRepository.class);
+    private final MongoSnapshotStore snapshotStore = new MongoSnapshotStore(repository);
+    private final OrderId orderId = OrderId.generate();
+    private final List<Product> products = List.of(
+            new Product("product-1", "Товар 1", new BigDecimal("10.50"), 2),
+            new Product("product-2", "Товар 2", new BigDecimal("3.00"), 1));
+
+    @Test
+    void savesProductsOnlyForDetailedLines() {
+        snapshotStore.saveSnapshot(Order.restore(orderId, "customer-1", OrderLines.of(products), true, 4), 4);
+        snapshotStore.saveSnapshot(Order.restore(orderId, "customer-1", OrderLines.countOnly(2), true, 4), 4);
+
+        ArgumentCaptor<OrderSnapshot> saved = ArgumentCaptor.forClass(OrderSnapshot.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues().get(0).getProducts()).hasSize(2);
+        assertThat(saved.getAllValues().get(1).getProducts()).isNull();
+        assertThat(saved.getAllValues()).allSatisfy(snapshot -> {
+            assertThat(snapshot.getLineCount()).isEqualTo(2);
+            assertThat(snapshot.getVersion()).isEqualTo(4);
+            assertThat(snapshot.isConfirmed()).isTrue();
+        });
+    }
+
+    @Test
+    void ignoresCountOnlySnapshotInFullMode() {
+        when(repository.findById(orderId.getValue()))
+                .thenReturn(Optional.of(new OrderSnapshot(orderId.getValue(), "customer-1", null, 2, false, 3)));
+
+        assertThat(snapshotStore.loadSnapshot(orderId, ReplayMode.FULL)).isEmpty();
+        Order order = snapshotStore.loadSnapshot(orderId, ReplayMode.STATE_ONLY).orElseThrow();
+        assertThat(order.getLines().size()).isEqualTo(2);
+        assertThat(order.getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void restoresProductsInFullModeAndCountInStateOnlyMode() {
+        when(repository.findById(orderId.getValue()))
+                .thenReturn(Optional.of(new OrderSnapshot(orderId.getValue(), "customer-1", products, 2, false, 3)));
+
+        Order full = snapshotStore.loadSnapshot(orderId, ReplayMode.FULL).orElseThrow();
+        assertThat(full.getLines().toProducts()).extracting(Product::getProductId).containsExactly("product-1", "product-2");
+        assertThat(full.getCustomerId()).isEqualTo("customer-1");
+
+        Order stateOnly = snapshotStore.loadSnapshot(orderId, ReplayMode.STATE_ONLY).orElseThrow();
+        assertThat(stateOnly.getLines().isDetailed()).isFalse();
+        assertThat(stateOnly.getLines().size()).isEqualTo(2);
+    }
+}
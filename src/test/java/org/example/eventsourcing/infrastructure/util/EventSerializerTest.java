@@ -0,0 +1,112 @@
+package org.example.eventsourcing.infrastructure.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.eventsourcing.configuration.AppConfig;
+import org.example.eventsourcing.domain.event.ItemAddedEvent;
+import org.example.eventsourcing.domain.event.OrderConfirmedEvent;
+import org.example.eventsourcing.domain.event.OrderCreatedEvent;
+import org.example.eventsourcing.domain.event.OrderEvent;
+import org.example.eventsourcing.domain.model.OrderId;
+import org.example.eventsourcing.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSerializerTest {
+
+    private final ObjectMapper objectMapper = new AppConfig().objectMapper();
+    private final OrderId orderId = OrderId.generate();
+
+    /**
+     * Создает сериализатор с JSON- и Smile-кодеками.
+     *
+     * @param defaultCodec имя кодека для новых событий
+     * @param meterRegistry реестр метрик
+     * @return сериализатор событий
+     */
+    private EventSerializer serializer(String defaultCodec, SimpleMeterRegistry meterRegistry) {
+        return new EventSerializer(objectMapper,
+                List.of(new JsonEventCodec(objectMapper), new SmileEventCodec(objectMapper)), defaultCodec, meterRegistry);
+    }
+
+    @Test
+    void roundTripsEventThroughSmile() {
+        EventSerializer serializer = serializer(SmileEventCodec.NAME, new SimpleMeterRegistry());
+        ItemAddedEvent event = new ItemAddedEvent(orderId, new Product("product-1", "Чай", new BigDecimal("10.50"), 3));
+
+        byte[] data = serializer.encode(event);
+
+        assertThat(serializer.getDefaultCodec()).isEqualTo(SmileEventCodec.NAME);
+        assertThat(data).isNotEqualTo(new JsonEventCodec(objectMapper).encode(event));
+        assertThat(serializer.decode(SmileEventCodec.NAME, data, ItemAddedEvent.class))
+                .usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void keepsEventIdAndTimestampOfEveryEventType() throws Exception {
+        List<OrderEvent> events = List.of(
+                new OrderCreatedEvent(orderId, "customer-1"),
+                new ItemAddedEvent(orderId, new Product("product-1", "Чай", new BigDecimal("10.50"), 3)),
+                new OrderConfirmedEvent(orderId));
+        Thread.sleep(5);
+
+        for (String codec : List.of(SmileEventCodec.NAME, JsonEventCodec.NAME)) {
+            EventSerializer serializer = serializer(codec, new SimpleMeterRegistry());
+            for (OrderEvent event : events) {
+                OrderEvent decoded = serializer.decode(codec, serializer.encode(event), event.getClass());
+                OrderEvent legacy = serializer.deserialize(serializer.serialize(event), event.getClass());
+
+                assertThat(decoded.getEventId()).isEqualTo(event.getEventId());
+                assertThat(decoded.getTimestamp()).isEqualTo(event.getTimestamp());
+                assertThat(decoded.getOrderId()).isEqualTo(event.getOrderId());
+                assertThat(legacy.getEventId()).isEqualTo(event.getEventId());
+                assertThat(legacy.getTimestamp()).isEqualTo(event.getTimestamp());
+            }
+        }
+    }
+
+    @Test
+    void decodesJsonWrittenByOtherDefaultCodec() {
+        EventSerializer serializer = serializer(SmileEventCodec.NAME, new SimpleMeterRegistry());
+        OrderCreatedEvent event = new OrderCreatedEvent(orderId, "customer-1");
+
+        byte[] data = serializer(JsonEventCodec.NAME, new SimpleMeterRegistry()).encode(event);
+
+        assertThat(serializer.decode(JsonEventCodec.NAME, data, OrderCreatedEvent.class))
+                .usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void rejectsUnknownCodecName() {
+        EventSerializer serializer = serializer(SmileEventCodec.NAME, new SimpleMeterRegistry());
+        byte[] data = serializer.encode(new OrderCreatedEvent(orderId, "customer-1"));
+
+        assertThatThrownBy(() -> serializer.decode("avro", data, OrderCreatedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("avro");
+        assertThatThrownBy(() -> serializer("avro", new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void timesEncodingAndDecodingPerEventType() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventSerializer serializer = serializer("smile", meterRegistry);
+
+        byte[] created = serializer.encode(new OrderCreatedEvent(orderId, "customer-1"));
+        byte[] added = serializer.encode(new ItemAddedEvent(orderId, new Product("product-1", "Товар", BigDecimal.ONE, 1)));
+        serializer.decode("smile", created, OrderCreatedEvent.class);
+        serializer.decode("smile", added, ItemAddedEvent.class);
+        serializer.decode("smile", added, ItemAddedEvent.class);
+
+        assertThat(meterRegistry.get("orders.events.serialize").tag("type", "OrderCreatedEvent").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.events.serialize").tag("type", "ItemAddedEvent").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.events.deserialize").tag("type", "OrderCreatedEvent").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.events.deserialize").tag("type", "ItemAddedEvent").timer().count()).isEqualTo(2);
+    }
+}
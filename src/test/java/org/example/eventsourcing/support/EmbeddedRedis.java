@@ -0,0 +1,105 @@
+package org.example.eventsourcing.support;
+
+import org.example.eventsourcing.configuration.AppConfig;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Сервер Redis, запущенный из тестов на свободном порту, с клиентом,
+ * настроенным так же, как в приложении.
+ */
+public final class EmbeddedRedis implements AutoCloseable {
+    private final RedisServer server;                         // Процесс Redis
+    private final int port;                                   // Порт сервера
+    private final LettuceConnectionFactory connectionFactory; // Фабрика соединений
+    private final RedisTemplate<String, String> template;     // Клиент Redis
+
+    /**
+     * Запускает сервер на указанном порту и подключается к нему.
+     *
+     * @param port порт сервера
+     * @throws IOException если сервер не запустился
+     */
+    private EmbeddedRedis(int port) throws IOException {
+        this.port = port;
+        this.server = new RedisServer(port);
+        this.server.start();
+        this.connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        this.connectionFactory.afterPropertiesSet();
+        this.connectionFactory.start();
+        this.template = new AppConfig().redisTemplate(connectionFactory);
+        this.template.afterPropertiesSet();
+    }
+
+    /**
+     * Запускает сервер Redis на свободном порту.
+     *
+     * @return запущенный сервер
+     */
+    public static EmbeddedRedis start() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            int port = socket.getLocalPort();
+            socket.close();
+            return new EmbeddedRedis(port);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Возвращает порт сервера.
+     *
+     * @return порт
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Возвращает фабрику соединений с сервером.
+     *
+     * @return фабрика соединений
+     */
+    public LettuceConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * Возвращает клиент Redis с сериализаторами приложения.
+     *
+     * @return клиент Redis
+     */
+    public RedisTemplate<String, String> getTemplate() {
+        return template;
+    }
+
+    /**
+     * Удаляет все ключи.
+     */
+    public void flush() {
+        template.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    /**
+     * Закрывает соединения и останавливает сервер.
+     */
+    @Override
+    public void close() {
+        connectionFactory.destroy();
+        try {
+            server.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}